@@ -0,0 +1,361 @@
+package org.example.banking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "banking")
+public class BankingProperties {
+
+    /**
+     * Concurrency control used by deposit, withdraw and transfer.
+     */
+    private LockingStrategy lockingStrategy = LockingStrategy.ATOMIC;
+
+    private Transfer transfer = new Transfer();
+
+    private Retry retry = new Retry();
+
+    private Cache cache = new Cache();
+
+    private BulkCreate bulkCreate = new BulkCreate();
+
+    private Journal journal = new Journal();
+
+    private Sharding sharding = new Sharding();
+
+    private DepositCoalescing depositCoalescing = new DepositCoalescing();
+
+    private Engine engine = new Engine();
+
+    private Wal wal = new Wal();
+
+    private AccountNumberFilter accountNumberFilter = new AccountNumberFilter();
+
+    private ReadReplicas readReplicas = new ReadReplicas();
+
+    private Bulkhead bulkhead = new Bulkhead();
+
+    private Metrics metrics = new Metrics();
+
+    private FlightRecorder flightRecorder = new FlightRecorder();
+
+    private Idempotency idempotency = new Idempotency();
+
+    public enum LockingStrategy {
+        /**
+         * Conditional single-statement updates; rows are only locked for the duration of each UPDATE.
+         */
+        ATOMIC,
+        /**
+         * {@code SELECT ... FOR UPDATE} on both accounts in ascending id order, then an in-memory update.
+         */
+        PESSIMISTIC,
+        /**
+         * Plain reads and a {@code @Version} check on write; conflicting attempts are retried.
+         */
+        OPTIMISTIC,
+        /**
+         * Money operations only append pending journal entries; the balance is the account row plus
+         * the pending entries, and a background compactor folds them into the row.
+         */
+        JOURNAL,
+        /**
+         * Balances are held and changed in memory by the partitioned transfer engine and written back
+         * to the account rows in batches; changes not yet written are lost on a crash.
+         */
+        IN_MEMORY
+    }
+
+    @Data
+    public static class Transfer {
+
+        /**
+         * Number of batch transfer items applied in one database transaction.
+         */
+        private int batchChunkSize = 500;
+    }
+
+    @Data
+    public static class BulkCreate {
+
+        /**
+         * Number of accounts persisted between two flushes and clears of the persistence context.
+         */
+        private int flushSize = 1000;
+    }
+
+    @Data
+    public static class Journal {
+
+        /**
+         * Delay between two runs of the compactor that folds pending journal entries into the account rows.
+         */
+        private Duration compactionInterval = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class Sharding {
+
+        /**
+         * Upper bound for the number of shards a hot account can be spread over.
+         */
+        private int maxShards = 64;
+
+        /**
+         * How long the shard count of an account is remembered when routing deposits and withdrawals.
+         */
+        private Duration shardCountTimeToLive = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class DepositCoalescing {
+
+        /**
+         * Whether deposits to the same account arriving within {@link #window} are applied together.
+         */
+        private boolean enabled = false;
+
+        /**
+         * How long the first deposit of a batch waits for others to the same account.
+         */
+        private Duration window = Duration.ofMillis(2);
+
+        /**
+         * Number of deposits after which a batch is applied without waiting for the window to end.
+         */
+        private int maxBatchSize = 500;
+
+        /**
+         * Threads applying batches; batches of different accounts are applied in parallel.
+         */
+        private int flushThreads = 4;
+
+        /**
+         * How long a caller waits for its batch to be applied before giving up on it.
+         */
+        private Duration timeout = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class Engine {
+
+        /**
+         * Number of partitions of the in-memory transfer engine, each applied by its own thread.
+         */
+        private int partitions = 4;
+
+        /**
+         * Slots of the command ring buffer of each partition; must be a power of two.
+         */
+        private int ringSize = 8192;
+
+        /**
+         * Delay between two writes of applied changes to the account rows.
+         */
+        private Duration flushInterval = Duration.ofMillis(100);
+
+        /**
+         * Upper bound for the number of applied changes written in one transaction.
+         */
+        private int flushBatchSize = 100_000;
+    }
+
+    @Data
+    public static class Wal {
+
+        /**
+         * Whether the in-memory transfer engine acknowledges changes only once they are durable in the
+         * local write-ahead log.
+         */
+        private boolean enabled = false;
+
+        private Path directory = Path.of("wal");
+
+        /**
+         * Size each log segment file is pre-allocated to; a full segment is forced and a new one started.
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+        /**
+         * Number of waiting records after which the log is forced without waiting for the interval.
+         */
+        private int groupCommitRecords = 256;
+
+        /**
+         * Longest time a record waits for others before the log is forced.
+         */
+        private Duration groupCommitInterval = Duration.ofNanos(200_000);
+    }
+
+    @Data
+    public static class AccountNumberFilter {
+
+        /**
+         * Whether lookups by account number and uniqueness checks consult the in-memory Bloom filter
+         * before querying the database.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Number of account numbers the filter is sized for; one byte of memory per counter, about
+         * ten counters per account number at a one percent false-positive probability.
+         */
+        private long expectedInsertions = 1_000_000;
+
+        private double falsePositiveProbability = 0.01;
+
+        /**
+         * Delay between two rebuilds of the filter from the account table.
+         */
+        private Duration rebuildInterval = Duration.ofMinutes(10);
+
+        /**
+         * Whether this node is the only one creating and renaming accounts. Only then does a lookup by
+         * account number trust a negative answer of the filter; otherwise it still queries the
+         * database, as numbers written by other nodes reach the filter with the next rebuild.
+         */
+        private boolean singleNode = false;
+    }
+
+    @Data
+    public static class ReadReplicas {
+
+        /**
+         * Whether read-only account service calls are sent to {@link #replicas} instead of the primary
+         * configured under {@code spring.datasource}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Replica databases, used in turn for each read-only connection.
+         */
+        private List<Replica> replicas = new ArrayList<>();
+
+        /**
+         * How long after a write the reads of the same client still go to the primary, to hide the
+         * replication lag from it.
+         */
+        private Duration stalenessWindow = Duration.ofSeconds(2);
+
+        /**
+         * Request header identifying a client; the remote address is used when it is missing.
+         */
+        private String clientIdHeader = "X-Client-Id";
+
+        /**
+         * Upper bound for the number of clients remembered as having written recently.
+         */
+        private long maximumRecentWriters = 100_000;
+    }
+
+    @Data
+    public static class Replica {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private int maximumPoolSize = 10;
+    }
+
+    @Data
+    public static class Bulkhead {
+
+        /**
+         * Whether account service calls are limited to {@link #maxConcurrentCalls} at a time, with the
+         * callers beyond that queueing fairly and failing with 503 once the queue is full or they have
+         * waited for {@link #queueTimeout}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Calls running at once; {@code 0} sizes the bulkhead to the maximum size of the connection pool.
+         */
+        private int maxConcurrentCalls = 0;
+
+        /**
+         * Calls allowed to wait for a slot; further calls are rejected at once.
+         */
+        private int maxWaitingCalls = 100;
+
+        private Duration queueTimeout = Duration.ofMillis(200);
+    }
+
+    @Data
+    public static class Metrics {
+
+        /**
+         * Whether deposit, withdraw and transfer are timed, with their database and lock wait time
+         * measured at the JDBC statement level.
+         */
+        private boolean enabled = true;
+    }
+
+    @Data
+    public static class FlightRecorder {
+
+        /**
+         * Whether deposit, withdraw and transfer are emitted as flight recorder events, independently
+         * of {@link Metrics#enabled}.
+         */
+        private boolean enabled = true;
+    }
+
+    @Data
+    public static class Idempotency {
+
+        /**
+         * How long the response to a request with an {@code Idempotency-Key} is kept for replay.
+         */
+        private Duration timeToLive = Duration.ofHours(24);
+
+        /**
+         * Responses kept in memory, so that retries of recent requests are answered without a query.
+         */
+        private long cacheSize = 10_000;
+
+        private Duration cleanupInterval = Duration.ofMinutes(10);
+
+        /**
+         * Expired keys deleted per transaction by the cleanup.
+         */
+        private int cleanupBatchSize = 1000;
+    }
+
+    @Data
+    public static class Retry {
+
+        /**
+         * Attempts, including the first one, before an optimistic locking conflict is propagated.
+         */
+        private int maxAttempts = 5;
+
+        private Duration initialBackoff = Duration.ofMillis(5);
+
+        private Duration maxBackoff = Duration.ofMillis(100);
+
+        private double multiplier = 2.0;
+    }
+
+    @Data
+    public static class Cache {
+
+        /**
+         * Whether findById and isExist are served from the read-through account cache.
+         */
+        private boolean enabled = true;
+
+        private long maximumSize = 10_000;
+
+        private Duration timeToLive = Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.banking.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.example.banking.services.impl.DatabaseBulkhead;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs every account service call inside the {@link DatabaseBulkhead}. It is ordered before the
+ * transaction and retry advice, so a waiting caller holds no connection.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(prefix = "banking.bulkhead", name = "enabled", havingValue = "true")
+public class DatabaseBulkheadAspect {
+
+    private final DatabaseBulkhead databaseBulkhead;
+
+    public DatabaseBulkheadAspect(DatabaseBulkhead databaseBulkhead) {
+        this.databaseBulkhead = databaseBulkhead;
+    }
+
+    @Around("execution(* org.example.banking.services.AccountService+.*(..))")
+    public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+        databaseBulkhead.acquire();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            databaseBulkhead.release();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.banking.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnExpression("${banking.metrics.enabled:true} or ${banking.flight-recorder.enabled:true}")
+public class MetricsConfig {
+
+    /**
+     * Wraps the data source used by JPA in a {@link TimedDataSource}, for the operation metrics and the
+     * flight recorder events alike. The pool itself stays reachable through {@code unwrap}, which is
+     * how its connection gauges are bound.
+     */
+    @Bean
+    public static BeanPostProcessor timedDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (beanName.equals("dataSource") && bean instanceof DataSource dataSource
+                        && !(bean instanceof TimedDataSource)) {
+                    return new TimedDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
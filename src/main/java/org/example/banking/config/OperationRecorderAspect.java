@@ -0,0 +1,36 @@
+package org.example.banking.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.example.banking.services.impl.OperationRecorder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records the money operations of the account service with {@link OperationRecorder}. It is the
+ * outermost advice, so the recorded time includes waiting in the bulkhead, retries and the commit.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnExpression("${banking.metrics.enabled:true} or ${banking.flight-recorder.enabled:true}")
+public class OperationRecorderAspect {
+
+    private final OperationRecorder operationRecorder;
+
+    public OperationRecorderAspect(OperationRecorder operationRecorder) {
+        this.operationRecorder = operationRecorder;
+    }
+
+    @Around("execution(* org.example.banking.services.AccountService+.deposit(..))"
+            + " || execution(* org.example.banking.services.AccountService+.depositAll(..))"
+            + " || execution(* org.example.banking.services.AccountService+.withdraw(..))"
+            + " || execution(* org.example.banking.services.AccountService+.transfer(..))"
+            + " || execution(* org.example.banking.services.AccountService+.transferBatch(..))")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        return operationRecorder.record(joinPoint.getSignature().getName(), joinPoint.getArgs(), joinPoint::proceed);
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.banking.config;
+
+import org.example.banking.services.impl.OperationRecorder;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts optimistic locking conflicts and the retries they caused, also reporting the retries of a
+ * call to the {@link OperationRecorder} recording it.
+ */
+@Component
+public class OptimisticRetryListener implements RetryListener {
+
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    @Override
+    public <T, E extends Throwable> void onError(RetryContext context,
+                                                 RetryCallback<T, E> callback,
+                                                 Throwable throwable) {
+        if (throwable instanceof OptimisticLockingFailureException) {
+            conflicts.increment();
+        }
+    }
+
+    @Override
+    public <T, E extends Throwable> void close(RetryContext context,
+                                               RetryCallback<T, E> callback,
+                                               Throwable throwable) {
+        int failedAttempts = context.getRetryCount();
+        int repeated = throwable == null ? failedAttempts : Math.max(0, failedAttempts - 1);
+        retries.add(repeated);
+        OperationRecorder.recordRetries(repeated);
+        if (throwable != null && failedAttempts > 0 && throwable instanceof OptimisticLockingFailureException) {
+            exhausted.increment();
+        }
+    }
+
+    public long getConflicts() {
+        return conflicts.sum();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    public long getExhausted() {
+        return exhausted.sum();
+    }
+}
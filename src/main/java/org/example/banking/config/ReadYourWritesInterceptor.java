@@ -0,0 +1,71 @@
+package org.example.banking.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Keeps the reads of a client on the primary for {@code banking.read-replicas.staleness-window} after
+ * it last wrote, so it always sees its own writes whatever the replication lag. Any request other
+ * than GET or HEAD counts as a write, from when it starts until the window after it completes.
+ */
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PINNED = ReadYourWritesInterceptor.class.getName() + ".PINNED";
+
+    private final String clientIdHeader;
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesInterceptor(BankingProperties.ReadReplicas config) {
+        this.clientIdHeader = config.getClientIdHeader();
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumRecentWriters())
+                .expireAfterWrite(config.getStalenessWindow())
+                .build();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String clientId = clientId(request);
+        if (!isRead(request)) {
+            recentWriters.put(clientId, Boolean.TRUE);
+        } else if (recentWriters.getIfPresent(clientId) != null) {
+            ReplicaRouting.pinToPrimary();
+            request.setAttribute(PINNED, Boolean.TRUE);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        unpin(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        unpin(request);
+        if (!isRead(request)) {
+            recentWriters.put(clientId(request), Boolean.TRUE);
+        }
+    }
+
+    private String clientId(HttpServletRequest request) {
+        String clientId = request.getHeader(clientIdHeader);
+        return clientId != null ? clientId : request.getRemoteAddr();
+    }
+
+    private static void unpin(HttpServletRequest request) {
+        if (request.getAttribute(PINNED) != null) {
+            request.removeAttribute(PINNED);
+            ReplicaRouting.unpinFromPrimary();
+        }
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        return "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.banking.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread state deciding where the {@link ReplicaRoutingDataSource} opens a read-only connection.
+ * A replica is used only inside a read-only account service call, and never while the thread is
+ * pinned to the primary. Both are counted, so scopes can nest.
+ */
+public final class ReplicaRouting {
+
+    private static final ThreadLocal<int[]> SCOPES = ThreadLocal.withInitial(() -> new int[2]);
+    private static final int REPLICA = 0;
+    private static final int PRIMARY = 1;
+
+    private ReplicaRouting() {
+    }
+
+    public static boolean isReplicaAllowed() {
+        int[] scopes = SCOPES.get();
+        return scopes[REPLICA] > 0 && scopes[PRIMARY] == 0;
+    }
+
+    public static void enterReplicaScope() {
+        SCOPES.get()[REPLICA]++;
+    }
+
+    public static void exitReplicaScope() {
+        SCOPES.get()[REPLICA]--;
+    }
+
+    public static void pinToPrimary() {
+        SCOPES.get()[PRIMARY]++;
+    }
+
+    public static void unpinFromPrimary() {
+        SCOPES.get()[PRIMARY]--;
+    }
+
+    /**
+     * Runs {@code action} with the connections it opens going to the primary. A connection already
+     * bound to the current transaction is reused as it is, wherever it was opened.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        pinToPrimary();
+        try {
+            return action.get();
+        } finally {
+            unpinFromPrimary();
+        }
+    }
+}
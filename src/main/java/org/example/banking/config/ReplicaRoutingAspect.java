@@ -0,0 +1,27 @@
+package org.example.banking.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Lets the read-only account service methods read from a replica. Other read-only transactions, such
+ * as the repository calls of the account cache, keep reading from the primary.
+ */
+@Aspect
+public class ReplicaRoutingAspect {
+
+    @Around("execution(* org.example.banking.services.AccountService+.*(..)) && @annotation(transactional)")
+    public Object routeReadOnly(ProceedingJoinPoint joinPoint, Transactional transactional) throws Throwable {
+        if (!transactional.readOnly()) {
+            return joinPoint.proceed();
+        }
+        ReplicaRouting.enterReplicaScope();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReplicaRouting.exitReplicaScope();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.banking.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.retry.interceptor.RetryInterceptorBuilder;
+import org.springframework.retry.interceptor.RetryOperationsInterceptor;
+import org.springframework.retry.support.RetryTemplate;
+
+@Configuration
+@EnableRetry
+public class RetryConfig {
+
+    /**
+     * Retries a whole transaction when its commit loses an optimistic locking race. The backoff grows
+     * exponentially and is randomised so that colliding callers spread out.
+     */
+    @Bean
+    public RetryTemplate optimisticRetryTemplate(BankingProperties bankingProperties,
+                                                 OptimisticRetryListener optimisticRetryListener) {
+        BankingProperties.Retry retry = bankingProperties.getRetry();
+        return RetryTemplate.builder()
+                .maxAttempts(retry.getMaxAttempts())
+                .retryOn(OptimisticLockingFailureException.class)
+                .traversingCauses()
+                .exponentialBackoff(retry.getInitialBackoff(), retry.getMultiplier(), retry.getMaxBackoff(), true)
+                .withListener(optimisticRetryListener)
+                .build();
+    }
+
+    /**
+     * Applies the {@link #optimisticRetryTemplate} to transactional service calls.
+     */
+    @Bean
+    public RetryOperationsInterceptor optimisticRetryInterceptor(RetryTemplate optimisticRetryTemplate) {
+        return RetryInterceptorBuilder.stateless()
+                .retryOperations(optimisticRetryTemplate)
+                .build();
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.banking.config;
+
+import org.example.banking.services.impl.AccountNumberFilter;
+import org.example.banking.services.impl.IdempotentRequests;
+import org.example.banking.services.impl.JournalCompactor;
+import org.example.banking.services.impl.TransferEnginePersister;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import java.time.Duration;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig implements SchedulingConfigurer {
+
+    private final BankingProperties bankingProperties;
+    private final JournalCompactor journalCompactor;
+    private final AccountNumberFilter accountNumberFilter;
+    private final IdempotentRequests idempotentRequests;
+    private final ObjectProvider<TransferEnginePersister> transferEnginePersister;
+
+    public SchedulingConfig(BankingProperties bankingProperties,
+                            JournalCompactor journalCompactor,
+                            AccountNumberFilter accountNumberFilter,
+                            IdempotentRequests idempotentRequests,
+                            ObjectProvider<TransferEnginePersister> transferEnginePersister) {
+        this.bankingProperties = bankingProperties;
+        this.journalCompactor = journalCompactor;
+        this.accountNumberFilter = accountNumberFilter;
+        this.idempotentRequests = idempotentRequests;
+        this.transferEnginePersister = transferEnginePersister;
+    }
+
+    /**
+     * Runs journal compaction in every locking strategy, so that entries left pending by the journal
+     * strategy are still folded into the balances after switching to another one. The transfer engine
+     * flush only exists with the in-memory strategy. The account number filter is rebuilt first after
+     * one interval, as it was already built on startup. Expired idempotency keys are deleted in every
+     * strategy too.
+     */
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(journalCompactor::compact,
+                bankingProperties.getJournal().getCompactionInterval());
+        Duration rebuildInterval = bankingProperties.getAccountNumberFilter().getRebuildInterval();
+        taskRegistrar.addFixedDelayTask(new FixedDelayTask(accountNumberFilter::rebuild, rebuildInterval,
+                rebuildInterval));
+        taskRegistrar.addFixedDelayTask(idempotentRequests::deleteExpired,
+                bankingProperties.getIdempotency().getCleanupInterval());
+        transferEnginePersister.ifAvailable(persister -> taskRegistrar.addFixedDelayTask(persister::flush,
+                bankingProperties.getEngine().getFlushInterval()));
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.banking.config;
+
+import org.example.banking.services.impl.OperationRecorder;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+
+/**
+ * Reports the duration of every statement executed inside a money operation to
+ * {@link OperationRecorder}. Connections are wrapped in a {@link TimedConnection}, which delegates
+ * without reflection; statements are only wrapped while the creating thread is recording, so
+ * everything else pays for one thread-local lookup per statement.
+ */
+public class TimedDataSource extends DelegatingDataSource {
+
+    public TimedDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return new TimedConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return new TimedConnection(super.getConnection(username, password));
+    }
+
+    /**
+     * Returns {@code statement} itself unless the current thread is recording, and a timing proxy of
+     * it otherwise.
+     */
+    @SuppressWarnings("unchecked")
+    static <T extends Statement> T timed(T statement, Connection connection, String sql) {
+        if (!OperationRecorder.isRecording()) {
+            return statement;
+        }
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        return (T) Proxy.newProxyInstance(TimedDataSource.class.getClassLoader(),
+                new Class<?>[]{type}, new StatementHandler(statement, connection, sql));
+    }
+
+    /**
+     * Whether the statement waits for row locks held by other transactions before it can return.
+     */
+    static boolean isLocking(String sql) {
+        if (sql == null) {
+            return false;
+        }
+        String lowerCase = sql.toLowerCase(Locale.ROOT);
+        return lowerCase.contains(" for update") || lowerCase.contains(" for share")
+                || lowerCase.contains(" for no key update");
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private record StatementHandler(Statement statement, Connection connection, String sql) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "getConnection":
+                    return connection;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            if (!name.startsWith("execute")) {
+                return TimedDataSource.invoke(statement, method, args);
+            }
+
+            String executed = args != null && args.length > 0 && args[0] instanceof String value ? value : sql;
+            long started = System.nanoTime();
+            try {
+                return TimedDataSource.invoke(statement, method, args);
+            } finally {
+                OperationRecorder.recordStatement(executed, System.nanoTime() - started, isLocking(executed));
+            }
+        }
+    }
+}
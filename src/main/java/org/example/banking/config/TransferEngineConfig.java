@@ -0,0 +1,39 @@
+package org.example.banking.config;
+
+import org.example.banking.services.impl.AccountServiceImpl;
+import org.example.banking.services.impl.TransferEngine;
+import org.example.banking.services.impl.WriteAheadLog;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "banking", name = "locking-strategy", havingValue = "IN_MEMORY")
+public class TransferEngineConfig {
+
+    /**
+     * Loads each account, with its current balance, from the database the first time the engine
+     * touches it, which is also how balances are rebuilt after a restart.
+     */
+    @Bean(destroyMethod = "close")
+    public TransferEngine transferEngine(BankingProperties bankingProperties,
+                                         AccountServiceImpl accountService,
+                                         ObjectProvider<WriteAheadLog> writeAheadLog) {
+        BankingProperties.Engine config = bankingProperties.getEngine();
+        return new TransferEngine(config.getPartitions(), config.getRingSize(), accountService::findById,
+                writeAheadLog.getIfAvailable());
+    }
+
+    /**
+     * Opened for appends by {@code TransferEnginePersister}, once it has replayed the records that
+     * were not applied before the last shutdown.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "banking.wal", name = "enabled", havingValue = "true")
+    public WriteAheadLog writeAheadLog(BankingProperties bankingProperties) {
+        BankingProperties.Wal config = bankingProperties.getWal();
+        return new WriteAheadLog(config.getDirectory(), config.getSegmentSize().toBytes(),
+                config.getGroupCommitRecords(), config.getGroupCommitInterval().toNanos());
+    }
+}
@@ -1,74 +1,247 @@
 package org.example.banking.controllers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.banking.domain.dto.AccountCursorPageDto;
 import org.example.banking.domain.dto.AccountDto;
+import org.example.banking.domain.dto.BulkCreateResultDto;
+import org.example.banking.domain.dto.TransactionCursorPageDto;
+import org.example.banking.domain.dto.TransactionDto;
+import org.example.banking.domain.dto.TransferRequestDto;
 import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.domain.entities.TransactionEntity;
+import org.example.banking.exceptions.DuplicateAccountNumberException;
 import org.example.banking.mappers.Mapper;
 import org.example.banking.services.AccountService;
-import org.springframework.data.domain.Page;
+import org.example.banking.services.impl.DepositCoalescer;
+import org.example.banking.services.impl.IdempotentRequests;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/accounts")
 public class AccountController {
 
+    private static final int MAX_CURSOR_LIMIT = 1000;
+    private static final String NDJSON = "application/x-ndjson";
+
     private final AccountService accountService;
+    private final DepositCoalescer depositCoalescer;
+    private final IdempotentRequests idempotentRequests;
     private final Mapper<AccountEntity, AccountDto> accountMapper;
+    private final Mapper<TransactionEntity, TransactionDto> transactionMapper;
+    private final ObjectMapper objectMapper;
 
     public AccountController(AccountService accountService,
-                             Mapper<AccountEntity, AccountDto> accountMapper) {
+                             DepositCoalescer depositCoalescer,
+                             IdempotentRequests idempotentRequests,
+                             Mapper<AccountEntity, AccountDto> accountMapper,
+                             Mapper<TransactionEntity, TransactionDto> transactionMapper,
+                             ObjectMapper objectMapper) {
         this.accountService = accountService;
+        this.depositCoalescer = depositCoalescer;
+        this.idempotentRequests = idempotentRequests;
         this.accountMapper = accountMapper;
+        this.transactionMapper = transactionMapper;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping()
     public ResponseEntity<AccountDto> createAccount(@RequestBody AccountDto accountDto) {
         AccountEntity accountEntity = accountMapper.mapFrom(accountDto);
-        AccountEntity savedAccountEntity = accountService.createAccount(accountEntity);
-        return new ResponseEntity<>(accountMapper.mapTo(savedAccountEntity), HttpStatus.CREATED);
+        try {
+            AccountEntity savedAccountEntity = accountService.createAccount(accountEntity);
+            return new ResponseEntity<>(accountMapper.mapTo(savedAccountEntity), HttpStatus.CREATED);
+        } catch (DuplicateAccountNumberException | DataIntegrityViolationException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Account number already exists", e);
+        }
+    }
+
+    @PostMapping(path = "/bulk")
+    public ResponseEntity<BulkCreateResultDto> createAccounts(@RequestBody List<AccountDto> accountDtos) {
+        try {
+            int created = accountService.createAccounts(accountMapper.mapFromList(accountDtos));
+            return new ResponseEntity<>(new BulkCreateResultDto(created), HttpStatus.CREATED);
+        } catch (DataIntegrityViolationException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Account number already exists", e);
+        }
     }
 
+    /**
+     * The page is serialized here, so that its ETag, a hash of the body, is known before it is sent;
+     * a client that already has the same page gets 304 Not Modified without a body.
+     */
     @GetMapping()
-    public Page<AccountDto> getAllAccounts(Pageable pageable) {
-        Page<AccountEntity> accounts = accountService.findAll(pageable);
-        return accounts.map(accountMapper::mapTo);
+    public ResponseEntity<byte[]> getAllAccounts(Pageable pageable, WebRequest request) throws IOException {
+        byte[] body = objectMapper.writeValueAsBytes(accountService.findAllAccountDtos(pageable));
+        String eTag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
+    /**
+     * Keyset listing, selected by the {@code limit} parameter: returns the accounts following the
+     * {@code after} cursor in id order, plus the cursor of the next page. Unlike the paged listing
+     * it never runs an OFFSET or a count query.
+     */
+    @GetMapping(params = "limit")
+    public AccountCursorPageDto getAccountsAfter(@RequestParam(required = false) String after,
+                                                 @RequestParam int limit) {
+        checkCursorLimit(limit);
+
+        List<AccountEntity> accounts = accountService.findAllAfter(decodeCursor(after), limit + 1);
+        String nextCursor = null;
+        if (accounts.size() > limit) {
+            accounts = accounts.subList(0, limit);
+            nextCursor = encodeCursor(accounts.get(limit - 1).getId());
+        }
+        return new AccountCursorPageDto(accountMapper.mapToList(accounts), nextCursor);
+    }
+
+    /**
+     * Streams every account as one JSON object per line, written while the rows are read.
+     */
+    @GetMapping(path = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportAccounts() {
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+            accountService.exportAll(accountEntity -> {
+                try {
+                    generator.writeObject(accountMapper.mapTo(accountEntity));
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    /**
+     * Tagged with the account's revision, which is looked up first: when it matches
+     * {@code If-None-Match}, 304 Not Modified is returned without loading the account.
+     */
     @GetMapping(path = "/{id}")
-    public ResponseEntity<AccountDto> getAccountById(@PathVariable Long id) {
-        Optional<AccountEntity> accountEntity = accountService.findById(id);
+    public ResponseEntity<AccountDto> getAccountById(@PathVariable Long id, WebRequest request) {
+        Optional<String> revision = accountService.findAccountRevision(id);
+        if (revision.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        String eTag = eTag(revision.get());
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return accountService.findAccountDtoById(id)
+                .map(accountDto -> ResponseEntity.ok().eTag(eTag).body(accountDto))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @GetMapping(path = "/by-number/{accountNumber}")
+    public ResponseEntity<AccountDto> getAccountByNumber(@PathVariable String accountNumber) {
+        Optional<AccountEntity> accountEntity = accountService.findByAccountNumber(accountNumber);
         return accountEntity.map(account -> new ResponseEntity<>(accountMapper.mapTo(account), HttpStatus.OK))
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
+    /**
+     * Journal of the account, newest first, paged with the {@code after} cursor like the keyset listing.
+     */
+    @GetMapping(path = "/{id}/transactions")
+    public ResponseEntity<TransactionCursorPageDto> getAccountTransactions(@PathVariable Long id,
+                                                                           @RequestParam(required = false) String after,
+                                                                           @RequestParam(defaultValue = "50") int limit) {
+        checkCursorLimit(limit);
+        if (!accountService.isExist(id)) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+
+        List<TransactionEntity> transactions = accountService.findTransactions(id, decodeCursor(after), limit + 1);
+        String nextCursor = null;
+        if (transactions.size() > limit) {
+            transactions = transactions.subList(0, limit);
+            nextCursor = encodeCursor(transactions.get(limit - 1).getId());
+        }
+        return new ResponseEntity<>(new TransactionCursorPageDto(transactionMapper.mapToList(transactions), nextCursor),
+                HttpStatus.OK);
+    }
+
     @PutMapping(path = "/{id}")
     public ResponseEntity<AccountDto> updateAccount(@PathVariable Long id,
-                                                    @RequestBody AccountDto accountDto) {
+                                                    @RequestBody AccountDto accountDto,
+                                                    @RequestHeader(name = HttpHeaders.IF_MATCH, required = false)
+                                                    String ifMatch) {
         if (!accountService.isExist(id)) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
 
         accountDto.setId(id);
         AccountEntity accountEntity = accountMapper.mapFrom(accountDto);
-        AccountEntity savedAccountEntity = accountService.createAccount(accountEntity);
-        return new ResponseEntity<>(accountMapper.mapTo(savedAccountEntity), HttpStatus.OK);
+        try {
+            AccountEntity savedAccountEntity = accountService.updateAccount(id, accountEntity,
+                    expectedRevisions(ifMatch));
+            return new ResponseEntity<>(accountMapper.mapTo(savedAccountEntity), HttpStatus.OK);
+        } catch (DuplicateAccountNumberException | DataIntegrityViolationException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Account number already exists", e);
+        }
     }
 
     @PatchMapping(path = "/{id}")
     public ResponseEntity<AccountDto> partialAccount(@PathVariable Long id,
-                                                     @RequestBody AccountDto accountDto) {
+                                                     @RequestBody AccountDto accountDto,
+                                                     @RequestHeader(name = HttpHeaders.IF_MATCH, required = false)
+                                                     String ifMatch) {
         if (!accountService.isExist(id)) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
 
         AccountEntity accountEntity = accountMapper.mapFrom(accountDto);
-        AccountEntity updatedEntity = accountService.partialUpdate(id, accountEntity);
-        return new ResponseEntity<>(accountMapper.mapTo(updatedEntity), HttpStatus.OK);
+        try {
+            AccountEntity updatedEntity = accountService.partialUpdate(id, accountEntity, expectedRevisions(ifMatch));
+            return new ResponseEntity<>(accountMapper.mapTo(updatedEntity), HttpStatus.OK);
+        } catch (DuplicateAccountNumberException | DataIntegrityViolationException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Account number already exists", e);
+        }
+    }
+
+    /**
+     * Marks the account as hot by spreading its balance over {@code count} shard rows, so that
+     * concurrent deposits do not queue on a single row; {@code 0} or {@code 1} un-shards it again.
+     */
+    @PutMapping(path = "/{id}/shards")
+    public ResponseEntity<AccountDto> shardAccount(@PathVariable Long id,
+                                                   @RequestParam int count) {
+        if (!accountService.isExist(id)) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+
+        try {
+            AccountEntity shardedEntity = accountService.shardAccount(id, count);
+            return new ResponseEntity<>(accountMapper.mapTo(shardedEntity), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
     }
 
     @DeleteMapping(path = "/{id}")
@@ -81,25 +254,126 @@ public class AccountController {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    /**
+     * With an {@code Idempotency-Key} the deposit is not coalesced, as it has to be applied in the
+     * transaction that stores the key.
+     */
     @PostMapping(path = "/deposit/{id}")
-    public ResponseEntity<AccountDto> deposit(@PathVariable Long id,
-                                              @RequestParam BigDecimal amount) {
-        AccountDto accountDto = accountService.deposit(id, amount);
-        return new ResponseEntity<>(accountDto, HttpStatus.OK);
+    public ResponseEntity<?> deposit(@PathVariable Long id,
+                                     @RequestParam BigDecimal amount,
+                                     @RequestHeader(name = IdempotentRequests.HEADER, required = false)
+                                     String idempotencyKey) {
+        if (idempotencyKey == null) {
+            AccountDto accountDto = depositCoalescer.deposit(id, amount);
+            return new ResponseEntity<>(accountDto, HttpStatus.OK);
+        }
+        return idempotentRequests.execute(idempotencyKey, List.of("deposit", id, amount),
+                () -> new ResponseEntity<>(accountService.deposit(id, amount), HttpStatus.OK));
     }
 
     @PostMapping(path = "/withdraw/{id}")
-    public ResponseEntity<AccountDto> withdraw(@PathVariable Long id,
-                                               @RequestParam BigDecimal amount) {
-        AccountDto accountDto = accountService.withdraw(id, amount);
-        return new ResponseEntity<>(accountDto, HttpStatus.OK);
+    public ResponseEntity<?> withdraw(@PathVariable Long id,
+                                      @RequestParam BigDecimal amount,
+                                      @RequestHeader(name = IdempotentRequests.HEADER, required = false)
+                                      String idempotencyKey) {
+        return idempotent(idempotencyKey, List.of("withdraw", id, amount),
+                () -> new ResponseEntity<>(accountService.withdraw(id, amount), HttpStatus.OK));
     }
 
     @PostMapping(path = "/transfer/")
-    public ResponseEntity<AccountDto> transfer(@RequestParam Long fromAccountId,
-                                               @RequestParam Long toAccountId,
-                                               @RequestParam BigDecimal amount) {
-        AccountDto accountDto = accountService.transfer(fromAccountId, toAccountId, amount);
-        return new ResponseEntity<>(accountDto, HttpStatus.OK);
+    public ResponseEntity<?> transfer(@RequestParam Long fromAccountId,
+                                      @RequestParam Long toAccountId,
+                                      @RequestParam BigDecimal amount,
+                                      @RequestHeader(name = IdempotentRequests.HEADER, required = false)
+                                      String idempotencyKey) {
+        return idempotent(idempotencyKey, List.of("transfer", fromAccountId, toAccountId, amount),
+                () -> new ResponseEntity<>(accountService.transfer(fromAccountId, toAccountId, amount), HttpStatus.OK));
+    }
+
+    /**
+     * Same as {@link #transfer}, with both accounts looked up by account number first.
+     */
+    @PostMapping(path = "/transfer/by-number")
+    public ResponseEntity<?> transferByAccountNumber(@RequestParam String fromAccountNumber,
+                                                     @RequestParam String toAccountNumber,
+                                                     @RequestParam BigDecimal amount,
+                                                     @RequestHeader(name = IdempotentRequests.HEADER, required = false)
+                                                     String idempotencyKey) {
+        return idempotent(idempotencyKey, List.of("transfer-by-number", fromAccountNumber, toAccountNumber, amount), () -> {
+            Optional<AccountEntity> fromAccount = accountService.findByAccountNumber(fromAccountNumber);
+            Optional<AccountEntity> toAccount = accountService.findByAccountNumber(toAccountNumber);
+            if (fromAccount.isEmpty() || toAccount.isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+
+            AccountDto accountDto = accountService.transfer(fromAccount.get().getId(), toAccount.get().getId(), amount);
+            return new ResponseEntity<>(accountDto, HttpStatus.OK);
+        });
+    }
+
+    @PostMapping(path = "/transfers/batch")
+    public ResponseEntity<?> transferBatch(@RequestBody List<TransferRequestDto> transfers,
+                                           @RequestHeader(name = IdempotentRequests.HEADER, required = false)
+                                           String idempotencyKey) {
+        return idempotent(idempotencyKey, List.of("transfer-batch", transfers),
+                () -> new ResponseEntity<>(accountService.transferBatch(transfers), HttpStatus.OK));
+    }
+
+    /**
+     * Runs a money request, at most once per {@code Idempotency-Key} when the client sent one.
+     */
+    private ResponseEntity<?> idempotent(String idempotencyKey, List<?> request, Supplier<ResponseEntity<?>> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        return idempotentRequests.execute(idempotencyKey, request, action);
+    }
+
+    private static String eTag(String revision) {
+        return "\"" + revision + "\"";
+    }
+
+    /**
+     * Revisions listed in an {@code If-Match} header, or {@code null} when any revision will do.
+     * Weak tags never match, as {@code If-Match} compares strongly.
+     */
+    private static List<String> expectedRevisions(String ifMatch) {
+        if (ifMatch == null) {
+            return null;
+        }
+        List<String> revisions = new ArrayList<>();
+        for (String eTag : ifMatch.split(",")) {
+            eTag = eTag.trim();
+            if (eTag.equals("*")) {
+                return null;
+            }
+            if (eTag.length() >= 2 && eTag.startsWith("\"") && eTag.endsWith("\"")) {
+                revisions.add(eTag.substring(1, eTag.length() - 1));
+            }
+        }
+        return revisions;
+    }
+
+    private static void checkCursorLimit(int limit) {
+        if (limit < 1 || limit > MAX_CURSOR_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "limit must be between 1 and " + MAX_CURSOR_LIMIT);
+        }
+    }
+
+    private static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(id).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+        }
     }
 }
@@ -0,0 +1,59 @@
+package org.example.banking.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Amounts of money as a {@code long} number of minor units, at the scale of the balance columns.
+ * Arithmetic on minor units allocates nothing and fails on overflow instead of wrapping around;
+ * {@link BigDecimal} is only used where amounts enter and leave, e.g. at the JSON boundary.
+ */
+public final class Money {
+
+    /**
+     * Decimal places of one minor unit; the scale the balance columns store amounts at.
+     */
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    /**
+     * Converts without rounding: an amount with a fraction of a minor unit, such as {@code 0.001}, would
+     * otherwise silently change or vanish.
+     *
+     * @throws IllegalArgumentException if the amount has more than {@link #SCALE} significant decimal
+     *                                  places or does not fit into a {@code long} of minor units
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+        BigDecimal scaled;
+        try {
+            scaled = amount.setScale(SCALE, RoundingMode.UNNECESSARY);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount has more than " + SCALE + " decimal places: " + amount, e);
+        }
+        try {
+            return scaled.unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount out of range: " + amount, e);
+        }
+    }
+
+    public static BigDecimal toBigDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * @throws ArithmeticException on overflow
+     */
+    public static long add(long minorUnits, long otherMinorUnits) {
+        return Math.addExact(minorUnits, otherMinorUnits);
+    }
+
+    /**
+     * @throws ArithmeticException on overflow
+     */
+    public static long subtract(long minorUnits, long otherMinorUnits) {
+        return Math.subtractExact(minorUnits, otherMinorUnits);
+    }
+}
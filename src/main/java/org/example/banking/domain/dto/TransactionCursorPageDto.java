@@ -0,0 +1,22 @@
+package org.example.banking.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TransactionCursorPageDto {
+
+    private List<TransactionDto> content;
+
+    /**
+     * Opaque value to pass as {@code after} to fetch older entries; {@code null} on the last page.
+     */
+    private String nextCursor;
+}
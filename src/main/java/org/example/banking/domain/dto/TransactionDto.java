@@ -0,0 +1,24 @@
+package org.example.banking.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.banking.domain.entities.TransactionEntity;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TransactionDto {
+
+    private Long id;
+    private Long accountId;
+    private Long counterpartyAccountId;
+    private TransactionEntity.Type type;
+    private BigDecimal amount;
+    private Instant createdAt;
+}
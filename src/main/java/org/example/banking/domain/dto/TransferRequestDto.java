@@ -0,0 +1,19 @@
+package org.example.banking.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TransferRequestDto {
+
+    private Long fromAccountId;
+    private Long toAccountId;
+    private BigDecimal amount;
+}
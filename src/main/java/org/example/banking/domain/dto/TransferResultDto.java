@@ -0,0 +1,26 @@
+package org.example.banking.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TransferResultDto {
+
+    private Long fromAccountId;
+    private Long toAccountId;
+    private BigDecimal amount;
+    private Status status;
+    private String message;
+
+    public enum Status {
+        SUCCEEDED,
+        FAILED
+    }
+}
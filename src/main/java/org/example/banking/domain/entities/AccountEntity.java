@@ -4,20 +4,51 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Entity
-@Table(name = "accounts")
+@Table(name = "accounts",
+        uniqueConstraints = @UniqueConstraint(name = "uk_accounts_account_number", columnNames = "account_number"))
 public class AccountEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_id_seq")
+    @SequenceGenerator(name = "account_id_seq", sequenceName = "account_id_seq", allocationSize = 1000)
     private Long id;
     private String accountNumber;
     private BigDecimal balance;
+
+    /**
+     * Incremented on every change to the row, including the single-statement balance updates,
+     * so that read-modify-write paths detect concurrent modifications.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @EqualsAndHashCode.Exclude
+    private long version;
+
+    /**
+     * Id of the last pending journal entry already folded into {@link #balance}.
+     */
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @EqualsAndHashCode.Exclude
+    private long journalPosition;
+
+    /**
+     * Number of {@link AccountShardEntity} rows the balance is spread over; {@code 0} for an ordinary
+     * account whose balance lives on this row only.
+     */
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @EqualsAndHashCode.Exclude
+    private int shardCount;
 }
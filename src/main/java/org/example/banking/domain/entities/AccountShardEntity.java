@@ -0,0 +1,39 @@
+package org.example.banking.domain.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One slice of the balance of a hot account. The balance of an account is
+ * {@link AccountEntity#getBalance()} plus the balances of all its shards, so concurrent deposits can
+ * each update a different shard row instead of queueing on the account row.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "account_shards",
+        uniqueConstraints = @UniqueConstraint(name = "uk_account_shards_account_id_shard_index",
+                columnNames = {"account_id", "shard_index"}))
+public class AccountShardEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long accountId;
+
+    /**
+     * Position of the shard within its account, from {@code 0} to {@code shardCount - 1}.
+     */
+    @Column(nullable = false)
+    private int shardIndex;
+
+    private BigDecimal balance;
+}
@@ -0,0 +1,45 @@
+package org.example.banking.domain.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Response of a money request sent with an {@code Idempotency-Key} header, written in the same
+ * transaction as the balance change, so a retried request is answered with it instead of being
+ * applied again. The row is inserted before the request is executed; a concurrent retry therefore
+ * waits on the key until the first attempt has committed or rolled back.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at"))
+public class IdempotencyKeyEntity {
+
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String key;
+
+    /**
+     * Hash of the method, path and query of the request, to tell a retry from a different request
+     * that reuses the key.
+     */
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    private Integer status;
+
+    private String contentType;
+
+    @Column(length = 1_048_576)
+    private byte[] body;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
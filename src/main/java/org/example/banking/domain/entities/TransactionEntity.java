@@ -0,0 +1,70 @@
+package org.example.banking.domain.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * One balance movement in the append-only journal. Rows are only ever inserted.
+ * <p>
+ * Ids are allocated from {@code transaction_id_seq} in blocks of 1000, so that the entries of a
+ * batch are inserted in JDBC batches. An entry gets its id while its account row is locked, and the
+ * blocks of a node are handed out in increasing order, so an entry written on that node after a
+ * compaction of the account always gets a higher id than the entries it folded. The balance of an
+ * account is {@link AccountEntity#getBalance()} plus the amounts of its pending entries with an id
+ * greater than {@link AccountEntity#getJournalPosition()}. Blocks reserved by different nodes
+ * interleave, so the journal strategy needs all entries to be written by one node.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Immutable
+@Table(name = "transactions", indexes = @Index(name = "idx_transactions_account_id", columnList = "account_id, id"))
+public class TransactionEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_id_seq")
+    @SequenceGenerator(name = "transaction_id_seq", sequenceName = "transaction_id_seq", allocationSize = 1000)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long accountId;
+
+    private Long counterpartyAccountId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Type type;
+
+    /**
+     * Signed change to the balance: positive for credits, negative for debits.
+     */
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    /**
+     * {@code true} when the movement is not yet included in the account row and has to be added
+     * to it on read and by compaction; {@code false} when it was applied to the row in the same
+     * transaction.
+     */
+    private boolean pending;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    public enum Type {
+        DEPOSIT,
+        WITHDRAWAL,
+        TRANSFER_IN,
+        TRANSFER_OUT
+    }
+}
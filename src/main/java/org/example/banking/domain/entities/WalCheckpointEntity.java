@@ -0,0 +1,32 @@
+package org.example.banking.domain.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Log sequence number of the last write-ahead log record whose change has been applied to the
+ * account rows. Written in the same transaction as the balances, so every record is applied exactly
+ * once, whether by the transfer engine flush or by the replay after a restart.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "wal_checkpoint")
+public class WalCheckpointEntity {
+
+    /**
+     * The table holds a single row with this id.
+     */
+    public static final long ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private long appliedLsn;
+}
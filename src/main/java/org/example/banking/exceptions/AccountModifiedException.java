@@ -0,0 +1,12 @@
+package org.example.banking.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class AccountModifiedException extends RuntimeException {
+
+    public AccountModifiedException(String message) {
+        super(message);
+    }
+}
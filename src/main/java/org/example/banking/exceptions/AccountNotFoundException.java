@@ -0,0 +1,8 @@
+package org.example.banking.exceptions;
+
+public class AccountNotFoundException extends RuntimeException {
+
+    public AccountNotFoundException(String message) {
+        super(message);
+    }
+}
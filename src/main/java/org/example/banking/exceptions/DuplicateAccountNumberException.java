@@ -0,0 +1,8 @@
+package org.example.banking.exceptions;
+
+public class DuplicateAccountNumberException extends RuntimeException {
+
+    public DuplicateAccountNumberException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package org.example.banking.exceptions;
+
+public class InsufficientFundsException extends RuntimeException {
+
+    public InsufficientFundsException(String message) {
+        super(message);
+    }
+}
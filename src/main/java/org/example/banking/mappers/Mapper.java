@@ -1,7 +1,26 @@
 package org.example.banking.mappers;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public interface Mapper<T, U> {
     U mapTo(T t);
 
     T mapFrom(U u);
+
+    default List<U> mapToList(List<T> ts) {
+        List<U> us = new ArrayList<>(ts.size());
+        for (T t : ts) {
+            us.add(mapTo(t));
+        }
+        return us;
+    }
+
+    default List<T> mapFromList(List<U> us) {
+        List<T> ts = new ArrayList<>(us.size());
+        for (U u : us) {
+            ts.add(mapFrom(u));
+        }
+        return ts;
+    }
 }
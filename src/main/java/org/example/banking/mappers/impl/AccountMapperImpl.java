@@ -3,25 +3,31 @@ package org.example.banking.mappers.impl;
 import org.example.banking.domain.dto.AccountDto;
 import org.example.banking.domain.entities.AccountEntity;
 import org.example.banking.mappers.Mapper;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
 
+/**
+ * Copies the fields directly instead of resolving a type map through reflection on every call.
+ */
 @Component
 public class AccountMapperImpl implements Mapper<AccountEntity, AccountDto> {
 
-    private final ModelMapper modelMapper;
-
-    public AccountMapperImpl(ModelMapper modelMapper) {
-        this.modelMapper = modelMapper;
-    }
-
     @Override
     public AccountDto mapTo(AccountEntity accountEntity) {
-        return modelMapper.map(accountEntity, AccountDto.class);
+        if (accountEntity == null) {
+            return null;
+        }
+        return new AccountDto(accountEntity.getId(), accountEntity.getAccountNumber(), accountEntity.getBalance());
     }
 
     @Override
     public AccountEntity mapFrom(AccountDto accountDto) {
-        return modelMapper.map(accountDto, AccountEntity.class);
+        if (accountDto == null) {
+            return null;
+        }
+        AccountEntity accountEntity = new AccountEntity();
+        accountEntity.setId(accountDto.getId());
+        accountEntity.setAccountNumber(accountDto.getAccountNumber());
+        accountEntity.setBalance(accountDto.getBalance());
+        return accountEntity;
     }
 }
@@ -0,0 +1,30 @@
+package org.example.banking.mappers.impl;
+
+import org.example.banking.domain.dto.TransactionDto;
+import org.example.banking.domain.entities.TransactionEntity;
+import org.example.banking.mappers.Mapper;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TransactionMapperImpl implements Mapper<TransactionEntity, TransactionDto> {
+
+    @Override
+    public TransactionDto mapTo(TransactionEntity transactionEntity) {
+        if (transactionEntity == null) {
+            return null;
+        }
+        return new TransactionDto(transactionEntity.getId(), transactionEntity.getAccountId(),
+                transactionEntity.getCounterpartyAccountId(), transactionEntity.getType(),
+                transactionEntity.getAmount(), transactionEntity.getCreatedAt());
+    }
+
+    @Override
+    public TransactionEntity mapFrom(TransactionDto transactionDto) {
+        if (transactionDto == null) {
+            return null;
+        }
+        return new TransactionEntity(transactionDto.getId(), transactionDto.getAccountId(),
+                transactionDto.getCounterpartyAccountId(), transactionDto.getType(),
+                transactionDto.getAmount(), false, transactionDto.getCreatedAt());
+    }
+}
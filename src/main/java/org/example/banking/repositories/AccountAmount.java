@@ -0,0 +1,12 @@
+package org.example.banking.repositories;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection of an amount summed per account.
+ */
+public interface AccountAmount {
+    Long getAccountId();
+
+    BigDecimal getAmount();
+}
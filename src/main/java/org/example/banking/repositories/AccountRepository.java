@@ -1,19 +1,153 @@
 package org.example.banking.repositories;
 
+import org.example.banking.domain.dto.AccountDto;
 import org.example.banking.domain.entities.AccountEntity;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AccountRepository extends CrudRepository<AccountEntity, Long>,
         PagingAndSortingRepository<AccountEntity, Long> {
 
+    String EXPORT_FETCH_SIZE = "1000";
+
+    /**
+     * Selects an {@link AccountDto} straight from the row, with the shard balances of a sharded
+     * account already added and, when {@code :pending} is {@code true}, the pending journal entries
+     * after the journal position of the same row version.
+     */
+    String ACCOUNT_DTO = "SELECT new org.example.banking.domain.dto.AccountDto(a.id, a.accountNumber, "
+            + "a.balance + CASE WHEN a.shardCount > 0 THEN (SELECT COALESCE(SUM(s.balance), 0) "
+            + "FROM AccountShardEntity s WHERE s.accountId = a.id) ELSE 0 END "
+            + "+ CASE WHEN :pending = true THEN (SELECT COALESCE(SUM(t.amount), 0) FROM TransactionEntity t "
+            + "WHERE t.accountId = a.id AND t.pending = true AND t.id > a.journalPosition) ELSE 0 END) "
+            + "FROM AccountEntity a";
+
     Iterable<AccountEntity> findByBalanceLessThan(BigDecimal bigDecimal);
 
     @Query("SELECT a FROM AccountEntity a WHERE a.balance > 0")
     Iterable<AccountEntity> findByBalanceGreaterThanZero();
+
+    /**
+     * Adds {@code amount} to the balance in a single statement.
+     *
+     * @return number of affected rows, {@code 0} when the account does not exist
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE AccountEntity a SET a.balance = a.balance + :amount, a.version = a.version + 1 "
+            + "WHERE a.id = :id")
+    int incrementBalance(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    /**
+     * Subtracts {@code amount} from the balance only if the account holds enough funds.
+     *
+     * @return number of affected rows, {@code 0} when the account does not exist or has insufficient funds
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE AccountEntity a SET a.balance = a.balance - :amount, a.version = a.version + 1 "
+            + "WHERE a.id = :id AND a.balance >= :amount")
+    int decrementBalanceIfSufficient(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    /**
+     * Reads the account without creating a managed entity or a dirty-checking snapshot, and without
+     * flushing the persistence context first.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(ACCOUNT_DTO + " WHERE a.id = :id")
+    Optional<AccountDto> findDtoById(@Param("id") Long id, @Param("pending") boolean pending);
+
+    /**
+     * Page of accounts read like {@link #findDtoById}; sort properties refer to {@link AccountEntity}.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(value = ACCOUNT_DTO, countQuery = "SELECT COUNT(a) FROM AccountEntity a")
+    Page<AccountDto> findAllDtos(@Param("pending") boolean pending, Pageable pageable);
+
+    /**
+     * Looks the account up on the {@code uk_accounts_account_number} unique index.
+     */
+    Optional<AccountEntity> findByAccountNumber(String accountNumber);
+
+    boolean existsByAccountNumber(String accountNumber);
+
+    @Query("SELECT a.accountNumber FROM AccountEntity a WHERE a.id = :id")
+    Optional<String> findAccountNumberById(@Param("id") Long id);
+
+    /**
+     * Streams every account number, in no particular order, through a forward-only cursor. Must be
+     * consumed inside a transaction and closed.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a.accountNumber FROM AccountEntity a WHERE a.accountNumber IS NOT NULL")
+    Stream<String> streamAllAccountNumbers();
+
+    /**
+     * Reads only the version, so that an unchanged account can be recognised without loading it.
+     */
+    @Query("SELECT a.version FROM AccountEntity a WHERE a.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT a.shardCount FROM AccountEntity a WHERE a.id = :id")
+    Optional<Integer> findShardCountById(@Param("id") Long id);
+
+    @Query("SELECT a.id FROM AccountEntity a WHERE a.id IN :ids AND a.shardCount > 0")
+    List<Long> findShardedIdsIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Seeks past {@code id} on the primary key index, so every page costs the same regardless of depth.
+     */
+    List<AccountEntity> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Streams all accounts in id order through a forward-only cursor that fetches
+     * {@link #EXPORT_FETCH_SIZE} rows per round trip. Must be consumed inside a transaction and closed.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT a FROM AccountEntity a ORDER BY a.id")
+    Stream<AccountEntity> streamAllByOrderByIdAsc();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM AccountEntity a WHERE a.id = :id")
+    Optional<AccountEntity> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Takes a shared lock on the account: concurrent holders do not block each other, but journal
+     * compaction, which takes the write lock, waits for them.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT a FROM AccountEntity a WHERE a.id = :id")
+    Optional<AccountEntity> findByIdForShare(@Param("id") Long id);
+
+    /**
+     * Loads and write-locks the given accounts in ascending id order, so that concurrent callers
+     * acquire the row locks in the same sequence.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM AccountEntity a WHERE a.id IN :ids ORDER BY a.id")
+    List<AccountEntity> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,60 @@
+package org.example.banking.repositories;
+
+import jakarta.persistence.LockModeType;
+import org.example.banking.domain.entities.AccountShardEntity;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AccountShardRepository extends CrudRepository<AccountShardEntity, Long> {
+
+    /**
+     * Adds {@code amount} to one shard in a single statement.
+     *
+     * @return number of affected rows, {@code 0} when the account has no such shard
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE AccountShardEntity s SET s.balance = s.balance + :amount "
+            + "WHERE s.accountId = :accountId AND s.shardIndex = :shardIndex")
+    int incrementBalance(@Param("accountId") Long accountId, @Param("shardIndex") int shardIndex,
+                         @Param("amount") BigDecimal amount);
+
+    /**
+     * Subtracts {@code amount} from one shard only if that shard alone holds enough funds.
+     *
+     * @return number of affected rows, {@code 0} when the shard does not exist or holds too little
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE AccountShardEntity s SET s.balance = s.balance - :amount "
+            + "WHERE s.accountId = :accountId AND s.shardIndex = :shardIndex AND s.balance >= :amount")
+    int decrementBalanceIfSufficient(@Param("accountId") Long accountId, @Param("shardIndex") int shardIndex,
+                                     @Param("amount") BigDecimal amount);
+
+    /**
+     * Loads and write-locks all shards of the account in shard order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM AccountShardEntity s WHERE s.accountId = :accountId ORDER BY s.shardIndex")
+    List<AccountShardEntity> findByAccountIdForUpdate(@Param("accountId") Long accountId);
+
+    boolean existsByAccountId(Long accountId);
+
+    @Query("SELECT COALESCE(SUM(s.balance), 0) FROM AccountShardEntity s WHERE s.accountId = :accountId")
+    BigDecimal sumBalanceByAccountId(@Param("accountId") Long accountId);
+
+    @Query("SELECT s.accountId AS accountId, SUM(s.balance) AS amount FROM AccountShardEntity s "
+            + "WHERE s.accountId IN :accountIds GROUP BY s.accountId")
+    List<AccountAmount> sumBalanceByAccountIdIn(@Param("accountIds") Collection<Long> accountIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM AccountShardEntity s WHERE s.accountId = :accountId")
+    int deleteByAccountId(@Param("accountId") Long accountId);
+}
@@ -0,0 +1,37 @@
+package org.example.banking.repositories;
+
+import org.example.banking.domain.entities.IdempotencyKeyEntity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKeyEntity, String> {
+
+    /**
+     * Claims the key with a plain insert, without the select a merge of an entity with an assigned id
+     * would issue first. Waits while another transaction holds the same key, and fails with a
+     * duplicate key once that transaction commits.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (idempotency_key, request_hash, expires_at) "
+            + "VALUES (:key, :requestHash, :expiresAt)", nativeQuery = true)
+    void insertKey(String key, String requestHash, Instant expiresAt);
+
+    @Modifying
+    @Query("UPDATE IdempotencyKeyEntity k SET k.status = :status, k.contentType = :contentType, k.body = :body "
+            + "WHERE k.key = :key")
+    void storeResponse(String key, int status, String contentType, byte[] body);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM IdempotencyKeyEntity k WHERE k.key = :key")
+    void deleteKey(String key);
+
+    @Query("SELECT k.key FROM IdempotencyKeyEntity k WHERE k.expiresAt < :now ORDER BY k.expiresAt")
+    List<String> findExpiredKeys(Instant now, Limit limit);
+}
@@ -0,0 +1,8 @@
+package org.example.banking.repositories;
+
+/**
+ * Projection of the pending journal amount of an account, with the journal position it was summed after.
+ */
+public interface PendingAmount extends AccountAmount {
+    long getJournalPosition();
+}
@@ -0,0 +1,50 @@
+package org.example.banking.repositories;
+
+import org.example.banking.domain.entities.TransactionEntity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TransactionRepository extends CrudRepository<TransactionEntity, Long> {
+
+    /**
+     * Journal of one account, newest first, starting below {@code id}.
+     */
+    List<TransactionEntity> findByAccountIdAndIdLessThanOrderByIdDesc(Long accountId, Long id, Limit limit);
+
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM TransactionEntity t "
+            + "WHERE t.accountId = :accountId AND t.pending = true AND t.id > :after")
+    BigDecimal sumPendingAfter(@Param("accountId") Long accountId, @Param("after") long after);
+
+    @Query("SELECT MAX(t.id) FROM TransactionEntity t "
+            + "WHERE t.accountId = :accountId AND t.pending = true AND t.id > :after")
+    Long findLastPendingIdAfter(@Param("accountId") Long accountId, @Param("after") long after);
+
+    @Query("SELECT MAX(t.id) FROM TransactionEntity t WHERE t.accountId = :accountId")
+    Long findLastIdByAccountId(@Param("accountId") Long accountId);
+
+    @Query("SELECT MAX(t.id) FROM TransactionEntity t WHERE t.accountId = :accountId AND t.pending = true")
+    Long findLastPendingId(@Param("accountId") Long accountId);
+
+    /**
+     * Pending amount of every listed account after the journal position it has when this statement runs,
+     * which may be past the one of a row read earlier if the account was compacted in between; callers
+     * compare the returned position against their row before using the amount.
+     */
+    @Query("SELECT a.id AS accountId, a.journalPosition AS journalPosition, COALESCE(SUM(t.amount), 0) AS amount "
+            + "FROM AccountEntity a LEFT JOIN TransactionEntity t "
+            + "ON t.accountId = a.id AND t.pending = true AND t.id > a.journalPosition "
+            + "WHERE a.id IN :accountIds GROUP BY a.id, a.journalPosition")
+    List<PendingAmount> sumPendingByAccountIdIn(@Param("accountIds") Collection<Long> accountIds);
+
+    @Query("SELECT DISTINCT t.accountId FROM TransactionEntity t, AccountEntity a "
+            + "WHERE a.id = t.accountId AND t.pending = true AND t.id > a.journalPosition")
+    List<Long> findAccountIdsWithPendingEntries();
+}
@@ -0,0 +1,9 @@
+package org.example.banking.repositories;
+
+import org.example.banking.domain.entities.WalCheckpointEntity;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface WalCheckpointRepository extends CrudRepository<WalCheckpointEntity, Long> {
+}
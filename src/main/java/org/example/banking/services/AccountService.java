@@ -1,32 +1,65 @@
 package org.example.banking.services;
 
 import org.example.banking.domain.dto.AccountDto;
+import org.example.banking.domain.dto.TransferRequestDto;
+import org.example.banking.domain.dto.TransferResultDto;
 import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.domain.entities.TransactionEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface AccountService {
     AccountEntity createAccount(AccountEntity accountEntity);
 
+    int createAccounts(List<AccountEntity> accountEntities);
+
     List<AccountEntity> findAll();
 
     Page<AccountEntity> findAll(Pageable pageable);
 
+    List<AccountEntity> findAllAfter(Long afterId, int limit);
+
+    void exportAll(Consumer<AccountEntity> consumer);
+
     Optional<AccountEntity> findById(Long id);
 
+    Optional<AccountDto> findAccountDtoById(Long id);
+
+    Page<AccountDto> findAllAccountDtos(Pageable pageable);
+
+    Optional<AccountEntity> findByAccountNumber(String accountNumber);
+
+    List<TransactionEntity> findTransactions(Long accountId, Long beforeId, int limit);
+
+    Optional<String> findAccountRevision(Long id);
+
     boolean isExist(Long id);
 
+    AccountEntity updateAccount(Long id, AccountEntity accountEntity);
+
+    AccountEntity updateAccount(Long id, AccountEntity accountEntity, Collection<String> expectedRevisions);
+
     AccountEntity partialUpdate(Long id, AccountEntity accountEntity);
 
+    AccountEntity partialUpdate(Long id, AccountEntity accountEntity, Collection<String> expectedRevisions);
+
     void deleteAccount(Long id);
 
+    AccountEntity shardAccount(Long id, int shardCount);
+
     AccountDto deposit(Long id, BigDecimal amount);
 
+    List<AccountDto> depositAll(Long id, List<BigDecimal> amounts);
+
     AccountDto withdraw(Long id, BigDecimal amount);
 
     AccountDto transfer(Long fromId, Long toId, BigDecimal amount);
+
+    List<TransferResultDto> transferBatch(List<TransferRequestDto> transfers);
 }
@@ -0,0 +1,134 @@
+package org.example.banking.services.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.example.banking.config.BankingProperties;
+import org.example.banking.config.ReplicaRouting;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.repositories.AccountRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of accounts, and of their revisions, by id, evicted by size and time to
+ * live.
+ * <p>
+ * Writers call {@link #invalidateAfterCommit} before changing an account. The key is then marked as
+ * pending and reads go to the database until the writing transaction has completed and the entry
+ * has been invalidated again. A cache hit therefore never returns a balance older than the last
+ * write committed through this node. For the same reason, accounts are always loaded from the
+ * primary database, even inside a read-only call that otherwise reads from a replica.
+ */
+@Component
+public class AccountCache {
+
+    private final AccountRepository accountRepository;
+    private final boolean enabled;
+    private final Cache<Long, AccountEntity> cache;
+    private final Cache<Long, String> revisions;
+    private final ConcurrentMap<Long, Integer> pendingWrites = new ConcurrentHashMap<>();
+
+    public AccountCache(AccountRepository accountRepository, BankingProperties bankingProperties) {
+        BankingProperties.Cache config = bankingProperties.getCache();
+        this.accountRepository = accountRepository;
+        this.enabled = config.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getTimeToLive())
+                .recordStats()
+                .build();
+        this.revisions = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getTimeToLive())
+                .build();
+    }
+
+    public Optional<AccountEntity> findById(Long id) {
+        if (!enabled || pendingWrites.containsKey(id)) {
+            return ReplicaRouting.onPrimary(() -> accountRepository.findById(id));
+        }
+        AccountEntity accountEntity = cache.get(id, key -> ReplicaRouting.onPrimary(() -> accountRepository.findById(key))
+                .map(AccountCache::copyOf)
+                .orElse(null));
+        return Optional.ofNullable(accountEntity).map(AccountCache::copyOf);
+    }
+
+    /**
+     * Returns the revision of the account, computing it with {@code loader} on the primary database
+     * when it is not cached. Invalidated together with the account.
+     */
+    public Optional<String> findRevision(Long id, Function<Long, Optional<String>> loader) {
+        if (!enabled || pendingWrites.containsKey(id)) {
+            return ReplicaRouting.onPrimary(() -> loader.apply(id));
+        }
+        return Optional.ofNullable(revisions.get(id, key -> ReplicaRouting.onPrimary(() -> loader.apply(key))
+                .orElse(null)));
+    }
+
+    public boolean isExist(Long id) {
+        if (!enabled) {
+            return ReplicaRouting.onPrimary(() -> accountRepository.existsById(id));
+        }
+        return findById(id).isPresent();
+    }
+
+    /**
+     * Drops the cached account now and once more when the current transaction completes, and keeps
+     * reads for it away from the cache in between. Outside a transaction the entry is only dropped.
+     */
+    public void invalidateAfterCommit(Long id) {
+        if (!enabled || id == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(id);
+            return;
+        }
+
+        pendingWrites.merge(id, 1, Integer::sum);
+        invalidate(id);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                invalidate(id);
+                pendingWrites.computeIfPresent(id, (key, writers) -> writers == 1 ? null : writers - 1);
+            }
+        });
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    public long getSize() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private void invalidate(Long id) {
+        cache.invalidate(id);
+        revisions.invalidate(id);
+    }
+
+    private static AccountEntity copyOf(AccountEntity accountEntity) {
+        return accountEntity.toBuilder().build();
+    }
+}
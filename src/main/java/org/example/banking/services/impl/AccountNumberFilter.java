@@ -0,0 +1,272 @@
+package org.example.banking.services.impl;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import org.example.banking.config.BankingProperties;
+import org.example.banking.repositories.AccountRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Counting Bloom filter over the account numbers in the account table. A positive answer from
+ * {@link #mightContain} still has to be confirmed by a query.
+ * <p>
+ * Numbers are added before the creating transaction commits, and removed only after the deleting one
+ * has, so the filter may briefly over-report but never misses a committed account created or
+ * renamed through this node. Accounts written by other nodes or directly in the database are picked
+ * up by the periodic {@link #rebuild}, which also resets counters that saturated. A negative answer
+ * is therefore definite only when {@link #isSingleNode} is set; uniqueness checks may rely on it
+ * anyway, because the unique index rejects whatever the filter missed.
+ */
+@Component
+public class AccountNumberFilter implements MeterBinder {
+
+    private static final VarHandle COUNTERS = MethodHandles.arrayElementVarHandle(byte[].class);
+    private static final int SATURATED = 0xFF;
+
+    private final AccountRepository accountRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final boolean singleNode;
+    private final int size;
+    private final int hashCount;
+    private final Map<String, Integer> uncommitted = new HashMap<>();
+    private final LongAdder negatives = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private volatile byte[] counters;
+    private byte[] rebuilding;
+
+    public AccountNumberFilter(AccountRepository accountRepository,
+                               TransactionTemplate transactionTemplate,
+                               BankingProperties bankingProperties) {
+        BankingProperties.AccountNumberFilter config = bankingProperties.getAccountNumberFilter();
+        this.accountRepository = accountRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = config.isEnabled();
+        this.singleNode = config.isSingleNode();
+
+        double expectedInsertions = Math.max(1, config.getExpectedInsertions());
+        double bits = -expectedInsertions * Math.log(config.getFalsePositiveProbability()) / (Math.log(2) * Math.log(2));
+        this.size = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(64, Math.ceil(bits)));
+        this.hashCount = (int) Math.max(1, Math.round(size / expectedInsertions * Math.log(2)));
+        this.counters = new byte[enabled ? size : 0];
+    }
+
+    /**
+     * Loads every account number from the database before the first lookup.
+     */
+    @PostConstruct
+    public void initialize() {
+        rebuild();
+    }
+
+    /**
+     * @return {@code false} only if no account with this number has been created through this node or
+     * was in the table at the last rebuild
+     */
+    public boolean mightContain(String accountNumber) {
+        if (!enabled) {
+            return true;
+        }
+        if (contains(counters, hash(accountNumber))) {
+            return true;
+        }
+        negatives.increment();
+        return false;
+    }
+
+    /**
+     * Whether this node is configured as the only one writing account numbers, so that a negative
+     * answer of {@link #mightContain} means the account does not exist.
+     */
+    public boolean isSingleNode() {
+        return singleNode;
+    }
+
+    /**
+     * Records that a positive answer of {@link #mightContain} was not confirmed by the database.
+     */
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    /**
+     * Adds the number of an account about to be created, or renamed to it. If the transaction rolls
+     * back, the number stays in the filter as a false positive until the next rebuild.
+     */
+    public synchronized void add(String accountNumber) {
+        if (!enabled || accountNumber == null) {
+            return;
+        }
+        long hash = hash(accountNumber);
+        increment(counters, hash);
+        if (rebuilding != null) {
+            increment(rebuilding, hash);
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            uncommitted.merge(accountNumber, 1, Integer::sum);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    synchronized (AccountNumberFilter.this) {
+                        uncommitted.computeIfPresent(accountNumber, (key, count) -> count == 1 ? null : count - 1);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Removes the number of a deleted, or renamed, account once the current transaction has committed.
+     * Outside a transaction it is removed at once.
+     */
+    public void removeAfterCommit(String accountNumber) {
+        if (!enabled || accountNumber == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remove(accountNumber);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remove(accountNumber);
+            }
+        });
+    }
+
+    /**
+     * Replaces the counters with ones built from the account table. Numbers added meanwhile, or by
+     * transactions still in flight when the scan started, are added to the new counters as well;
+     * removals are left out, so a rebuild can only err towards false positives.
+     */
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        byte[] rebuilt = new byte[size];
+        synchronized (this) {
+            rebuilding = rebuilt;
+            uncommitted.forEach((accountNumber, count) -> {
+                for (int i = 0; i < count; i++) {
+                    increment(rebuilt, hash(accountNumber));
+                }
+            });
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<String> accountNumbers = accountRepository.streamAllAccountNumbers()) {
+                    accountNumbers.forEach(accountNumber -> {
+                        long hash = hash(accountNumber);
+                        synchronized (this) {
+                            increment(rebuilt, hash);
+                        }
+                    });
+                }
+            });
+            synchronized (this) {
+                counters = rebuilt;
+            }
+        } finally {
+            synchronized (this) {
+                rebuilding = null;
+            }
+        }
+    }
+
+    /**
+     * Share of lookups for absent numbers that the filter did not rule out, measured since startup.
+     */
+    public double getFalsePositiveRate() {
+        long falsePositiveCount = falsePositives.sum();
+        long absent = falsePositiveCount + negatives.sum();
+        return absent == 0 ? 0.0 : (double) falsePositiveCount / absent;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("banking.account.number.filter.false.positive.rate", this,
+                        AccountNumberFilter::getFalsePositiveRate)
+                .description("Share of lookups for absent account numbers not ruled out by the Bloom filter")
+                .register(registry);
+        FunctionCounter.builder("banking.account.number.filter.negatives", negatives, LongAdder::sum)
+                .description("Account numbers ruled out by the Bloom filter")
+                .register(registry);
+        FunctionCounter.builder("banking.account.number.filter.false.positives", falsePositives, LongAdder::sum)
+                .description("Lookups the Bloom filter passed on for account numbers that do not exist")
+                .register(registry);
+    }
+
+    private synchronized void remove(String accountNumber) {
+        long hash = hash(accountNumber);
+        byte[] current = counters;
+        if (!contains(current, hash)) {
+            return;
+        }
+        for (int i = 0; i < hashCount; i++) {
+            int index = index(hash, i);
+            int count = Byte.toUnsignedInt((byte) COUNTERS.getAcquire(current, index));
+            if (count != SATURATED) {
+                COUNTERS.setRelease(current, index, (byte) (count - 1));
+            }
+        }
+    }
+
+    private void increment(byte[] target, long hash) {
+        for (int i = 0; i < hashCount; i++) {
+            int index = index(hash, i);
+            int count = Byte.toUnsignedInt((byte) COUNTERS.getAcquire(target, index));
+            if (count != SATURATED) {
+                COUNTERS.setRelease(target, index, (byte) (count + 1));
+            }
+        }
+    }
+
+    private boolean contains(byte[] target, long hash) {
+        for (int i = 0; i < hashCount; i++) {
+            if ((byte) COUNTERS.getAcquire(target, index(hash, i)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Index of the {@code i}-th hash function, derived from the two halves of one 64-bit hash.
+     */
+    private int index(long hash, int i) {
+        int combined = (int) hash + i * (int) (hash >>> 32);
+        return Math.floorMod(combined, size);
+    }
+
+    /**
+     * FNV-1a over the characters, followed by the MurmurHash3 finalizer to spread the bits.
+     */
+    private static long hash(String accountNumber) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < accountNumber.length(); i++) {
+            hash = (hash ^ accountNumber.charAt(i)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.banking.services.impl;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.math.BigDecimal;
+
+/**
+ * Flight recorder event of one money operation, committed by {@link OperationRecorder}. The event
+ * duration is the whole call, including retries; the database and lock wait times are the parts of
+ * it spent executing statements.
+ */
+@Category({"Banking", "Account Operations"})
+@StackTrace(false)
+abstract class AccountOperationEvent extends Event {
+
+    private static final String[] AMOUNT_BUCKETS = {
+            "<1", "1-10", "10-100", "100-1000", "1000-10000", "10000-100000", "100000-1000000", ">=1000000"
+    };
+
+    @Label("Amount Bucket")
+    @Description("Order of magnitude of the amount")
+    String amountBucket;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Database Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long databaseTime;
+
+    @Label("Lock Wait Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long lockWaitTime;
+
+    @Label("Retries")
+    @Description("Attempts repeated after an optimistic locking conflict")
+    int retries;
+
+    /**
+     * Fills in the accounts and the amount from the arguments of the service call.
+     */
+    abstract void describe(Object[] args);
+
+    static String amountBucket(Object amount) {
+        if (!(amount instanceof BigDecimal value) || value.signum() <= 0) {
+            return "invalid";
+        }
+        int integerDigits = value.precision() - value.scale();
+        return AMOUNT_BUCKETS[Math.max(0, Math.min(AMOUNT_BUCKETS.length - 1, integerDigits))];
+    }
+
+    @Name("org.example.banking.Deposit")
+    @Label("Deposit")
+    static class DepositEvent extends AccountOperationEvent {
+
+        @Label("Account Id")
+        long accountId;
+
+        @Override
+        void describe(Object[] args) {
+            accountId = args[0] instanceof Long id ? id : 0;
+            amountBucket = amountBucket(args[1]);
+        }
+    }
+
+    @Name("org.example.banking.Withdraw")
+    @Label("Withdraw")
+    static class WithdrawEvent extends AccountOperationEvent {
+
+        @Label("Account Id")
+        long accountId;
+
+        @Override
+        void describe(Object[] args) {
+            accountId = args[0] instanceof Long id ? id : 0;
+            amountBucket = amountBucket(args[1]);
+        }
+    }
+
+    @Name("org.example.banking.Transfer")
+    @Label("Transfer")
+    static class TransferEvent extends AccountOperationEvent {
+
+        @Label("From Account Id")
+        long fromAccountId;
+
+        @Label("To Account Id")
+        long toAccountId;
+
+        @Override
+        void describe(Object[] args) {
+            fromAccountId = args[0] instanceof Long id ? id : 0;
+            toAccountId = args[1] instanceof Long id ? id : 0;
+            amountBucket = amountBucket(args[2]);
+        }
+    }
+}
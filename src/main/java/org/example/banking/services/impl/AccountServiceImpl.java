@@ -1,133 +1,959 @@
 package org.example.banking.services.impl;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
+import org.example.banking.config.BankingProperties;
+import org.example.banking.config.ReplicaRouting;
 import org.example.banking.domain.dto.AccountDto;
+import org.example.banking.domain.dto.TransferRequestDto;
+import org.example.banking.domain.dto.TransferResultDto;
 import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.domain.entities.AccountShardEntity;
+import org.example.banking.domain.entities.TransactionEntity;
+import org.example.banking.exceptions.AccountModifiedException;
+import org.example.banking.exceptions.AccountNotFoundException;
+import org.example.banking.exceptions.DuplicateAccountNumberException;
+import org.example.banking.exceptions.InsufficientFundsException;
+import org.example.banking.repositories.AccountAmount;
 import org.example.banking.repositories.AccountRepository;
+import org.example.banking.repositories.AccountShardRepository;
+import org.example.banking.repositories.PendingAmount;
+import org.example.banking.repositories.TransactionRepository;
 import org.example.banking.services.AccountService;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 @Service
 public class AccountServiceImpl implements AccountService {
 
     private final AccountRepository accountRepository;
+    private final AccountShardRepository accountShardRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BankingProperties bankingProperties;
+    private final AccountCache accountCache;
+    private final AccountShardRouter accountShardRouter;
+    private final AccountNumberFilter accountNumberFilter;
+    private final EntityManager entityManager;
 
-    public AccountServiceImpl(AccountRepository accountRepository) {
+    public AccountServiceImpl(AccountRepository accountRepository,
+                              AccountShardRepository accountShardRepository,
+                              TransactionRepository transactionRepository,
+                              TransactionTemplate transactionTemplate,
+                              BankingProperties bankingProperties,
+                              AccountCache accountCache,
+                              AccountShardRouter accountShardRouter,
+                              AccountNumberFilter accountNumberFilter,
+                              EntityManager entityManager) {
         this.accountRepository = accountRepository;
+        this.accountShardRepository = accountShardRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.bankingProperties = bankingProperties;
+        this.accountCache = accountCache;
+        this.accountShardRouter = accountShardRouter;
+        this.accountNumberFilter = accountNumberFilter;
+        this.entityManager = entityManager;
     }
 
     @Override
+    @Transactional
     public AccountEntity createAccount(AccountEntity accountEntity) {
-        return accountRepository.save(accountEntity);
+        checkAccountNumberAvailable(accountEntity.getAccountNumber());
+        accountNumberFilter.add(accountEntity.getAccountNumber());
+        AccountEntity savedAccountEntity = accountRepository.save(accountEntity);
+        accountCache.invalidateAfterCommit(savedAccountEntity.getId());
+        return savedAccountEntity;
     }
 
+    /**
+     * Persists the accounts in one transaction. Ids come from the pooled {@code account_id_seq}
+     * generator, so the sequence is only hit once per allocation block, and the inserts go out as JDBC
+     * batches when the persistence context is flushed and cleared every
+     * {@code banking.bulk-create.flush-size} accounts. Any id in the input is ignored. The cache needs
+     * no invalidation because it never holds entries for missing accounts. Duplicate account numbers
+     * are not checked up front; the unique index rejects them and the whole batch rolls back.
+     */
     @Override
+    @Transactional
+    public int createAccounts(List<AccountEntity> accountEntities) {
+        int flushSize = Math.max(1, bankingProperties.getBulkCreate().getFlushSize());
+        int created = 0;
+
+        for (AccountEntity accountEntity : accountEntities) {
+            accountEntity.setId(null);
+            accountNumberFilter.add(accountEntity.getAccountNumber());
+            entityManager.persist(accountEntity);
+            if (++created % flushSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        return created;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<AccountEntity> findAll() {
-        return StreamSupport.stream(accountRepository
+        List<AccountEntity> accountEntities = StreamSupport.stream(accountRepository
                                 .findAll()
                                 .spliterator(),
                         false)
                 .toList();
+        return withCurrentBalances(accountEntities);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<AccountEntity> findAll(Pageable pageable) {
-        return accountRepository.findAll(pageable);
+        Page<AccountEntity> accountEntities = accountRepository.findAll(pageable);
+        List<AccountEntity> content = withCurrentBalances(accountEntities.getContent());
+        if (content == accountEntities.getContent()) {
+            return accountEntities;
+        }
+        return new PageImpl<>(content, accountEntities.getPageable(), accountEntities.getTotalElements());
+    }
+
+    /**
+     * Hands every account to {@code consumer} in id order, reading them through a forward-only cursor
+     * and detaching each one afterwards, so memory use does not grow with the size of the table. Shard
+     * balances and pending entries are summed per chunk of {@link AccountRepository#EXPORT_FETCH_SIZE}
+     * accounts, for the accounts of that chunk only.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<AccountEntity> consumer) {
+        int chunkSize = Integer.parseInt(AccountRepository.EXPORT_FETCH_SIZE);
+        List<AccountEntity> chunk = new ArrayList<>(chunkSize);
+        try (Stream<AccountEntity> accounts = accountRepository.streamAllByOrderByIdAsc()) {
+            accounts.forEach(accountEntity -> {
+                chunk.add(accountEntity);
+                if (chunk.size() == chunkSize) {
+                    export(chunk, consumer);
+                }
+            });
+        }
+        export(chunk, consumer);
+    }
+
+    private void export(List<AccountEntity> chunk, Consumer<AccountEntity> consumer) {
+        Map<Long, BigDecimal> adjustments = balanceAdjustments(chunk);
+        for (AccountEntity accountEntity : chunk) {
+            consumer.accept(withAdjustment(accountEntity, adjustments.get(accountEntity.getId())));
+            entityManager.detach(accountEntity);
+        }
+        chunk.clear();
+    }
+
+    /**
+     * Returns up to {@code limit} accounts with an id greater than {@code afterId}, in id order,
+     * without a count query. A {@code null} {@code afterId} starts from the first account.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<AccountEntity> findAllAfter(Long afterId, int limit) {
+        return withCurrentBalances(accountRepository.findByIdGreaterThanOrderByIdAsc(
+                afterId == null ? 0L : afterId, Limit.of(limit)));
     }
 
     @Override
     public Optional<AccountEntity> findById(Long id) {
-        return accountRepository.findById(id);
+        return accountCache.findById(id).map(account -> withBalance(account, currentBalance(account)));
+    }
+
+    /**
+     * Read-only counterpart of {@link #findById} that never hydrates a managed entity: served from the
+     * account cache when it is enabled, otherwise selected straight into the DTO. The cache path reads
+     * the primary only, so that the balance adjustments match the cached row.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<AccountDto> findAccountDtoById(Long id) {
+        if (accountCache.isEnabled()) {
+            return ReplicaRouting.onPrimary(() -> accountCache.findById(id)
+                    .map(account -> toDto(account, currentBalance(account))));
+        }
+        return accountRepository.findDtoById(id, isJournal());
+    }
+
+    /**
+     * Page of accounts selected straight into DTOs, in a read-only transaction that Hibernate runs
+     * with flush mode {@code MANUAL}.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<AccountDto> findAllAccountDtos(Pageable pageable) {
+        return accountRepository.findAllDtos(isJournal(), pageable);
+    }
+
+    /**
+     * Returns without a query when the {@link AccountNumberFilter} rules the number out and the filter
+     * is declared single-node; otherwise another node may have created the number since the last
+     * rebuild, so the database is asked either way.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<AccountEntity> findByAccountNumber(String accountNumber) {
+        boolean mightExist = accountNumberFilter.mightContain(accountNumber);
+        if (!mightExist && accountNumberFilter.isSingleNode()) {
+            return Optional.empty();
+        }
+        Optional<AccountEntity> accountEntity = accountRepository.findByAccountNumber(accountNumber);
+        if (mightExist && accountEntity.isEmpty()) {
+            accountNumberFilter.recordFalsePositive();
+        }
+        return accountEntity.map(account -> withBalance(account, currentBalance(account)));
+    }
+
+    /**
+     * Journal entries of the account, newest first, with an id lower than {@code beforeId}.
+     * A {@code null} {@code beforeId} starts from the newest entry.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<TransactionEntity> findTransactions(Long accountId, Long beforeId, int limit) {
+        return transactionRepository.findByAccountIdAndIdLessThanOrderByIdDesc(accountId,
+                beforeId == null ? Long.MAX_VALUE : beforeId, Limit.of(limit));
+    }
+
+    /**
+     * Token that changes whenever the account returned by {@link #findAccountDtoById} does, read without
+     * loading the row. It is the row version, which every change to the row increments. Pending
+     * journal entries and shard updates change the balance without touching the row, so with the
+     * journal strategy and for sharded accounts the id of the latest journal entry is appended.
+     * Served from the account cache when it is enabled, which every write invalidates.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<String> findAccountRevision(Long id) {
+        return accountCache.findRevision(id, key -> accountRepository.findVersionById(key)
+                .map(version -> revision(key, version)));
     }
 
     @Override
     public boolean isExist(Long id) {
-        return accountRepository.existsById(id);
+        return accountCache.isExist(id);
+    }
+
+    @Override
+    @Transactional
+    @Retryable(interceptor = "optimisticRetryInterceptor")
+    public AccountEntity updateAccount(Long id, AccountEntity accountEntity) {
+        return updateAccount(id, accountEntity, null);
     }
 
+    /**
+     * Replaces the account, provided its revision is one of {@code expectedRevisions}. The revision is
+     * checked against the row as loaded for the update, whose version is checked again on commit, so a
+     * change made in between fails the retry with the same check.
+     *
+     * @param expectedRevisions revisions from {@link #findAccountRevision}, or {@code null} to update unconditionally
+     * @throws AccountModifiedException if the account is at another revision
+     */
     @Override
+    @Transactional
+    @Retryable(interceptor = "optimisticRetryInterceptor")
+    public AccountEntity updateAccount(Long id, AccountEntity accountEntity, Collection<String> expectedRevisions) {
+        accountCache.invalidateAfterCommit(id);
+        return loadForBalanceChange(id).map(existingAccount -> {
+            checkRevision(existingAccount, expectedRevisions);
+            changeAccountNumber(existingAccount, accountEntity.getAccountNumber());
+            setBalance(existingAccount, accountEntity.getBalance());
+
+            return accountRepository.save(existingAccount);
+        }).orElseThrow(() -> new AccountNotFoundException("Account not found"));
+    }
+
+    @Override
+    @Transactional
+    @Retryable(interceptor = "optimisticRetryInterceptor")
     public AccountEntity partialUpdate(Long id, AccountEntity accountEntity) {
+        return partialUpdate(id, accountEntity, null);
+    }
+
+    /**
+     * Partial counterpart of {@link #updateAccount(Long, AccountEntity, Collection)}.
+     */
+    @Override
+    @Transactional
+    @Retryable(interceptor = "optimisticRetryInterceptor")
+    public AccountEntity partialUpdate(Long id, AccountEntity accountEntity, Collection<String> expectedRevisions) {
         accountEntity.setId(id);
+        accountCache.invalidateAfterCommit(id);
 
-        return accountRepository.findById(id).map(existingAccount -> {
+        return loadForBalanceChange(id).map(existingAccount -> {
+            checkRevision(existingAccount, expectedRevisions);
             Optional.ofNullable(accountEntity.getAccountNumber())
-                    .ifPresent(existingAccount::setAccountNumber);
+                    .ifPresent(accountNumber -> changeAccountNumber(existingAccount, accountNumber));
             Optional.ofNullable(accountEntity.getBalance())
-                    .ifPresent(existingAccount::setBalance);
+                    .ifPresent(balance -> setBalance(existingAccount, balance));
 
             return accountRepository.save(existingAccount);
-        }).orElseThrow(() -> new RuntimeException("Account not found"));
+        }).orElseThrow(() -> new AccountNotFoundException("Account not found"));
     }
 
     @Override
+    @Transactional
     public void deleteAccount(Long id) {
+        accountCache.invalidateAfterCommit(id);
+        accountShardRouter.forgetAfterCommit(id);
+        accountRepository.findAccountNumberById(id).ifPresent(accountNumberFilter::removeAfterCommit);
+        accountShardRepository.deleteByAccountId(id);
         accountRepository.deleteById(id);
     }
 
+    /**
+     * Spreads the whole balance of the account evenly over {@code shardCount} shard rows, leaving
+     * nothing on the account row, or folds it back into the account row when {@code shardCount} is
+     * {@code 0} or {@code 1}. The account and its current shards are write-locked while the balance
+     * is moved.
+     */
     @Override
     @Transactional
+    public AccountEntity shardAccount(Long id, int shardCount) {
+        int maxShards = bankingProperties.getSharding().getMaxShards();
+        if (shardCount < 0 || shardCount > maxShards) {
+            throw new IllegalArgumentException("Shard count must be between 0 and " + maxShards);
+        }
+        accountCache.invalidateAfterCommit(id);
+        accountShardRouter.forgetAfterCommit(id);
+
+        AccountEntity accountEntity = accountRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found"));
+        List<AccountShardEntity> shards = accountShardRepository.findByAccountIdForUpdate(id);
+        BigDecimal balance = currentBalance(accountEntity);
+        accountShardRepository.deleteAll(shards);
+        entityManager.flush();
+
+        int count = shardCount > 1 ? shardCount : 0;
+        accountEntity.setShardCount(count);
+        if (count == 0) {
+            setBalance(accountEntity, balance);
+            return accountEntity;
+        }
+
+        setBalance(accountEntity, BigDecimal.ZERO);
+        BigDecimal share = balance.divide(BigDecimal.valueOf(count), balance.scale(), RoundingMode.DOWN);
+        BigDecimal first = balance.subtract(share.multiply(BigDecimal.valueOf(count - 1)));
+        for (int shardIndex = 0; shardIndex < count; shardIndex++) {
+            accountShardRepository.save(AccountShardEntity.builder()
+                    .accountId(id)
+                    .shardIndex(shardIndex)
+                    .balance(shardIndex == 0 ? first : share)
+                    .build());
+        }
+        return withBalance(accountEntity, balance);
+    }
+
+    @Override
+    @Transactional
+    @Retryable(interceptor = "optimisticRetryInterceptor")
     public AccountDto deposit(Long id, BigDecimal amount) {
         if (amount.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Deposit amount must be greater than zero");
         }
+        return credit(id, amount, List.of(amount));
+    }
+
+    /**
+     * Applies several deposits to one account as a single balance change, while still journaling
+     * each of them. The returned balances are those after each deposit, as if they had been applied
+     * one after the other in the given order.
+     */
+    @Override
+    @Transactional
+    @Retryable(interceptor = "optimisticRetryInterceptor")
+    public List<AccountDto> depositAll(Long id, List<BigDecimal> amounts) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal amount : amounts) {
+            if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+                throw new IllegalArgumentException("Deposit amount must be greater than zero");
+            }
+            total = total.add(amount);
+        }
+        if (amounts.isEmpty()) {
+            return List.of();
+        }
+
+        AccountDto accountDto = credit(id, total, amounts);
+        BigDecimal balance = accountDto.getBalance().subtract(total);
+        List<AccountDto> results = new ArrayList<>(amounts.size());
+        for (BigDecimal amount : amounts) {
+            balance = balance.add(amount);
+            results.add(new AccountDto(accountDto.getId(), accountDto.getAccountNumber(), balance));
+        }
+        return results;
+    }
+
+    /**
+     * Adds {@code total} to the balance with the configured strategy and journals each of the
+     * deposits it is made of.
+     */
+    private AccountDto credit(Long id, BigDecimal total, List<BigDecimal> amounts) {
+        accountCache.invalidateAfterCommit(id);
+
+        if (isJournal()) {
+            AccountEntity accountEntity = accountRepository.findByIdForShare(id)
+                    .orElseThrow(() -> new AccountNotFoundException("Account not found"));
+            amounts.forEach(amount -> journal(id, null, TransactionEntity.Type.DEPOSIT, amount));
+            return toDto(accountEntity, currentBalance(accountEntity));
+        }
+
+        if (isAtomic() || isSharded(id)) {
+            creditRecipient(id, total);
+            amounts.forEach(amount -> journal(id, null, TransactionEntity.Type.DEPOSIT, amount));
+            return loadAccountDto(id, "Account not found");
+        }
 
-        return accountRepository.findById(id).map(accountEntity -> {
-            accountEntity.setBalance(accountEntity.getBalance().add(amount));
-            return accountRepository.save(accountEntity);
-        }).map(accountEntity -> new AccountDto(accountEntity.getId(), accountEntity.getAccountNumber(), accountEntity.getBalance()))
-                .orElseThrow(() -> new RuntimeException("Account not found"));
+        AccountEntity accountEntity = loadForUpdate(id, "Account not found");
+        accountEntity.setBalance(accountEntity.getBalance().add(total));
+        amounts.forEach(amount -> journal(id, null, TransactionEntity.Type.DEPOSIT, amount));
+        return toDto(accountEntity, currentBalance(accountEntity));
     }
 
     @Override
     @Transactional
+    @Retryable(interceptor = "optimisticRetryInterceptor")
     public AccountDto withdraw(Long id, BigDecimal amount) {
         if (amount.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Withdrawal amount must be greater than zero");
         }
+        accountCache.invalidateAfterCommit(id);
 
-        return accountRepository.findById(id).map(accountEntity -> {
-            if (accountEntity.getBalance().compareTo(amount) < 0) {
-                throw new RuntimeException("Insufficient funds in account ID: " + id);
+        if (isJournal()) {
+            AccountEntity accountEntity = accountRepository.findByIdForUpdate(id)
+                    .orElseThrow(() -> new AccountNotFoundException("Account not found with ID: " + id));
+            BigDecimal balance = currentBalance(accountEntity);
+            if (balance.compareTo(amount) < 0) {
+                throw new InsufficientFundsException("Insufficient funds in account ID: " + id);
             }
+            journal(id, null, TransactionEntity.Type.WITHDRAWAL, amount.negate());
+            return toDto(accountEntity, balance.subtract(amount));
+        }
 
-            accountEntity.setBalance(accountEntity.getBalance().subtract(amount));
-            accountRepository.save(accountEntity);
+        if (isAtomic() || isSharded(id)) {
+            debit(id, amount, "Account not found with ID: " + id, "Insufficient funds in account ID: " + id);
+            journal(id, null, TransactionEntity.Type.WITHDRAWAL, amount.negate());
+            return loadAccountDto(id, "Account not found with ID: " + id);
+        }
 
-            return new AccountDto(accountEntity.getId(), accountEntity.getAccountNumber(), accountEntity.getBalance());
-        }).orElseThrow(() -> new RuntimeException("Account not found with ID: " + id));
+        AccountEntity accountEntity = loadForUpdate(id, "Account not found with ID: " + id);
+        debit(accountEntity, amount, "Insufficient funds in account ID: " + id);
+        journal(id, null, TransactionEntity.Type.WITHDRAWAL, amount.negate());
+        return toDto(accountEntity, currentBalance(accountEntity));
     }
 
     @Override
     @Transactional
+    @Retryable(interceptor = "optimisticRetryInterceptor")
     public AccountDto transfer(Long fromId, Long toId, BigDecimal amount) {
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Transfer amount must be greater than zero");
+        validateTransfer(fromId, toId, amount);
+        accountCache.invalidateAfterCommit(fromId);
+        accountCache.invalidateAfterCommit(toId);
+
+        if (isJournal()) {
+            return transferInJournal(fromId, toId, amount);
         }
 
-        AccountEntity fromAccount = accountRepository.findById(fromId)
-                .orElseThrow(() -> new RuntimeException("Account not found"));
+        if (!isAtomic() && !isSharded(fromId) && !isSharded(toId)) {
+            return transferInMemory(fromId, toId, amount);
+        }
 
-        AccountEntity toAccount = accountRepository.findById(toId)
-                .orElseThrow(() -> new RuntimeException("Account not found"));
+        // Touch the rows in ascending id order so that two opposite transfers
+        // can never hold one row each while waiting for the other.
+        if (fromId <= toId) {
+            debitSender(fromId, amount);
+            creditRecipient(toId, amount);
+        } else {
+            creditRecipient(toId, amount);
+            debitSender(fromId, amount);
+        }
+        journalTransfer(fromId, toId, amount);
+
+        return loadAccountDto(fromId, "Account not found");
+    }
 
-        if (fromAccount.getBalance().compareTo(amount) < 0) {
-            throw new RuntimeException("Insufficient balance in the sender's account");
+    /**
+     * Appends the two transfer entries without touching the account rows. The sender is write-locked,
+     * so its balance cannot be spent twice, and the recipient only share-locked, so that many
+     * concurrent credits to the same account do not queue up. Both are locked in ascending id order.
+     */
+    private AccountDto transferInJournal(Long fromId, Long toId, BigDecimal amount) {
+        AccountEntity fromAccount;
+        if (fromId.equals(toId)) {
+            fromAccount = lockForDebit(fromId);
+        } else if (fromId < toId) {
+            fromAccount = lockForDebit(fromId);
+            lockForCredit(toId);
+        } else {
+            lockForCredit(toId);
+            fromAccount = lockForDebit(fromId);
         }
 
-        fromAccount.setBalance(fromAccount.getBalance().subtract(amount));
+        if (currentBalance(fromAccount).compareTo(amount) < 0) {
+            throw new InsufficientFundsException("Insufficient balance in the sender's account");
+        }
+        journalTransfer(fromId, toId, amount);
+
+        return toDto(fromAccount, currentBalance(fromAccount));
+    }
+
+    private AccountEntity lockForDebit(Long id) {
+        return accountRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found"));
+    }
+
+    private AccountEntity lockForCredit(Long id) {
+        return accountRepository.findByIdForShare(id)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found"));
+    }
+
+    /**
+     * Loads both accounts in ascending id order and changes them in memory. With the pessimistic
+     * strategy the rows are locked with {@code PESSIMISTIC_WRITE}, so crossing transfers (A to B
+     * and B to A) queue up behind each other instead of deadlocking; with the optimistic strategy
+     * the version check at commit rejects a concurrent modification.
+     */
+    private AccountDto transferInMemory(Long fromId, Long toId, BigDecimal amount) {
+        AccountEntity first = loadForUpdate(Math.min(fromId, toId), "Account not found");
+        AccountEntity second = fromId.equals(toId) ? first : loadForUpdate(Math.max(fromId, toId), "Account not found");
+        AccountEntity fromAccount = first.getId().equals(fromId) ? first : second;
+        AccountEntity toAccount = first.getId().equals(fromId) ? second : first;
+
+        debit(fromAccount, amount, "Insufficient balance in the sender's account");
         toAccount.setBalance(toAccount.getBalance().add(amount));
+        journalTransfer(fromId, toId, amount);
+
+        return toDto(fromAccount, currentBalance(fromAccount));
+    }
+
+    private boolean isAtomic() {
+        return bankingProperties.getLockingStrategy() == BankingProperties.LockingStrategy.ATOMIC;
+    }
+
+    private boolean isJournal() {
+        return bankingProperties.getLockingStrategy() == BankingProperties.LockingStrategy.JOURNAL;
+    }
+
+    /**
+     * Whether money operations on the account go to its shards. With the journal strategy they never
+     * do: journal entries do not contend on a row in the first place, and the shards only count
+     * towards the balance.
+     */
+    private boolean isSharded(Long id) {
+        return !isJournal() && accountShardRouter.getShardCount(id) > 0;
+    }
+
+    /**
+     * Records a movement. With the journal strategy the entry is pending and is the only write;
+     * otherwise the balance has already been changed on the account row in the same transaction.
+     */
+    private void journal(Long accountId, Long counterpartyAccountId, TransactionEntity.Type type, BigDecimal amount) {
+        transactionRepository.save(TransactionEntity.builder()
+                .accountId(accountId)
+                .counterpartyAccountId(counterpartyAccountId)
+                .type(type)
+                .amount(amount)
+                .pending(isJournal())
+                .build());
+    }
+
+    private void journalTransfer(Long fromId, Long toId, BigDecimal amount) {
+        journal(fromId, toId, TransactionEntity.Type.TRANSFER_OUT, amount.negate());
+        journal(toId, fromId, TransactionEntity.Type.TRANSFER_IN, amount);
+    }
+
+    /**
+     * The account row plus, with the journal strategy, its pending entries and, for a hot account,
+     * its shards.
+     */
+    private BigDecimal currentBalance(AccountEntity accountEntity) {
+        BigDecimal balance = accountEntity.getBalance();
+        if (isJournal()) {
+            balance = balance.add(
+                    transactionRepository.sumPendingAfter(accountEntity.getId(), accountEntity.getJournalPosition()));
+        }
+        if (accountEntity.getShardCount() > 0) {
+            balance = balance.add(accountShardRepository.sumBalanceByAccountId(accountEntity.getId()));
+        }
+        return balance;
+    }
+
+    private String revision(Long id, long version) {
+        if (!isJournal() && accountShardRouter.getShardCount(id) == 0) {
+            return Long.toString(version);
+        }
+        Long lastEntryId = transactionRepository.findLastIdByAccountId(id);
+        return version + "." + (lastEntryId == null ? 0 : lastEntryId);
+    }
+
+    private void checkRevision(AccountEntity accountEntity, Collection<String> expectedRevisions) {
+        if (expectedRevisions != null
+                && !expectedRevisions.contains(revision(accountEntity.getId(), accountEntity.getVersion()))) {
+            throw new AccountModifiedException("Account was modified");
+        }
+    }
+
+    /**
+     * Loads an account whose balance may be overwritten. With the journal strategy the row is
+     * write-locked so that no pending entry is appended while the balance is being replaced.
+     */
+    private Optional<AccountEntity> loadForBalanceChange(Long id) {
+        return isJournal() ? accountRepository.findByIdForUpdate(id) : accountRepository.findById(id);
+    }
+
+    /**
+     * Sets the balance; with the journal strategy the pending entries written so far are treated as
+     * already included in it, and the shards of a hot account are emptied.
+     */
+    private void setBalance(AccountEntity accountEntity, BigDecimal balance) {
+        if (accountEntity.getShardCount() > 0) {
+            accountShardRepository.findByAccountIdForUpdate(accountEntity.getId())
+                    .forEach(shard -> shard.setBalance(BigDecimal.ZERO));
+        }
+        if (isJournal()) {
+            Long lastPendingId = transactionRepository.findLastPendingId(accountEntity.getId());
+            if (lastPendingId != null) {
+                accountEntity.setJournalPosition(Math.max(accountEntity.getJournalPosition(), lastPendingId));
+            }
+        }
+        accountEntity.setBalance(balance);
+    }
+
+    private List<AccountEntity> withCurrentBalances(List<AccountEntity> accountEntities) {
+        Map<Long, BigDecimal> adjustments = balanceAdjustments(accountEntities);
+        if (adjustments.isEmpty()) {
+            return accountEntities;
+        }
+
+        List<AccountEntity> result = new ArrayList<>(accountEntities.size());
+        for (AccountEntity accountEntity : accountEntities) {
+            result.add(withAdjustment(accountEntity, adjustments.get(accountEntity.getId())));
+        }
+        return result;
+    }
+
+    /**
+     * Amounts to add to the account rows to get the current balances: pending journal entries with
+     * the journal strategy and the shards of hot accounts. Accounts without any are left out.
+     */
+    private Map<Long, BigDecimal> balanceAdjustments(Collection<AccountEntity> accountEntities) {
+        Set<Long> shardedIds = new HashSet<>();
+        accountEntities.stream()
+                .filter(accountEntity -> accountEntity.getShardCount() > 0)
+                .forEach(accountEntity -> shardedIds.add(accountEntity.getId()));
+
+        Map<Long, BigDecimal> adjustments = shardedIds.isEmpty()
+                ? new HashMap<>()
+                : toMap(accountShardRepository.sumBalanceByAccountIdIn(shardedIds));
+        if (isJournal()) {
+            pendingAmounts(accountEntities)
+                    .forEach((accountId, pendingAmount) -> adjustments.merge(accountId, pendingAmount, BigDecimal::add));
+        }
+        return adjustments;
+    }
+
+    /**
+     * Pending journal amounts after the journal position of each loaded row. The batch sum runs as a
+     * separate statement, so an account compacted since its row was read is summed again from the
+     * position the row has.
+     */
+    private Map<Long, BigDecimal> pendingAmounts(Collection<AccountEntity> accountEntities) {
+        Map<Long, AccountEntity> byId = new HashMap<>();
+        accountEntities.forEach(accountEntity -> byId.put(accountEntity.getId(), accountEntity));
+        Map<Long, BigDecimal> result = new HashMap<>();
+        if (byId.isEmpty()) {
+            return result;
+        }
+        for (PendingAmount pendingAmount : transactionRepository.sumPendingByAccountIdIn(byId.keySet())) {
+            if (byId.get(pendingAmount.getAccountId()).getJournalPosition() == pendingAmount.getJournalPosition()) {
+                result.put(pendingAmount.getAccountId(), pendingAmount.getAmount());
+            }
+        }
+        byId.forEach((accountId, accountEntity) -> result.computeIfAbsent(accountId,
+                id -> transactionRepository.sumPendingAfter(id, accountEntity.getJournalPosition())));
+        return result;
+    }
+
+    /**
+     * Rejects an account number already in use. Numbers the {@link AccountNumberFilter} rules out
+     * need no query: two concurrent creations of the same number, or one by another node since the
+     * last rebuild, are rejected by the unique index when the transaction flushes instead.
+     */
+    private void checkAccountNumberAvailable(String accountNumber) {
+        if (accountNumber == null || !accountNumberFilter.mightContain(accountNumber)) {
+            return;
+        }
+        if (accountRepository.existsByAccountNumber(accountNumber)) {
+            throw new DuplicateAccountNumberException("Account number already exists");
+        }
+        accountNumberFilter.recordFalsePositive();
+    }
+
+    private void changeAccountNumber(AccountEntity accountEntity, String accountNumber) {
+        if (Objects.equals(accountEntity.getAccountNumber(), accountNumber)) {
+            return;
+        }
+        checkAccountNumberAvailable(accountNumber);
+        accountNumberFilter.add(accountNumber);
+        accountNumberFilter.removeAfterCommit(accountEntity.getAccountNumber());
+        accountEntity.setAccountNumber(accountNumber);
+    }
+
+    private static AccountEntity withAdjustment(AccountEntity accountEntity, BigDecimal adjustment) {
+        if (adjustment == null || adjustment.signum() == 0) {
+            return accountEntity;
+        }
+        return withBalance(accountEntity, accountEntity.getBalance().add(adjustment));
+    }
+
+    /**
+     * Returns a detached copy carrying the current balance, so that the managed entity is never
+     * changed by a read.
+     */
+    private static AccountEntity withBalance(AccountEntity accountEntity, BigDecimal balance) {
+        if (balance.compareTo(accountEntity.getBalance()) == 0) {
+            return accountEntity;
+        }
+        return accountEntity.toBuilder().balance(balance).build();
+    }
+
+    private static Map<Long, BigDecimal> toMap(List<AccountAmount> accountAmounts) {
+        Map<Long, BigDecimal> result = new HashMap<>();
+        accountAmounts.forEach(accountAmount -> result.put(accountAmount.getAccountId(), accountAmount.getAmount()));
+        return result;
+    }
+
+    private AccountEntity loadForUpdate(Long id, String notFoundMessage) {
+        Optional<AccountEntity> accountEntity =
+                bankingProperties.getLockingStrategy() == BankingProperties.LockingStrategy.PESSIMISTIC
+                        ? accountRepository.findByIdForUpdate(id)
+                        : accountRepository.findById(id);
+        return accountEntity.orElseThrow(() -> new AccountNotFoundException(notFoundMessage));
+    }
+
+    /**
+     * Applies the transfers in chunks of {@code banking.transfer.batch-chunk-size}, one transaction
+     * per chunk. Within a chunk every involved account is locked once, in ascending id order and each
+     * account row before its shards, the same order single transfers use; the balance changes are
+     * flushed at commit as batched JDBC updates. A failing item does not affect the others; a chunk
+     * that fails to commit reports all of its items as failed.
+     */
+    @Override
+    public List<TransferResultDto> transferBatch(List<TransferRequestDto> transfers) {
+        int chunkSize = Math.max(1, bankingProperties.getTransfer().getBatchChunkSize());
+        List<TransferResultDto> results = new ArrayList<>(transfers.size());
+
+        for (int start = 0; start < transfers.size(); start += chunkSize) {
+            List<TransferRequestDto> chunk = transfers.subList(start, Math.min(start + chunkSize, transfers.size()));
+            try {
+                results.addAll(transactionTemplate.execute(status -> applyTransferChunk(chunk)));
+            } catch (RuntimeException e) {
+                chunk.forEach(transfer -> results.add(transferResult(transfer, TransferResultDto.Status.FAILED,
+                        "Batch chunk failed: " + e.getMessage())));
+            }
+        }
+
+        return results;
+    }
+
+    private List<TransferResultDto> applyTransferChunk(List<TransferRequestDto> chunk) {
+        // Every query below runs before the first change, so none of them needs the automatic flush,
+        // which would dirty-check all accounts loaded so far once per locked account.
+        entityManager.setFlushMode(FlushModeType.COMMIT);
+        Set<Long> accountIds = new TreeSet<>();
+        for (TransferRequestDto transfer : chunk) {
+            if (transfer != null && transfer.getFromAccountId() != null && transfer.getToAccountId() != null) {
+                accountIds.add(transfer.getFromAccountId());
+                accountIds.add(transfer.getToAccountId());
+            }
+        }
+
+        accountIds.forEach(accountCache::invalidateAfterCommit);
+
+        // Same order as single transfers and withdrawals: account by account in ascending id order,
+        // each account row before its shards. Runs of unsharded accounts are locked with one query each.
+        Set<Long> shardedIds = new HashSet<>(accountIds.isEmpty()
+                ? List.of()
+                : accountRepository.findShardedIdsIn(accountIds));
+        Map<Long, AccountEntity> accounts = new HashMap<>();
+        Map<Long, List<AccountShardEntity>> shards = new HashMap<>();
+        List<Long> run = new ArrayList<>();
+        for (Long accountId : accountIds) {
+            if (shardedIds.contains(accountId)) {
+                lockAccounts(run, accounts, shards);
+                run.clear();
+                lockAccounts(List.of(accountId), accounts, shards);
+            } else {
+                run.add(accountId);
+            }
+        }
+        lockAccounts(run, accounts, shards);
+
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        accounts.values().forEach(accountEntity -> balances.put(accountEntity.getId(), accountEntity.getBalance()));
+        shards.forEach((accountId, accountShards) ->
+                balances.merge(accountId, AccountShardRouter.sum(accountShards), BigDecimal::add));
+        if (isJournal()) {
+            pendingAmounts(accounts.values())
+                    .forEach((accountId, pendingAmount) -> balances.merge(accountId, pendingAmount, BigDecimal::add));
+        }
+
+        List<TransferResultDto> results = new ArrayList<>(chunk.size());
+        for (TransferRequestDto transfer : chunk) {
+            try {
+                validateTransfer(transfer);
+                AccountEntity fromAccount = accounts.get(transfer.getFromAccountId());
+                AccountEntity toAccount = accounts.get(transfer.getToAccountId());
+                if (fromAccount == null || toAccount == null) {
+                    throw new AccountNotFoundException("Account not found");
+                }
+                if (balances.get(fromAccount.getId()).compareTo(transfer.getAmount()) < 0) {
+                    throw new InsufficientFundsException("Insufficient balance in the sender's account");
+                }
+
+                balances.merge(fromAccount.getId(), transfer.getAmount().negate(), BigDecimal::add);
+                balances.merge(toAccount.getId(), transfer.getAmount(), BigDecimal::add);
+                if (!isJournal()) {
+                    BigDecimal uncovered = AccountShardRouter.drain(
+                            shards.getOrDefault(fromAccount.getId(), List.of()), transfer.getAmount());
+                    fromAccount.setBalance(fromAccount.getBalance().subtract(uncovered));
+                    if (shards.containsKey(toAccount.getId())) {
+                        AccountShardRouter.credit(shards.get(toAccount.getId()), transfer.getAmount());
+                    } else {
+                        toAccount.setBalance(toAccount.getBalance().add(transfer.getAmount()));
+                    }
+                }
+                journalTransfer(fromAccount.getId(), toAccount.getId(), transfer.getAmount());
+                results.add(transferResult(transfer, TransferResultDto.Status.SUCCEEDED, null));
+            } catch (IllegalArgumentException | AccountNotFoundException | InsufficientFundsException e) {
+                results.add(transferResult(transfer, TransferResultDto.Status.FAILED, e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    private void lockAccounts(List<Long> accountIds,
+                              Map<Long, AccountEntity> accounts,
+                              Map<Long, List<AccountShardEntity>> shards) {
+        if (accountIds.isEmpty()) {
+            return;
+        }
+        for (AccountEntity accountEntity : accountRepository.findAllByIdInForUpdate(accountIds)) {
+            Long accountId = accountEntity.getId();
+            accounts.put(accountId, accountEntity);
+            if (accountEntity.getShardCount() > 0) {
+                shards.put(accountId, accountShardRepository.findByAccountIdForUpdate(accountId));
+            }
+        }
+    }
+
+    /**
+     * Result of one batch item; a missing item is reported without accounts or amount.
+     */
+    static TransferResultDto transferResult(TransferRequestDto transfer,
+                                            TransferResultDto.Status status,
+                                            String message) {
+        if (transfer == null) {
+            return new TransferResultDto(null, null, null, status, message);
+        }
+        return new TransferResultDto(transfer.getFromAccountId(), transfer.getToAccountId(),
+                transfer.getAmount(), status, message);
+    }
+
+    static void validateTransfer(TransferRequestDto transfer) {
+        if (transfer == null) {
+            throw new IllegalArgumentException("Transfer must be specified");
+        }
+        validateTransfer(transfer.getFromAccountId(), transfer.getToAccountId(), transfer.getAmount());
+    }
+
+    static void validateTransfer(Long fromId, Long toId, BigDecimal amount) {
+        if (fromId == null || toId == null) {
+            throw new IllegalArgumentException("Transfer accounts must be specified");
+        }
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Transfer amount must be greater than zero");
+        }
+    }
+
+    private void debitSender(Long fromId, BigDecimal amount) {
+        debit(fromId, amount, "Account not found", "Insufficient balance in the sender's account");
+    }
 
-        accountRepository.save(fromAccount);
-        accountRepository.save(toAccount);
+    /**
+     * Debits with single statements: first a random shard, then the account row. Only when neither
+     * holds enough on its own, and the account has shards, are the account and all of its shards
+     * locked so that the amount can be borrowed across them.
+     */
+    private void debit(Long id, BigDecimal amount, String notFoundMessage, String insufficientMessage) {
+        if (accountShardRouter.tryDebit(id, amount)
+                || accountRepository.decrementBalanceIfSufficient(id, amount) > 0) {
+            return;
+        }
+        if (!accountRepository.existsById(id)) {
+            throw new AccountNotFoundException(notFoundMessage);
+        }
+        if (!accountShardRepository.existsByAccountId(id)) {
+            throw new InsufficientFundsException(insufficientMessage);
+        }
+        AccountEntity accountEntity = accountRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new AccountNotFoundException(notFoundMessage));
+        debit(accountEntity, amount, insufficientMessage);
+    }
+
+    /**
+     * Debits a loaded account in memory, taking from its shards first, in shard order, and the rest
+     * from the account row.
+     */
+    private void debit(AccountEntity accountEntity, BigDecimal amount, String insufficientMessage) {
+        List<AccountShardEntity> shards = accountEntity.getShardCount() > 0
+                ? accountShardRepository.findByAccountIdForUpdate(accountEntity.getId())
+                : List.of();
+        if (accountEntity.getBalance().add(AccountShardRouter.sum(shards)).compareTo(amount) < 0) {
+            throw new InsufficientFundsException(insufficientMessage);
+        }
+        accountEntity.setBalance(accountEntity.getBalance().subtract(AccountShardRouter.drain(shards, amount)));
+    }
+
+    private void creditRecipient(Long toId, BigDecimal amount) {
+        if (!accountShardRouter.credit(toId, amount) && accountRepository.incrementBalance(toId, amount) == 0) {
+            throw new AccountNotFoundException("Account not found");
+        }
+    }
+
+    private AccountDto loadAccountDto(Long id, String notFoundMessage) {
+        return accountRepository.findById(id)
+                .map(accountEntity -> toDto(accountEntity, currentBalance(accountEntity)))
+                .orElseThrow(() -> new AccountNotFoundException(notFoundMessage));
+    }
 
-        return accountRepository.findById(fromId).map(accountEntity -> new AccountDto(accountEntity.getId(), accountEntity.getAccountNumber(), accountEntity.getBalance()))
-                .orElseThrow(() -> new RuntimeException("Account not found"));
+    private static AccountDto toDto(AccountEntity accountEntity, BigDecimal balance) {
+        return new AccountDto(accountEntity.getId(), accountEntity.getAccountNumber(), balance);
     }
 }
@@ -0,0 +1,145 @@
+package org.example.banking.services.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.persistence.EntityManager;
+import org.example.banking.config.BankingProperties;
+import org.example.banking.domain.entities.AccountShardEntity;
+import org.example.banking.repositories.AccountRepository;
+import org.example.banking.repositories.AccountShardRepository;
+import org.hibernate.Session;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sends single-statement balance changes of hot accounts to a randomly picked shard, so that
+ * concurrent callers mostly update different rows.
+ * <p>
+ * Shard counts are remembered for {@code banking.sharding.shard-count-time-to-live}. A stale count
+ * only costs throughput: a credit that finds no shard goes to the account row, and a debit that finds
+ * no shard with enough funds falls back to locking the account together with all of its shards.
+ */
+@Component
+public class AccountShardRouter {
+
+    private final AccountRepository accountRepository;
+    private final AccountShardRepository accountShardRepository;
+    private final EntityManager entityManager;
+    private final Cache<Long, Integer> shardCounts;
+
+    public AccountShardRouter(AccountRepository accountRepository,
+                              AccountShardRepository accountShardRepository,
+                              EntityManager entityManager,
+                              BankingProperties bankingProperties) {
+        this.accountRepository = accountRepository;
+        this.accountShardRepository = accountShardRepository;
+        this.entityManager = entityManager;
+        this.shardCounts = Caffeine.newBuilder()
+                .maximumSize(bankingProperties.getCache().getMaximumSize())
+                .expireAfterWrite(bankingProperties.getSharding().getShardCountTimeToLive())
+                .build();
+    }
+
+    /**
+     * @return the number of shards of the account, {@code 0} when it is not sharded or does not exist
+     */
+    public int getShardCount(Long accountId) {
+        return shardCounts.get(accountId, id -> accountRepository.findShardCountById(id).orElse(0));
+    }
+
+    /**
+     * Drops the remembered shard count now and once more when the current transaction completes.
+     */
+    public void forgetAfterCommit(Long accountId) {
+        shardCounts.invalidate(accountId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    shardCounts.invalidate(accountId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Adds {@code amount} to a random shard of the account.
+     *
+     * @return {@code false} when the account has no shards and the caller has to credit the account row
+     */
+    public boolean credit(Long accountId, BigDecimal amount) {
+        int shardCount = getShardCount(accountId);
+        return shardCount > 0 && accountShardRepository.incrementBalance(accountId,
+                ThreadLocalRandom.current().nextInt(shardCount), amount) > 0;
+    }
+
+    /**
+     * Subtracts {@code amount} from a random shard of the account if that shard alone holds enough.
+     * <p>
+     * A conditional update that waited for the shard and then found it short can keep the shard
+     * locked, so the attempt runs inside a savepoint that is rolled back when nothing was debited.
+     * The caller can then lock the account row before its shards, the order every path uses.
+     *
+     * @return {@code false} when nothing was debited
+     */
+    public boolean tryDebit(Long accountId, BigDecimal amount) {
+        int shardCount = getShardCount(accountId);
+        if (shardCount == 0) {
+            return false;
+        }
+        Session session = entityManager.unwrap(Session.class);
+        Savepoint savepoint = session.doReturningWork(Connection::setSavepoint);
+        boolean debited = accountShardRepository.decrementBalanceIfSufficient(accountId,
+                ThreadLocalRandom.current().nextInt(shardCount), amount) > 0;
+        session.doWork(connection -> {
+            if (debited) {
+                connection.releaseSavepoint(savepoint);
+            } else {
+                connection.rollback(savepoint);
+            }
+        });
+        return debited;
+    }
+
+    public static BigDecimal sum(List<AccountShardEntity> shards) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (AccountShardEntity shard : shards) {
+            total = total.add(shard.getBalance());
+        }
+        return total;
+    }
+
+    /**
+     * Takes up to {@code amount} from the shards, in shard order, borrowing from the next shard when
+     * one runs dry.
+     *
+     * @return the part of {@code amount} the shards could not cover
+     */
+    public static BigDecimal drain(List<AccountShardEntity> shards, BigDecimal amount) {
+        BigDecimal remainder = amount;
+        for (AccountShardEntity shard : shards) {
+            if (remainder.signum() <= 0) {
+                break;
+            }
+            BigDecimal taken = shard.getBalance().signum() > 0 ? shard.getBalance().min(remainder) : BigDecimal.ZERO;
+            shard.setBalance(shard.getBalance().subtract(taken));
+            remainder = remainder.subtract(taken);
+        }
+        return remainder;
+    }
+
+    /**
+     * Adds {@code amount} to a random shard among the given, already locked ones.
+     */
+    public static void credit(List<AccountShardEntity> shards, BigDecimal amount) {
+        AccountShardEntity shard = shards.get(ThreadLocalRandom.current().nextInt(shards.size()));
+        shard.setBalance(shard.getBalance().add(amount));
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.banking.services.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Bounded multi-producer, single-consumer ring of pre-allocated entries.
+ * <p>
+ * A producer {@link #claim claims} a sequence, fills the entry at that sequence in place and
+ * {@link #publish publishes} it. The consumer handles published entries strictly in sequence order
+ * and releases their slots once a run of them has been handled, so entries must not be kept beyond
+ * the handler call. Producers wait while the ring is full.
+ */
+final class CommandRingBuffer<T> {
+
+    private static final long FULL_WAIT_NANOS = 1_000;
+
+    private final Object[] entries;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private volatile long consumed = -1;
+
+    CommandRingBuffer(int capacity, Supplier<T> factory) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two");
+        }
+        this.entries = new Object[capacity];
+        this.published = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            entries[i] = factory.get();
+            published.set(i, -1);
+        }
+    }
+
+    long claim() {
+        long sequence = claimed.incrementAndGet();
+        while (sequence - consumed > entries.length) {
+            LockSupport.parkNanos(FULL_WAIT_NANOS);
+        }
+        return sequence;
+    }
+
+    @SuppressWarnings("unchecked")
+    T get(long sequence) {
+        return (T) entries[(int) sequence & mask];
+    }
+
+    void publish(long sequence) {
+        published.set((int) sequence & mask, sequence);
+    }
+
+    boolean hasPublished() {
+        long next = consumed + 1;
+        return published.get((int) next & mask) == next;
+    }
+
+    /**
+     * Hands up to {@code max} published entries to {@code handler}, in sequence order. Consumer only.
+     *
+     * @return number of entries handled
+     */
+    int drain(Consumer<T> handler, int max) {
+        long next = consumed + 1;
+        int handled = 0;
+        while (handled < max && published.get((int) next & mask) == next) {
+            handler.accept(get(next));
+            next++;
+            handled++;
+        }
+        if (handled > 0) {
+            consumed = next - 1;
+        }
+        return handled;
+    }
+}
@@ -0,0 +1,126 @@
+package org.example.banking.services.impl;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.example.banking.config.BankingProperties;
+import org.example.banking.exceptions.BulkheadFullException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fair, bounded limiter in front of the account service, sized to the connection pool by default.
+ * Callers beyond the limit wait here in arrival order, for at most the queue timeout, instead of
+ * holding a request thread while blocked on the pool; when the queue is full they are rejected at once.
+ * <p>
+ * Permits are per thread and reentrant, so a service call made from inside another one, as the
+ * in-memory strategy does, does not take a second permit.
+ */
+@Component
+@ConditionalOnProperty(prefix = "banking.bulkhead", name = "enabled", havingValue = "true")
+public class DatabaseBulkhead implements MeterBinder {
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+    private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final int maxConcurrentCalls;
+    private final int maxWaitingCalls;
+    private final long queueTimeoutNanos;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    public DatabaseBulkhead(BankingProperties bankingProperties, DataSource dataSource) {
+        BankingProperties.Bulkhead config = bankingProperties.getBulkhead();
+        this.maxConcurrentCalls = config.getMaxConcurrentCalls() > 0
+                ? config.getMaxConcurrentCalls()
+                : poolSize(dataSource);
+        this.maxWaitingCalls = Math.max(0, config.getMaxWaitingCalls());
+        this.queueTimeoutNanos = config.getQueueTimeout().toNanos();
+        this.permits = new Semaphore(maxConcurrentCalls, true);
+    }
+
+    /**
+     * Takes a permit for the current thread, unless it already holds one.
+     *
+     * @throws BulkheadFullException if the queue is full or no permit became free within the timeout
+     */
+    public void acquire() {
+        int[] depth = DEPTH.get();
+        if (depth[0] > 0) {
+            depth[0]++;
+            return;
+        }
+
+        try {
+            // Unlike the untimed form, a timed tryAcquire never takes a permit ahead of queued callers.
+            if (!permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                awaitPermit();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BulkheadFullException("Interrupted while waiting for a database connection");
+        }
+        depth[0] = 1;
+    }
+
+    private void awaitPermit() throws InterruptedException {
+        if (waiting.incrementAndGet() > maxWaitingCalls) {
+            waiting.decrementAndGet();
+            rejected.increment();
+            throw new BulkheadFullException("Too many concurrent requests");
+        }
+        try {
+            if (!permits.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                rejected.increment();
+                throw new BulkheadFullException("Timed out waiting for a database connection");
+            }
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    public void release() {
+        int[] depth = DEPTH.get();
+        if (--depth[0] == 0) {
+            permits.release();
+        }
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("banking.bulkhead.available.permits", permits, Semaphore::availablePermits)
+                .description("Account service calls that can start without waiting")
+                .register(registry);
+        Gauge.builder("banking.bulkhead.waiting.calls", waiting, AtomicInteger::get)
+                .description("Account service calls waiting for a permit")
+                .register(registry);
+        FunctionCounter.builder("banking.bulkhead.rejected.calls", rejected, LongAdder::sum)
+                .description("Account service calls rejected with 503 by the bulkhead")
+                .register(registry);
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            // fall through to the pool's default size
+        }
+        return DEFAULT_POOL_SIZE;
+    }
+}
@@ -0,0 +1,146 @@
+package org.example.banking.services.impl;
+
+import jakarta.annotation.PreDestroy;
+import org.example.banking.config.BankingProperties;
+import org.example.banking.domain.dto.AccountDto;
+import org.example.banking.services.AccountService;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Merges deposits to the same account that arrive within {@code banking.deposit-coalescing.window}
+ * into one {@link AccountService#depositAll} call, so a burst on a hot account costs one transaction
+ * and one balance update per batch instead of one per request.
+ * <p>
+ * The first deposit to an account opens a batch and schedules it to be applied when the window ends,
+ * or earlier once it holds {@code max-batch-size} deposits. Callers block until their batch has
+ * committed and then get the balance right after their own deposit. If the batch fails, every
+ * caller in it gets the exception. A caller waits at most {@code timeout}; its deposit may still be
+ * applied afterwards. When coalescing is disabled, deposits go straight to the service.
+ */
+@Component
+public class DepositCoalescer {
+
+    private final AccountService accountService;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final long timeoutNanos;
+    private final ScheduledExecutorService scheduler;
+    private final ConcurrentMap<Long, Batch> openBatches = new ConcurrentHashMap<>();
+
+    public DepositCoalescer(AccountService accountService, BankingProperties bankingProperties) {
+        BankingProperties.DepositCoalescing config = bankingProperties.getDepositCoalescing();
+        this.accountService = accountService;
+        this.enabled = config.isEnabled();
+        this.windowNanos = config.getWindow().toNanos();
+        this.maxBatchSize = Math.max(1, config.getMaxBatchSize());
+        this.timeoutNanos = config.getTimeout().toNanos();
+        this.scheduler = enabled ? Executors.newScheduledThreadPool(Math.max(1, config.getFlushThreads()),
+                daemonThreads()) : null;
+    }
+
+    public AccountDto deposit(Long id, BigDecimal amount) {
+        if (!enabled) {
+            return accountService.deposit(id, amount);
+        }
+        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Deposit amount must be greater than zero");
+        }
+
+        CompletableFuture<AccountDto> result = new CompletableFuture<>();
+        openBatches.compute(id, (accountId, batch) -> {
+            Batch target = batch != null ? batch : open(accountId);
+            target.amounts.add(amount);
+            target.results.add(result);
+            if (target.amounts.size() < maxBatchSize) {
+                return target;
+            }
+            scheduler.execute(() -> apply(accountId, target));
+            return null;
+        });
+
+        try {
+            return result.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Deposit batch failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out waiting for the deposit batch to be applied", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the deposit batch", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    private Batch open(Long accountId) {
+        Batch batch = new Batch();
+        scheduler.schedule(() -> apply(accountId, batch), windowNanos, TimeUnit.NANOSECONDS);
+        return batch;
+    }
+
+    /**
+     * Closes the batch for new deposits and applies it. Runs once per batch, whichever of the window
+     * and the size limit is reached first. Every caller's future is completed, even when applying
+     * fails with an {@link Error}.
+     */
+    private void apply(Long accountId, Batch batch) {
+        openBatches.remove(accountId, batch);
+        if (!batch.applied.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            List<AccountDto> accountDtos = accountService.depositAll(accountId, batch.amounts);
+            for (int i = 0; i < batch.results.size(); i++) {
+                batch.results.get(i).complete(accountDtos.get(i));
+            }
+        } catch (Throwable e) {
+            batch.results.forEach(result -> result.completeExceptionally(e));
+            throw e;
+        }
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "deposit-coalescer-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Deposits collected for one account. Only changed inside {@link ConcurrentMap#compute} while the
+     * batch is open, and only read after it has been removed from {@link #openBatches}.
+     */
+    private static final class Batch {
+
+        private final List<BigDecimal> amounts = new ArrayList<>();
+        private final List<CompletableFuture<AccountDto>> results = new ArrayList<>();
+        private final AtomicBoolean applied = new AtomicBoolean();
+    }
+}
@@ -0,0 +1,198 @@
+package org.example.banking.services.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.example.banking.config.BankingProperties;
+import org.example.banking.domain.entities.IdempotencyKeyEntity;
+import org.example.banking.repositories.IdempotencyKeyRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Executes money requests that carry an {@code Idempotency-Key} at most once. The key is inserted
+ * first and the serialized response stored with it, all in the transaction of the balance change, so
+ * either both the change and its response are committed or neither is. A retry with the same key gets
+ * the stored response, byte for byte, from a bounded in-memory cache or from the key table.
+ * <p>
+ * A retry that arrives while the first attempt is still running waits on the key row until that
+ * attempt has finished. Requests that fail with an exception store nothing and may be retried.
+ * With the in-memory strategy the balance change is made by the transfer engine, outside of the
+ * transaction, so a failed commit of the key can leave it applied.
+ */
+@Component
+public class IdempotentRequests {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final RetryTemplate optimisticRetryTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<DatabaseBulkhead> databaseBulkhead;
+    private final Duration timeToLive;
+    private final int cleanupBatchSize;
+    private final Cache<String, StoredResponse> cache;
+
+    public IdempotentRequests(IdempotencyKeyRepository idempotencyKeyRepository,
+                              TransactionTemplate transactionTemplate,
+                              RetryTemplate optimisticRetryTemplate,
+                              ObjectMapper objectMapper,
+                              ObjectProvider<DatabaseBulkhead> databaseBulkhead,
+                              BankingProperties bankingProperties) {
+        BankingProperties.Idempotency config = bankingProperties.getIdempotency();
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.optimisticRetryTemplate = optimisticRetryTemplate;
+        this.objectMapper = objectMapper;
+        this.databaseBulkhead = databaseBulkhead;
+        this.timeToLive = config.getTimeToLive();
+        this.cleanupBatchSize = config.getCleanupBatchSize();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getCacheSize())
+                .expireAfterWrite(timeToLive)
+                .build();
+    }
+
+    /**
+     * Runs {@code action} unless a request with {@code key} has already been answered, and returns
+     * the response to {@code request} either way.
+     *
+     * @param request the operation and its arguments, compared with those the key was first used with
+     * @throws ResponseStatusException with 400 if the key is too long, and with 422 if it was first
+     *                                 used for a different request
+     */
+    public ResponseEntity<byte[]> execute(String key, List<?> request, Supplier<ResponseEntity<?>> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = hash(request);
+
+        StoredResponse stored = cache.getIfPresent(key);
+        if (stored == null) {
+            stored = executeOnce(key, requestHash, action);
+            cache.put(key, stored);
+        }
+        return stored.replay(requestHash);
+    }
+
+    /**
+     * Deletes expired keys, {@code cleanupBatchSize} at a time, each batch in its own transaction.
+     *
+     * @return number of keys deleted
+     */
+    public int deleteExpired() {
+        int deleted = 0;
+        while (true) {
+            Integer batch = transactionTemplate.execute(status -> {
+                List<String> keys = idempotencyKeyRepository.findExpiredKeys(Instant.now(), Limit.of(cleanupBatchSize));
+                idempotencyKeyRepository.deleteAllByIdInBatch(keys);
+                return keys.size();
+            });
+            deleted += batch;
+            if (batch < cleanupBatchSize) {
+                return deleted;
+            }
+        }
+    }
+
+    /**
+     * Takes the bulkhead permit before the transaction, as a waiting caller must not hold a
+     * connection; the account service call inside reuses it.
+     */
+    private StoredResponse executeOnce(String key, String requestHash, Supplier<ResponseEntity<?>> action) {
+        DatabaseBulkhead bulkhead = databaseBulkhead.getIfAvailable();
+        if (bulkhead != null) {
+            bulkhead.acquire();
+        }
+        try {
+            return optimisticRetryTemplate.execute(context ->
+                    transactionTemplate.execute(status -> executeInTransaction(key, requestHash, action)));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent attempt with the same key committed first
+            return transactionTemplate.execute(status -> idempotencyKeyRepository.findById(key))
+                    .map(StoredResponse::of)
+                    .orElseThrow(() -> e);
+        } finally {
+            if (bulkhead != null) {
+                bulkhead.release();
+            }
+        }
+    }
+
+    private StoredResponse executeInTransaction(String key, String requestHash, Supplier<ResponseEntity<?>> action) {
+        Instant now = Instant.now();
+        Optional<IdempotencyKeyEntity> existing = idempotencyKeyRepository.findById(key);
+        if (existing.isPresent()) {
+            if (existing.get().getExpiresAt().isAfter(now)) {
+                return StoredResponse.of(existing.get());
+            }
+            idempotencyKeyRepository.deleteKey(key);
+        }
+        idempotencyKeyRepository.insertKey(key, requestHash, now.plus(timeToLive));
+
+        ResponseEntity<?> response = action.get();
+        byte[] body = response.getBody() == null ? new byte[0] : serialize(response.getBody());
+        String contentType = response.getBody() == null ? null : MediaType.APPLICATION_JSON_VALUE;
+        idempotencyKeyRepository.storeResponse(key, response.getStatusCode().value(), contentType, body);
+        return new StoredResponse(requestHash, response.getStatusCode().value(), contentType, body);
+    }
+
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize response", e);
+        }
+    }
+
+    private String hash(List<?> request) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(serialize(request)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record StoredResponse(String requestHash, int status, String contentType, byte[] body) {
+
+        static StoredResponse of(IdempotencyKeyEntity entity) {
+            return new StoredResponse(entity.getRequestHash(), entity.getStatus(), entity.getContentType(),
+                    entity.getBody());
+        }
+
+        ResponseEntity<byte[]> replay(String requestHash) {
+            if (!this.requestHash.equals(requestHash)) {
+                throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                        HEADER + " was already used for a different request");
+            }
+            HttpHeaders headers = new HttpHeaders();
+            if (contentType != null) {
+                headers.setContentType(MediaType.parseMediaType(contentType));
+            }
+            return new ResponseEntity<>(body, headers, status);
+        }
+    }
+}
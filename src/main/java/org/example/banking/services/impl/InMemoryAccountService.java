@@ -0,0 +1,276 @@
+package org.example.banking.services.impl;
+
+import org.example.banking.domain.dto.AccountDto;
+import org.example.banking.domain.dto.TransferRequestDto;
+import org.example.banking.domain.dto.TransferResultDto;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.domain.entities.TransactionEntity;
+import org.example.banking.exceptions.AccountModifiedException;
+import org.example.banking.exceptions.AccountNotFoundException;
+import org.example.banking.exceptions.InsufficientFundsException;
+import org.example.banking.services.AccountService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Account service of the {@code IN_MEMORY} locking strategy. Deposits, withdrawals, transfers and
+ * balance changes go to the {@link TransferEngine}; everything else, and the account number part of
+ * updates, goes to {@link AccountServiceImpl}. Reads return the in-memory balance of every account
+ * the engine has loaded, since the account rows only catch up when the
+ * {@link TransferEnginePersister} flushes.
+ * <p>
+ * Engine operations are not journaled, so they do not show up in the transaction history.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "banking", name = "locking-strategy", havingValue = "IN_MEMORY")
+public class InMemoryAccountService implements AccountService {
+
+    private final AccountServiceImpl accountService;
+    private final TransferEngine transferEngine;
+
+    public InMemoryAccountService(AccountServiceImpl accountService, TransferEngine transferEngine) {
+        this.accountService = accountService;
+        this.transferEngine = transferEngine;
+    }
+
+    @Override
+    public AccountEntity createAccount(AccountEntity accountEntity) {
+        return accountService.createAccount(accountEntity);
+    }
+
+    @Override
+    public int createAccounts(List<AccountEntity> accountEntities) {
+        return accountService.createAccounts(accountEntities);
+    }
+
+    @Override
+    public List<AccountEntity> findAll() {
+        return accountService.findAll().stream().map(this::withEngineBalance).toList();
+    }
+
+    @Override
+    public Page<AccountEntity> findAll(Pageable pageable) {
+        return accountService.findAll(pageable).map(this::withEngineBalance);
+    }
+
+    @Override
+    public List<AccountEntity> findAllAfter(Long afterId, int limit) {
+        return accountService.findAllAfter(afterId, limit).stream().map(this::withEngineBalance).toList();
+    }
+
+    @Override
+    public void exportAll(Consumer<AccountEntity> consumer) {
+        accountService.exportAll(accountEntity -> consumer.accept(withEngineBalance(accountEntity)));
+    }
+
+    @Override
+    public Optional<AccountEntity> findById(Long id) {
+        return accountService.findById(id).map(this::withEngineBalance);
+    }
+
+    @Override
+    public Optional<AccountDto> findAccountDtoById(Long id) {
+        return accountService.findAccountDtoById(id).map(this::withEngineBalance);
+    }
+
+    @Override
+    public Page<AccountDto> findAllAccountDtos(Pageable pageable) {
+        return accountService.findAllAccountDtos(pageable).map(this::withEngineBalance);
+    }
+
+    @Override
+    public Optional<AccountEntity> findByAccountNumber(String accountNumber) {
+        return accountService.findByAccountNumber(accountNumber).map(this::withEngineBalance);
+    }
+
+    @Override
+    public List<TransactionEntity> findTransactions(Long accountId, Long beforeId, int limit) {
+        return accountService.findTransactions(accountId, beforeId, limit);
+    }
+
+    /**
+     * The revision of the row, followed by the in-memory balance once the engine has loaded the account,
+     * as engine operations do not change the row until the next flush.
+     */
+    @Override
+    public Optional<String> findAccountRevision(Long id) {
+        return accountService.findAccountRevision(id).map(revision -> transferEngine.balanceOf(id)
+                .map(balance -> revision + "." + balance.toPlainString())
+                .orElse(revision));
+    }
+
+    @Override
+    public boolean isExist(Long id) {
+        return accountService.isExist(id);
+    }
+
+    @Override
+    public AccountEntity updateAccount(Long id, AccountEntity accountEntity) {
+        return update(id, accountEntity.getAccountNumber(), accountEntity.getBalance());
+    }
+
+    /**
+     * The revision is checked before the update is handed to the engine, so unlike with the other
+     * strategies a money operation may still be applied in between.
+     */
+    @Override
+    public AccountEntity updateAccount(Long id, AccountEntity accountEntity, Collection<String> expectedRevisions) {
+        checkRevision(id, expectedRevisions);
+        return updateAccount(id, accountEntity);
+    }
+
+    @Override
+    public AccountEntity partialUpdate(Long id, AccountEntity accountEntity) {
+        return update(id, accountEntity.getAccountNumber(), accountEntity.getBalance());
+    }
+
+    @Override
+    public AccountEntity partialUpdate(Long id, AccountEntity accountEntity, Collection<String> expectedRevisions) {
+        checkRevision(id, expectedRevisions);
+        return partialUpdate(id, accountEntity);
+    }
+
+    private void checkRevision(Long id, Collection<String> expectedRevisions) {
+        if (expectedRevisions != null && findAccountRevision(id).filter(expectedRevisions::contains).isEmpty()) {
+            throw new AccountModifiedException("Account was modified");
+        }
+    }
+
+    /**
+     * Stores the account number on the row and hands both values to the engine, which owns the
+     * balance and writes it back with its next flush.
+     */
+    private AccountEntity update(Long id, String accountNumber, BigDecimal balance) {
+        AccountEntity updated = accountService.partialUpdate(id, AccountEntity.builder()
+                .accountNumber(accountNumber)
+                .build());
+        AccountDto accountDto = await(transferEngine.update(id, accountNumber, balance));
+        return updated.toBuilder().balance(accountDto.getBalance()).build();
+    }
+
+    /**
+     * The engine drops the account before its row is deleted and never loads it again, so no command
+     * can reload it in between from a row that lacks the changes not flushed yet.
+     */
+    @Override
+    public void deleteAccount(Long id) {
+        await(transferEngine.delete(id));
+        accountService.deleteAccount(id);
+    }
+
+    @Override
+    public AccountEntity shardAccount(Long id, int shardCount) {
+        return withEngineBalance(accountService.shardAccount(id, shardCount));
+    }
+
+    @Override
+    public AccountDto deposit(Long id, BigDecimal amount) {
+        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Deposit amount must be greater than zero");
+        }
+        return await(transferEngine.deposit(id, amount));
+    }
+
+    @Override
+    public List<AccountDto> depositAll(Long id, List<BigDecimal> amounts) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal amount : amounts) {
+            if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+                throw new IllegalArgumentException("Deposit amount must be greater than zero");
+            }
+            total = total.add(amount);
+        }
+        if (amounts.isEmpty()) {
+            return List.of();
+        }
+
+        AccountDto accountDto = await(transferEngine.deposit(id, total));
+        BigDecimal balance = accountDto.getBalance().subtract(total);
+        List<AccountDto> results = new ArrayList<>(amounts.size());
+        for (BigDecimal amount : amounts) {
+            balance = balance.add(amount);
+            results.add(new AccountDto(accountDto.getId(), accountDto.getAccountNumber(), balance));
+        }
+        return results;
+    }
+
+    @Override
+    public AccountDto withdraw(Long id, BigDecimal amount) {
+        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Withdrawal amount must be greater than zero");
+        }
+        return await(transferEngine.withdraw(id, amount));
+    }
+
+    @Override
+    public AccountDto transfer(Long fromId, Long toId, BigDecimal amount) {
+        AccountServiceImpl.validateTransfer(fromId, toId, amount);
+        return await(transferEngine.transfer(fromId, toId, amount));
+    }
+
+    /**
+     * Submits every valid transfer before waiting for any of them, so the whole batch is in flight
+     * across the partitions at once. Transfers from the same account are still applied in order.
+     */
+    @Override
+    public List<TransferResultDto> transferBatch(List<TransferRequestDto> transfers) {
+        List<CompletableFuture<AccountDto>> submitted = new ArrayList<>(transfers.size());
+        for (TransferRequestDto transfer : transfers) {
+            try {
+                AccountServiceImpl.validateTransfer(transfer);
+                submitted.add(transferEngine.transfer(
+                        transfer.getFromAccountId(), transfer.getToAccountId(), transfer.getAmount()));
+            } catch (IllegalArgumentException e) {
+                submitted.add(CompletableFuture.failedFuture(e));
+            }
+        }
+
+        List<TransferResultDto> results = new ArrayList<>(transfers.size());
+        for (int i = 0; i < transfers.size(); i++) {
+            TransferRequestDto transfer = transfers.get(i);
+            try {
+                await(submitted.get(i));
+                results.add(AccountServiceImpl.transferResult(transfer, TransferResultDto.Status.SUCCEEDED, null));
+            } catch (IllegalArgumentException | AccountNotFoundException | InsufficientFundsException e) {
+                results.add(AccountServiceImpl.transferResult(transfer, TransferResultDto.Status.FAILED,
+                        e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    private AccountEntity withEngineBalance(AccountEntity accountEntity) {
+        return transferEngine.balanceOf(accountEntity.getId())
+                .map(balance -> accountEntity.toBuilder().balance(balance).build())
+                .orElse(accountEntity);
+    }
+
+    private AccountDto withEngineBalance(AccountDto accountDto) {
+        transferEngine.balanceOf(accountDto.getId()).ifPresent(accountDto::setBalance);
+        return accountDto;
+    }
+
+    private static AccountDto await(CompletableFuture<AccountDto> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
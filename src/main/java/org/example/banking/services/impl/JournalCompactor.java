@@ -0,0 +1,65 @@
+package org.example.banking.services.impl;
+
+import org.example.banking.repositories.AccountRepository;
+import org.example.banking.repositories.TransactionRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Folds pending journal entries into the account rows, which act as the balance snapshots.
+ * <p>
+ * Each account is compacted in its own transaction under a write lock on the row. Writers of pending
+ * entries hold at least a shared lock on the same row, so while the compactor holds the lock every
+ * pending entry of the account has committed and any later one written on the same node gets a higher id.
+ */
+@Component
+public class JournalCompactor {
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AccountCache accountCache;
+
+    public JournalCompactor(AccountRepository accountRepository,
+                            TransactionRepository transactionRepository,
+                            TransactionTemplate transactionTemplate,
+                            AccountCache accountCache) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.accountCache = accountCache;
+    }
+
+    /**
+     * @return number of accounts whose snapshot was advanced
+     */
+    public int compact() {
+        List<Long> accountIds = transactionRepository.findAccountIdsWithPendingEntries();
+        int compacted = 0;
+        for (Long accountId : accountIds) {
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> compactAccount(accountId)))) {
+                compacted++;
+            }
+        }
+        return compacted;
+    }
+
+    private boolean compactAccount(Long accountId) {
+        return accountRepository.findByIdForUpdate(accountId).map(accountEntity -> {
+            long position = accountEntity.getJournalPosition();
+            Long lastPendingId = transactionRepository.findLastPendingIdAfter(accountId, position);
+            if (lastPendingId == null) {
+                return false;
+            }
+
+            BigDecimal pendingAmount = transactionRepository.sumPendingAfter(accountId, position);
+            accountCache.invalidateAfterCommit(accountId);
+            accountEntity.setBalance(accountEntity.getBalance().add(pendingAmount));
+            accountEntity.setJournalPosition(lastPendingId);
+            return true;
+        }).orElse(false);
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.banking.services.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers and outcome counters of the money operations, fed by {@link OperationRecorder}: the duration
+ * of each operation, and the parts of it spent in statements that take row locks, reported as lock
+ * wait, and in all other statements.
+ */
+@Component
+@ConditionalOnProperty(prefix = "banking.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OperationMetrics {
+
+    private static final double[] PERCENTILES = {0.5, 0.99, 0.999};
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public OperationMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Records one operation named {@code name} that ended with {@code outcome}.
+     */
+    public void record(String name, String outcome, long elapsedNanos, long databaseNanos, long lockWaitNanos) {
+        Meters operationMeters = meters.computeIfAbsent(name, Meters::new);
+        operationMeters.timer(outcome).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        operationMeters.database.record(databaseNanos, TimeUnit.NANOSECONDS);
+        operationMeters.lockWait.record(lockWaitNanos, TimeUnit.NANOSECONDS);
+        if (outcome.equals("insufficient_funds")) {
+            operationMeters.insufficientFunds.increment();
+        } else if (outcome.equals("not_found")) {
+            operationMeters.notFound.increment();
+        }
+    }
+
+    private final class Meters {
+
+        private final String operation;
+        private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+        private final Timer database;
+        private final Timer lockWait;
+        private final Counter insufficientFunds;
+        private final Counter notFound;
+
+        private Meters(String operation) {
+            this.operation = operation;
+            this.database = Timer.builder("banking.operation.database")
+                    .description("Time spent in statements other than locking reads, per money operation")
+                    .tag("operation", operation)
+                    .publishPercentiles(PERCENTILES)
+                    .register(meterRegistry);
+            this.lockWait = Timer.builder("banking.operation.lock.wait")
+                    .description("Time spent in statements that take row locks, per money operation")
+                    .tag("operation", operation)
+                    .publishPercentiles(PERCENTILES)
+                    .register(meterRegistry);
+            this.insufficientFunds = Counter.builder("banking.operation.insufficient.funds")
+                    .description("Money operations rejected for insufficient funds")
+                    .tag("operation", operation)
+                    .register(meterRegistry);
+            this.notFound = Counter.builder("banking.operation.not.found")
+                    .description("Money operations on an account that does not exist")
+                    .tag("operation", operation)
+                    .register(meterRegistry);
+        }
+
+        private Timer timer(String outcome) {
+            return timers.computeIfAbsent(outcome, key -> Timer.builder("banking.operation")
+                    .description("Duration of money operations")
+                    .tag("operation", operation)
+                    .tag("outcome", key)
+                    .publishPercentiles(PERCENTILES)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+}
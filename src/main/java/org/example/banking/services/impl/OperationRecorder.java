@@ -0,0 +1,169 @@
+package org.example.banking.services.impl;
+
+import org.example.banking.config.BankingProperties;
+import org.example.banking.exceptions.AccountNotFoundException;
+import org.example.banking.exceptions.InsufficientFundsException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+/**
+ * Follows each money operation of the account service while it runs. The JDBC statements the thread
+ * executes meanwhile report their duration through {@link #recordStatement}, so each operation is
+ * split into the time spent in statements that take row locks ({@code SELECT ... FOR UPDATE} or
+ * {@code FOR SHARE}), reported as lock wait, and the time spent in all other statements. A lock taken
+ * implicitly by an {@code UPDATE}, as in the atomic strategy, counts as database time.
+ * <p>
+ * The result goes to {@link OperationMetrics} when {@code banking.metrics.enabled} is set, and to the
+ * flight recorder when {@code banking.flight-recorder.enabled} is: each deposit, withdrawal and
+ * transfer is committed as an event, and any operation slower than the {@link SlowTransactionEvent}
+ * threshold as a slow transaction. Unless a recording has these events enabled, they cost a check
+ * each. With both switches off, nothing is recorded.
+ */
+@Component
+@ConditionalOnExpression("${banking.metrics.enabled:true} or ${banking.flight-recorder.enabled:true}")
+public class OperationRecorder {
+
+    private static final ThreadLocal<Recording> CURRENT = new ThreadLocal<>();
+
+    private final OperationMetrics operationMetrics;
+    private final boolean flightRecorder;
+
+    public OperationRecorder(ObjectProvider<OperationMetrics> operationMetrics, BankingProperties bankingProperties) {
+        this.operationMetrics = operationMetrics.getIfAvailable();
+        this.flightRecorder = bankingProperties.getFlightRecorder().isEnabled();
+    }
+
+    /**
+     * Whether the current thread is inside an operation, so its statements are worth timing.
+     */
+    public static boolean isRecording() {
+        return CURRENT.get() != null;
+    }
+
+    public static void recordStatement(String sql, long nanos, boolean locking) {
+        Recording recording = CURRENT.get();
+        if (recording == null) {
+            return;
+        }
+        if (locking) {
+            recording.lockWaitNanos += nanos;
+        } else {
+            recording.databaseNanos += nanos;
+        }
+        if (nanos > recording.slowestStatementNanos) {
+            recording.slowestStatementNanos = nanos;
+            recording.slowestStatement = sql;
+        }
+    }
+
+    public static void recordRetries(int retries) {
+        Recording recording = CURRENT.get();
+        if (recording != null) {
+            recording.retries += retries;
+        }
+    }
+
+    /**
+     * Runs {@code operation}, called with {@code args}, and records it under {@code name}. An operation
+     * started from inside another one is recorded as part of the outer one only.
+     */
+    public <T> T record(String name, Object[] args, Operation<T> operation) throws Throwable {
+        if (CURRENT.get() != null) {
+            return operation.run();
+        }
+
+        Recording recording = new Recording();
+        CURRENT.set(recording);
+        AccountOperationEvent event = flightRecorder ? newEvent(name) : null;
+        if (event != null) {
+            event.begin();
+        }
+        SlowTransactionEvent slowTransactionEvent = flightRecorder ? new SlowTransactionEvent() : null;
+        if (slowTransactionEvent != null) {
+            slowTransactionEvent.begin();
+        }
+        long started = System.nanoTime();
+        String outcome = "success";
+        try {
+            return operation.run();
+        } catch (Throwable e) {
+            outcome = outcome(e);
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - started;
+            CURRENT.remove();
+            if (operationMetrics != null) {
+                operationMetrics.record(name, outcome, elapsed, recording.databaseNanos, recording.lockWaitNanos);
+            }
+            if (event != null) {
+                commit(event, args, outcome, recording);
+            }
+            if (slowTransactionEvent != null) {
+                commit(slowTransactionEvent, name, outcome, recording);
+            }
+        }
+    }
+
+    /**
+     * The event of the operation named {@code name}, or {@code null} if it has none. This lives outside
+     * the event classes: on JDK 17, an event class that loads its own subclasses while it is being
+     * instrumented fails with a duplicate class definition once a recording is running.
+     */
+    private static AccountOperationEvent newEvent(String name) {
+        return switch (name) {
+            case "deposit" -> new AccountOperationEvent.DepositEvent();
+            case "withdraw" -> new AccountOperationEvent.WithdrawEvent();
+            case "transfer" -> new AccountOperationEvent.TransferEvent();
+            default -> null;
+        };
+    }
+
+    private static void commit(AccountOperationEvent event, Object[] args, String outcome, Recording recording) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.describe(args);
+            event.outcome = outcome;
+            event.databaseTime = recording.databaseNanos;
+            event.lockWaitTime = recording.lockWaitNanos;
+            event.retries = recording.retries;
+            event.commit();
+        }
+    }
+
+    private static void commit(SlowTransactionEvent event, String name, String outcome, Recording recording) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = name;
+            event.outcome = outcome;
+            event.statement = recording.slowestStatement;
+            event.statementTime = recording.slowestStatementNanos;
+            event.databaseTime = recording.databaseNanos;
+            event.lockWaitTime = recording.lockWaitNanos;
+            event.commit();
+        }
+    }
+
+    private static String outcome(Throwable e) {
+        if (e instanceof InsufficientFundsException) {
+            return "insufficient_funds";
+        }
+        if (e instanceof AccountNotFoundException) {
+            return "not_found";
+        }
+        return "error";
+    }
+
+    @FunctionalInterface
+    public interface Operation<T> {
+        T run() throws Throwable;
+    }
+
+    private static final class Recording {
+        private long databaseNanos;
+        private long lockWaitNanos;
+        private long slowestStatementNanos;
+        private String slowestStatement;
+        private int retries;
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.banking.services.impl;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event of a money operation that took longer than the threshold, naming the statement
+ * it spent the most time in. The threshold can be changed per recording, like that of any other event,
+ * through the {@code org.example.banking.SlowTransaction} entry of a {@code .jfc} settings file.
+ */
+@Name("org.example.banking.SlowTransaction")
+@Label("Slow Transaction")
+@Category({"Banking", "Account Operations"})
+@Threshold("100 ms")
+@StackTrace(false)
+class SlowTransactionEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Slowest Statement")
+    @Description("SQL of the statement the operation spent the most time in")
+    String statement;
+
+    @Label("Slowest Statement Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long statementTime;
+
+    @Label("Database Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long databaseTime;
+
+    @Label("Lock Wait Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long lockWaitTime;
+}
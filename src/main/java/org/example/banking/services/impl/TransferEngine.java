@@ -0,0 +1,469 @@
+package org.example.banking.services.impl;
+
+import org.example.banking.domain.Money;
+import org.example.banking.domain.dto.AccountDto;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.exceptions.AccountNotFoundException;
+import org.example.banking.exceptions.InsufficientFundsException;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Keeps balances in memory, partitioned by account id, with a single thread per partition that
+ * applies every change to the accounts it owns. Callers hand commands to a partition through its
+ * {@link CommandRingBuffer} and get a future that completes once the change has been applied.
+ * <p>
+ * A transfer between accounts of the same partition is applied in one step. Across partitions the
+ * sender's partition first reserves the amount, taking it off the sender's balance, and passes the
+ * credit to the recipient's partition; if the recipient turns out not to exist, the reservation is
+ * refunded to the sender.
+ * <p>
+ * Accounts are loaded on first use. Every applied change is appended to one queue shared by all
+ * partitions, in the order the changes were applied. A transfer is a single entry carrying both
+ * sides, so any prefix of the queue drained by {@link #drainChanges} is a consistent state to persist.
+ * After a restart, balances are simply loaded again from the database.
+ * <p>
+ * Balances and amounts are kept as {@link Money} minor units, so applying a change allocates no
+ * numbers; {@link BigDecimal} is only used at the public methods.
+ * <p>
+ * With a {@link WriteAheadLog}, every change is appended to the log before it is applied, and only
+ * reaches the queue, and the caller its result, once the log has forced it to disk. Changes still
+ * reach the queue in the order they were applied, since the log reports them in LSN order. Once
+ * forcing fails, the balances include changes that are not durable, so the engine stops: further
+ * commands and balance reads fail.
+ */
+public class TransferEngine implements AutoCloseable {
+
+    private static final int DRAIN_BATCH = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Partition[] partitions;
+    private final Function<Long, Optional<AccountEntity>> loader;
+    private final WriteAheadLog writeAheadLog;
+    private final ConcurrentLinkedQueue<BalanceChange> changes = new ConcurrentLinkedQueue<>();
+    private volatile long drainedLsn;
+    private volatile boolean closed;
+    private volatile RuntimeException failure;
+
+    /**
+     * @param loader returns the account with its current balance, or empty when it does not exist
+     */
+    public TransferEngine(int partitionCount, int ringSize, Function<Long, Optional<AccountEntity>> loader) {
+        this(partitionCount, ringSize, loader, null);
+    }
+
+    /**
+     * @param writeAheadLog log that changes must be durable in before they are acknowledged, or
+     *                      {@code null} to acknowledge them as soon as they are applied
+     */
+    public TransferEngine(int partitionCount, int ringSize, Function<Long, Optional<AccountEntity>> loader,
+                          WriteAheadLog writeAheadLog) {
+        this.loader = loader;
+        this.writeAheadLog = writeAheadLog;
+        this.partitions = new Partition[Math.max(1, partitionCount)];
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = new Partition(i, ringSize);
+        }
+        for (Partition partition : partitions) {
+            partition.thread.start();
+        }
+    }
+
+    public CompletableFuture<AccountDto> deposit(Long id, BigDecimal amount) {
+        return partitionOf(id).submit(CommandType.CREDIT, id, null, Money.toMinorUnits(amount), null);
+    }
+
+    public CompletableFuture<AccountDto> withdraw(Long id, BigDecimal amount) {
+        return partitionOf(id).submit(CommandType.DEBIT, id, null, Money.toMinorUnits(amount), null);
+    }
+
+    /**
+     * @return future of the sender's account after the transfer
+     */
+    public CompletableFuture<AccountDto> transfer(Long fromId, Long toId, BigDecimal amount) {
+        CommandType type = partitionOf(fromId) == partitionOf(toId) ? CommandType.TRANSFER : CommandType.RESERVE;
+        return partitionOf(fromId).submit(type, fromId, toId, Money.toMinorUnits(amount), null);
+    }
+
+    /**
+     * Replaces the account number and/or the balance; {@code null} leaves the value unchanged.
+     */
+    public CompletableFuture<AccountDto> update(Long id, String accountNumber, BigDecimal balance) {
+        if (balance == null) {
+            return partitionOf(id).submit(CommandType.RENAME, id, null, 0, accountNumber);
+        }
+        return partitionOf(id).submit(CommandType.UPDATE, id, null, Money.toMinorUnits(balance), accountNumber);
+    }
+
+    /**
+     * Forgets the account for good: it is never loaded again, and later commands for it fail as for
+     * an account that does not exist. Account ids are not reused.
+     */
+    public CompletableFuture<AccountDto> delete(Long id) {
+        return partitionOf(id).submit(CommandType.DELETE, id, null, 0, null);
+    }
+
+    /**
+     * @return the in-memory balance, or empty when the account has not been loaded
+     */
+    public Optional<BigDecimal> balanceOf(Long id) {
+        checkNotFailed();
+        Account account = partitionOf(id).accounts.get(id);
+        return account == null ? Optional.empty() : Optional.of(Money.toBigDecimal(account.balance));
+    }
+
+    /**
+     * Moves up to {@code max} applied changes, oldest first, into {@code deltas} as per-account
+     * amounts, in minor units, to add to the persisted balances.
+     *
+     * @return number of changes drained
+     */
+    public int drainChanges(Map<Long, Long> deltas, int max) {
+        int drained = 0;
+        BalanceChange change;
+        while (drained < max && (change = changes.poll()) != null) {
+            drainedLsn = change.lsn();
+            deltas.merge(change.accountId(), change.amount(), Money::add);
+            if (change.counterpartyAccountId() != null) {
+                deltas.merge(change.counterpartyAccountId(), -change.amount(), Money::add);
+            }
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * @return log sequence number of the last change drained, or {@code 0} without a write-ahead log
+     */
+    public long getDrainedLsn() {
+        return drainedLsn;
+    }
+
+    /**
+     * Stops accepting commands, lets every partition finish the ones already submitted and waits for
+     * the partition threads to exit. Applied changes stay available to {@link #drainChanges}.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Partition partition : partitions) {
+            LockSupport.unpark(partition.thread);
+        }
+        for (Partition partition : partitions) {
+            try {
+                partition.thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void checkNotFailed() {
+        if (failure != null) {
+            throw new IllegalStateException("Transfer engine stopped after a write-ahead log failure", failure);
+        }
+    }
+
+    private Partition partitionOf(Long id) {
+        return partitions[(int) Math.floorMod(id, (long) partitions.length)];
+    }
+
+    private enum CommandType {
+        CREDIT,
+        DEBIT,
+        TRANSFER,
+        RESERVE,
+        CREDIT_RESERVED,
+        REFUND,
+        UPDATE,
+        RENAME,
+        DELETE
+    }
+
+    /**
+     * A ring entry, reused for every command that passes through its slot, or a message between
+     * partitions.
+     */
+    private static final class Command {
+
+        private CommandType type;
+        private Long accountId;
+        private Long counterpartyAccountId;
+        private long amount;
+        private String accountNumber;
+        private AccountDto senderAfter;
+        private RuntimeException error;
+        private CompletableFuture<AccountDto> result;
+
+        private Command set(CommandType type, Long accountId, Long counterpartyAccountId, long amount,
+                            String accountNumber, AccountDto senderAfter, CompletableFuture<AccountDto> result) {
+            this.type = type;
+            this.accountId = accountId;
+            this.counterpartyAccountId = counterpartyAccountId;
+            this.amount = amount;
+            this.accountNumber = accountNumber;
+            this.senderAfter = senderAfter;
+            this.error = null;
+            this.result = result;
+            return this;
+        }
+    }
+
+    /**
+     * In-memory state of one account. Only written by the owning partition thread.
+     */
+    private static final class Account {
+
+        private final Long id;
+        private volatile String accountNumber;
+        private volatile long balance;
+
+        private Account(Long id, String accountNumber, long balance) {
+            this.id = id;
+            this.accountNumber = accountNumber;
+            this.balance = balance;
+        }
+
+        private AccountDto toDto() {
+            return toDto(accountNumber, balance);
+        }
+
+        private AccountDto toDto(String accountNumber, long balance) {
+            return new AccountDto(id, accountNumber, Money.toBigDecimal(balance));
+        }
+    }
+
+    /**
+     * {@code accountId} gains {@code amount} and, for a transfer, {@code counterpartyAccountId} loses it.
+     */
+    private record BalanceChange(long lsn, Long accountId, long amount, Long counterpartyAccountId) {
+    }
+
+    private final class Partition implements Runnable {
+
+        private final CommandRingBuffer<Command> ring;
+        private final ConcurrentLinkedQueue<Command> inbox = new ConcurrentLinkedQueue<>();
+        private final Map<Long, Account> accounts = new ConcurrentHashMap<>();
+        private final Set<Long> deleted = new HashSet<>();
+        private final Thread thread;
+        private volatile boolean sleeping;
+
+        private Partition(int index, int ringSize) {
+            this.ring = new CommandRingBuffer<>(ringSize, Command::new);
+            this.thread = new Thread(this, "transfer-engine-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        private CompletableFuture<AccountDto> submit(CommandType type, Long accountId, Long counterpartyAccountId,
+                                                     long amount, String accountNumber) {
+            if (closed) {
+                throw new IllegalStateException("Transfer engine is closed");
+            }
+            checkNotFailed();
+            CompletableFuture<AccountDto> result = new CompletableFuture<>();
+            long sequence = ring.claim();
+            ring.get(sequence).set(type, accountId, counterpartyAccountId, amount, accountNumber, null, result);
+            ring.publish(sequence);
+            wakeUp();
+            return result;
+        }
+
+        /**
+         * Passes a command from another partition; never blocks, so partitions cannot wait on each other.
+         */
+        private void post(Command command) {
+            inbox.add(command);
+            wakeUp();
+        }
+
+        private void wakeUp() {
+            if (sleeping) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (!closed || hasWork()) {
+                int handled = 0;
+                Command message;
+                while (handled < DRAIN_BATCH && (message = inbox.poll()) != null) {
+                    handle(message);
+                    handled++;
+                }
+                handled += ring.drain(this::handle, DRAIN_BATCH);
+                if (handled == 0) {
+                    sleeping = true;
+                    if (!hasWork() && !closed) {
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    }
+                    sleeping = false;
+                }
+            }
+        }
+
+        private boolean hasWork() {
+            return !inbox.isEmpty() || ring.hasPublished();
+        }
+
+        private void handle(Command command) {
+            try {
+                checkNotFailed();
+                apply(command);
+            } catch (RuntimeException e) {
+                command.result.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * Every change is committed before it is applied, so a failed append leaves the balances untouched.
+         */
+        private void apply(Command command) {
+            switch (command.type) {
+                case CREDIT -> {
+                    Account account = load(command.accountId, "Account not found");
+                    long balance = Money.add(account.balance, command.amount);
+                    commit(account.id, command.amount, null, command.result,
+                            account.toDto(account.accountNumber, balance));
+                    account.balance = balance;
+                }
+                case DEBIT -> {
+                    Account account = load(command.accountId, "Account not found with ID: " + command.accountId);
+                    if (account.balance < command.amount) {
+                        throw new InsufficientFundsException("Insufficient funds in account ID: " + account.id);
+                    }
+                    long balance = Money.subtract(account.balance, command.amount);
+                    commit(account.id, -command.amount, null, command.result,
+                            account.toDto(account.accountNumber, balance));
+                    account.balance = balance;
+                }
+                case TRANSFER -> {
+                    Account from = load(command.accountId, "Account not found");
+                    Account to = load(command.counterpartyAccountId, "Account not found");
+                    checkSenderBalance(from, command.amount);
+                    Money.add(to.balance, command.amount); // fails before anything has changed on overflow
+                    long senderBalance = from == to ? from.balance : Money.subtract(from.balance, command.amount);
+                    commit(to.id, command.amount, from.id, command.result,
+                            from.toDto(from.accountNumber, senderBalance));
+                    from.balance = Money.subtract(from.balance, command.amount);
+                    to.balance = Money.add(to.balance, command.amount);
+                }
+                case RESERVE -> {
+                    Account from = load(command.accountId, "Account not found");
+                    checkSenderBalance(from, command.amount);
+                    from.balance = Money.subtract(from.balance, command.amount);
+                    partitionOf(command.counterpartyAccountId).post(new Command().set(CommandType.CREDIT_RESERVED,
+                            command.counterpartyAccountId, from.id, command.amount, null, from.toDto(),
+                            command.result));
+                }
+                case CREDIT_RESERVED -> {
+                    try {
+                        Account to = load(command.accountId, "Account not found");
+                        long balance = Money.add(to.balance, command.amount);
+                        commit(to.id, command.amount, command.counterpartyAccountId, command.result,
+                                command.senderAfter);
+                        to.balance = balance;
+                    } catch (RuntimeException e) {
+                        Command refund = new Command().set(CommandType.REFUND, command.counterpartyAccountId,
+                                command.accountId, command.amount, null, null, command.result);
+                        refund.error = e;
+                        partitionOf(command.counterpartyAccountId).post(refund);
+                    }
+                }
+                case REFUND -> {
+                    Account from = accounts.get(command.accountId);
+                    if (from != null) {
+                        from.balance = Money.add(from.balance, command.amount);
+                    }
+                    command.result.completeExceptionally(command.error);
+                }
+                case UPDATE -> {
+                    Account account = load(command.accountId, "Account not found");
+                    String accountNumber = command.accountNumber == null ? account.accountNumber
+                            : command.accountNumber;
+                    long delta = Money.subtract(command.amount, account.balance);
+                    commit(account.id, delta, null, command.result, account.toDto(accountNumber, command.amount));
+                    account.accountNumber = accountNumber;
+                    account.balance = command.amount;
+                }
+                case RENAME -> {
+                    Account account = load(command.accountId, "Account not found");
+                    if (command.accountNumber != null) {
+                        account.accountNumber = command.accountNumber;
+                    }
+                    command.result.complete(account.toDto());
+                }
+                case DELETE -> {
+                    accounts.remove(command.accountId);
+                    deleted.add(command.accountId);
+                    command.result.complete(null);
+                }
+            }
+        }
+
+        /**
+         * Queues an applied change for persistence and completes the caller's future, at once or, with
+         * a write-ahead log, once the change is durable in it.
+         */
+        private void commit(Long accountId, long amount, Long counterpartyAccountId,
+                            CompletableFuture<AccountDto> result, AccountDto accountDto) {
+            if (writeAheadLog == null) {
+                changes.add(new BalanceChange(0, accountId, amount, counterpartyAccountId));
+                result.complete(accountDto);
+                return;
+            }
+            writeAheadLog.append(accountId, counterpartyAccountId, amount, lsn -> {
+                changes.add(new BalanceChange(lsn, accountId, amount, counterpartyAccountId));
+                result.complete(accountDto);
+            }, e -> {
+                failure = e;
+                result.completeExceptionally(e);
+            });
+        }
+
+        private void checkSenderBalance(Account from, long amount) {
+            if (from.balance < amount) {
+                throw new InsufficientFundsException("Insufficient balance in the sender's account");
+            }
+        }
+
+        private Account load(Long id, String notFoundMessage) {
+            Account account = accounts.get(id);
+            if (account == null) {
+                account = loadIfExists(id);
+            }
+            if (account == null) {
+                throw new AccountNotFoundException(notFoundMessage);
+            }
+            return account;
+        }
+
+        private Account loadIfExists(Long id) {
+            if (deleted.contains(id)) {
+                return null;
+            }
+            return loader.apply(id)
+                    .map(accountEntity -> {
+                        Account account = new Account(id, accountEntity.getAccountNumber(),
+                                Money.toMinorUnits(accountEntity.getBalance()));
+                        accounts.put(id, account);
+                        return account;
+                    })
+                    .orElse(null);
+        }
+    }
+}
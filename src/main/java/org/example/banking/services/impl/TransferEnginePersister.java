@@ -0,0 +1,131 @@
+package org.example.banking.services.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.banking.config.BankingProperties;
+import org.example.banking.domain.Money;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.domain.entities.WalCheckpointEntity;
+import org.example.banking.repositories.AccountRepository;
+import org.example.banking.repositories.WalCheckpointRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes the changes applied by the {@link TransferEngine} back to the account rows. Each flush
+ * takes the oldest changes, up to {@code banking.engine.flush-batch-size}, adds them up per account
+ * and applies the sums in one transaction, as batched updates. Changes of a failed flush are kept
+ * and retried with the next one, so the rows always reflect a prefix of the applied changes.
+ * <p>
+ * With the write-ahead log enabled, the same transaction moves the {@link WalCheckpointEntity} to the
+ * last record applied, and log segments before it are deleted afterwards. On startup, the records
+ * after the checkpoint, which were acknowledged but not yet applied, are replayed into the rows
+ * before the engine loads any account.
+ */
+@Component
+@ConditionalOnProperty(prefix = "banking", name = "locking-strategy", havingValue = "IN_MEMORY")
+public class TransferEnginePersister {
+
+    private final TransferEngine transferEngine;
+    private final WriteAheadLog writeAheadLog;
+    private final AccountRepository accountRepository;
+    private final WalCheckpointRepository walCheckpointRepository;
+    private final AccountCache accountCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Map<Long, Long> unflushed = new HashMap<>();
+    private long unflushedLsn;
+    private long appliedLsn;
+
+    public TransferEnginePersister(TransferEngine transferEngine,
+                                   ObjectProvider<WriteAheadLog> writeAheadLog,
+                                   AccountRepository accountRepository,
+                                   WalCheckpointRepository walCheckpointRepository,
+                                   AccountCache accountCache,
+                                   TransactionTemplate transactionTemplate,
+                                   BankingProperties bankingProperties) {
+        this.transferEngine = transferEngine;
+        this.writeAheadLog = writeAheadLog.getIfAvailable();
+        this.accountRepository = accountRepository;
+        this.walCheckpointRepository = walCheckpointRepository;
+        this.accountCache = accountCache;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = Math.max(1, bankingProperties.getEngine().getFlushBatchSize());
+    }
+
+    /**
+     * Applies the write-ahead log records after the checkpoint and opens the log for appends.
+     */
+    @PostConstruct
+    public synchronized void recover() {
+        if (writeAheadLog == null) {
+            return;
+        }
+        appliedLsn = walCheckpointRepository.findById(WalCheckpointEntity.ID)
+                .map(WalCheckpointEntity::getAppliedLsn)
+                .orElse(0L);
+        unflushedLsn = writeAheadLog.recover(appliedLsn, entry -> {
+            unflushed.merge(entry.accountId(), entry.amount(), Money::add);
+            if (entry.counterpartyAccountId() != null) {
+                unflushed.merge(entry.counterpartyAccountId(), -entry.amount(), Money::add);
+            }
+        });
+        write();
+    }
+
+    /**
+     * @return number of changes taken from the engine
+     */
+    public synchronized int flush() {
+        int drained = transferEngine.drainChanges(unflushed, batchSize);
+        if (drained > 0) {
+            unflushedLsn = transferEngine.getDrainedLsn();
+        }
+        write();
+        return drained;
+    }
+
+    /**
+     * Lets the engine finish the submitted commands and the log force them, then writes everything
+     * the engine has applied.
+     */
+    @PreDestroy
+    public void shutdown() {
+        transferEngine.close();
+        if (writeAheadLog != null) {
+            writeAheadLog.close();
+        }
+        while (flush() > 0) {
+            // keep flushing until the engine has no changes left
+        }
+    }
+
+    private void write() {
+        unflushed.values().removeIf(delta -> delta == 0);
+        boolean checkpoint = writeAheadLog != null && unflushedLsn > appliedLsn;
+        if (unflushed.isEmpty() && !checkpoint) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for (AccountEntity accountEntity : accountRepository.findAllById(unflushed.keySet())) {
+                accountCache.invalidateAfterCommit(accountEntity.getId());
+                accountEntity.setBalance(accountEntity.getBalance()
+                        .add(Money.toBigDecimal(unflushed.get(accountEntity.getId()))));
+            }
+            if (checkpoint) {
+                walCheckpointRepository.save(new WalCheckpointEntity(WalCheckpointEntity.ID, unflushedLsn));
+            }
+        });
+        unflushed.clear();
+        if (checkpoint) {
+            appliedLsn = unflushedLsn;
+            writeAheadLog.truncate(appliedLsn);
+        }
+    }
+}
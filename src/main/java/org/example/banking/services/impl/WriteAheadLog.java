@@ -0,0 +1,376 @@
+package org.example.banking.services.impl;
+
+import org.example.banking.domain.Money;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Local write-ahead log of balance changes, kept in memory-mapped segment files of a fixed,
+ * pre-allocated size named after the sequence number (LSN) of their first record.
+ * <p>
+ * Records have a fixed size of {@value #RECORD_SIZE} bytes: LSN, account id, counterparty account id
+ * ({@code 0} for none), amount in {@link Money} minor units and a CRC32C of everything before it.
+ * Appending only copies the record into the mapped segment; a background thread forces the written
+ * range to disk once {@code groupCommitRecords} records are waiting or the oldest of them has waited
+ * {@code groupCommitInterval}, and then reports every forced record as durable, in LSN order. A full
+ * segment is forced and a new one started.
+ * <p>
+ * On startup {@link #recover} replays the intact records after the last applied LSN and opens a fresh
+ * segment; a torn record at the end of the last segment and everything after it are ignored, and a
+ * tail segment without any intact record is replaced. Segments whose records have all been applied are
+ * deleted by {@link #truncate}.
+ */
+public class WriteAheadLog implements AutoCloseable {
+
+    static final int RECORD_SIZE = 36;
+
+    private static final int CHECKSUM_OFFSET = RECORD_SIZE - Integer.BYTES;
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final int groupCommitRecords;
+    private final long groupCommitIntervalNanos;
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+    private final ArrayDeque<Pending> unforced = new ArrayDeque<>();
+    private final List<Segment> rolledOver = new ArrayList<>();
+    private final ByteBuffer scratch = ByteBuffer.allocate(RECORD_SIZE);
+    private final CRC32C checksum = new CRC32C();
+    private final Thread flusher;
+    private Segment current;
+    private long nextLsn;
+    private boolean closed;
+    private RuntimeException failure;
+
+    public WriteAheadLog(Path directory, long segmentSize, int groupCommitRecords, long groupCommitIntervalNanos) {
+        this.directory = directory;
+        this.recordsPerSegment = (int) Math.min(Integer.MAX_VALUE / RECORD_SIZE, Math.max(1, segmentSize / RECORD_SIZE));
+        this.groupCommitRecords = Math.max(1, groupCommitRecords);
+        this.groupCommitIntervalNanos = Math.max(0, groupCommitIntervalNanos);
+        this.flusher = new Thread(this::forceLoop, "write-ahead-log-flusher");
+        this.flusher.setDaemon(true);
+
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(WriteAheadLog::isSegment)
+                        .forEach(file -> segments.put(firstLsnOf(file), file));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open write-ahead log in " + directory, e);
+        }
+    }
+
+    /**
+     * Hands every intact record with an LSN greater than {@code appliedLsn} to {@code consumer}, in
+     * order, then starts a new segment after the last LSN seen and accepts appends.
+     *
+     * @return the LSN of the last record replayed, or {@code appliedLsn} when there was none
+     */
+    public synchronized long recover(long appliedLsn, Consumer<Entry> consumer) {
+        if (current != null) {
+            throw new IllegalStateException("Write-ahead log has already been recovered");
+        }
+        long lastLsn = appliedLsn;
+        for (Map.Entry<Long, Path> segment : segments.entrySet()) {
+            lastLsn = Math.max(lastLsn, replay(segment.getValue(), segment.getKey(), appliedLsn, consumer));
+        }
+        nextLsn = lastLsn + 1;
+        deleteSegmentsFrom(nextLsn);
+        current = Segment.create(directory, nextLsn, recordsPerSegment);
+        segments.put(nextLsn, current.file);
+        flusher.start();
+        return lastLsn;
+    }
+
+    /**
+     * Writes a record and calls {@code onDurable} with its LSN once it has been forced to disk, or
+     * {@code onFailure} if forcing fails. Callbacks run on the flusher thread in LSN order.
+     */
+    public synchronized void append(Long accountId, Long counterpartyAccountId, long amount,
+                                    LongConsumer onDurable, Consumer<RuntimeException> onFailure) {
+        if (failure != null) {
+            throw failure;
+        }
+        if (closed || current == null) {
+            throw new IllegalStateException("Write-ahead log is not open");
+        }
+        if (current.records == recordsPerSegment) {
+            rollOver();
+        }
+
+        long lsn = nextLsn++;
+        encode(lsn, accountId, counterpartyAccountId, amount);
+        current.buffer.put(current.records * RECORD_SIZE, scratch, 0, RECORD_SIZE);
+        current.records++;
+
+        unforced.add(new Pending(lsn, System.nanoTime(), onDurable, onFailure));
+        if (unforced.size() == 1 || unforced.size() >= groupCommitRecords) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * Deletes the segments whose records all have an LSN up to {@code appliedLsn}.
+     */
+    public void truncate(long appliedLsn) {
+        List<Path> obsolete = new ArrayList<>();
+        synchronized (this) {
+            Long next;
+            while (!segments.isEmpty() && (next = segments.higherKey(segments.firstKey())) != null
+                    && next <= appliedLsn + 1) {
+                obsolete.add(segments.pollFirstEntry().getValue());
+            }
+        }
+        for (Path file : obsolete) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot delete write-ahead log segment " + file, e);
+            }
+        }
+    }
+
+    /**
+     * Stops accepting appends and waits until everything written has been forced and reported.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+        if (flusher.isAlive()) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    /**
+     * Deletes the tail segments starting at or after {@code firstLsn}. Their first record is missing or
+     * torn, so they hold nothing that was replayed, and the new segment takes the name of the first.
+     */
+    private void deleteSegmentsFrom(long firstLsn) {
+        Map<Long, Path> tail = segments.tailMap(firstLsn, true);
+        for (Path file : tail.values()) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot delete write-ahead log segment " + file, e);
+            }
+        }
+        tail.clear();
+    }
+
+    private void rollOver() {
+        rolledOver.add(current);
+        current = Segment.create(directory, nextLsn, recordsPerSegment);
+        segments.put(nextLsn, current.file);
+    }
+
+    private void forceLoop() {
+        while (true) {
+            List<Pending> batch;
+            List<Segment> toForce = new ArrayList<>();
+            Segment active;
+            synchronized (this) {
+                try {
+                    awaitGroup();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (unforced.isEmpty()) {
+                    return;
+                }
+                batch = new ArrayList<>(unforced);
+                unforced.clear();
+                toForce.addAll(rolledOver);
+                rolledOver.clear();
+                active = current;
+                toForce.add(active);
+                toForce.forEach(Segment::markWritten);
+            }
+
+            try {
+                toForce.forEach(Segment::force);
+                toForce.stream().filter(segment -> segment != active).forEach(Segment::close);
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    failure = e;
+                }
+                batch.forEach(pending -> pending.onFailure.accept(e));
+                continue;
+            }
+            batch.forEach(pending -> pending.onDurable.accept(pending.lsn));
+        }
+    }
+
+    /**
+     * Waits, holding the monitor, for a record to arrive and then for the group to fill up or the
+     * oldest record to reach the group commit interval. Returns at once when closing.
+     */
+    private void awaitGroup() throws InterruptedException {
+        while (unforced.isEmpty() && !closed) {
+            wait();
+        }
+        while (!unforced.isEmpty() && !closed && unforced.size() < groupCommitRecords) {
+            long remaining = unforced.peek().appendedAt + groupCommitIntervalNanos - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+    }
+
+    private void encode(long lsn, Long accountId, Long counterpartyAccountId, long amount) {
+        scratch.clear();
+        scratch.putLong(lsn)
+                .putLong(accountId)
+                .putLong(counterpartyAccountId == null ? 0 : counterpartyAccountId)
+                .putLong(amount);
+        checksum.reset();
+        checksum.update(scratch.array(), 0, CHECKSUM_OFFSET);
+        scratch.putInt(CHECKSUM_OFFSET, (int) checksum.getValue());
+    }
+
+    private long replay(Path file, long firstLsn, long appliedLsn, Consumer<Entry> consumer) {
+        long lastLsn = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            byte[] record = new byte[RECORD_SIZE];
+            long expectedLsn = firstLsn;
+            for (int offset = 0; offset + RECORD_SIZE <= buffer.limit(); offset += RECORD_SIZE) {
+                buffer.get(offset, record);
+                Entry entry = decode(record, expectedLsn);
+                if (entry == null) {
+                    break;
+                }
+                if (entry.lsn() > appliedLsn) {
+                    consumer.accept(entry);
+                }
+                lastLsn = entry.lsn();
+                expectedLsn++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read write-ahead log segment " + file, e);
+        }
+        return lastLsn;
+    }
+
+    /**
+     * @return the record, or {@code null} when the slot is empty, torn or out of sequence
+     */
+    private Entry decode(byte[] record, long expectedLsn) {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        checksum.reset();
+        checksum.update(record, 0, CHECKSUM_OFFSET);
+        if (buffer.getLong(0) != expectedLsn || buffer.getInt(CHECKSUM_OFFSET) != (int) checksum.getValue()) {
+            return null;
+        }
+
+        long lsn = buffer.getLong();
+        long accountId = buffer.getLong();
+        long counterpartyAccountId = buffer.getLong();
+        long amount = buffer.getLong();
+        return new Entry(lsn, accountId, counterpartyAccountId == 0 ? null : counterpartyAccountId, amount);
+    }
+
+    private static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static long firstLsnOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * A logged change: {@code accountId} gains {@code amount} minor units and, if set,
+     * {@code counterpartyAccountId} loses them.
+     */
+    public record Entry(long lsn, Long accountId, Long counterpartyAccountId, long amount) {
+    }
+
+    private record Pending(long lsn, long appendedAt, LongConsumer onDurable, Consumer<RuntimeException> onFailure) {
+    }
+
+    private static final class Segment {
+
+        private final Path file;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int records;
+        private int forcedRecords;
+        private int writtenRecords;
+
+        private Segment(Path file, FileChannel channel, MappedByteBuffer buffer) {
+            this.file = file;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        private static Segment create(Path directory, long firstLsn, int recordsPerSegment) {
+            Path file = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstLsn, SEGMENT_SUFFIX));
+            try {
+                FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+                long size = (long) recordsPerSegment * RECORD_SIZE;
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                return new Segment(file, channel, buffer);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot create write-ahead log segment " + file, e);
+            }
+        }
+
+        /**
+         * Remembers how far the segment has been written; called under the log monitor.
+         */
+        private void markWritten() {
+            writtenRecords = records;
+        }
+
+        private void force() {
+            if (writtenRecords > forcedRecords) {
+                buffer.force(forcedRecords * RECORD_SIZE, (writtenRecords - forcedRecords) * RECORD_SIZE);
+                forcedRecords = writtenRecords;
+            }
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot close write-ahead log segment " + file, e);
+            }
+        }
+    }
+}
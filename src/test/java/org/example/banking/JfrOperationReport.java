@@ -0,0 +1,107 @@
+package org.example.banking;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Prints the latency of the deposit, withdraw and transfer events in a flight recording, per operation
+ * and outcome, split into lock wait, other database time and time outside the database, followed by the
+ * slowest transactions and the statement each spent the most time in.
+ * <pre>
+ * java -cp target/test-classes org.example.banking.JfrOperationReport recording.jfr
+ * </pre>
+ */
+public final class JfrOperationReport {
+
+    private static final String PREFIX = "org.example.banking.";
+    private static final String SLOW_TRANSACTION = PREFIX + "SlowTransaction";
+    private static final int SLOW_TRANSACTIONS_SHOWN = 10;
+
+    private JfrOperationReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: JfrOperationReport <recording.jfr>");
+            System.exit(2);
+        }
+        System.out.print(report(Path.of(args[0])));
+    }
+
+    public static String report(Path recording) throws IOException {
+        Map<String, List<RecordedEvent>> operations = new TreeMap<>();
+        List<RecordedEvent> slowTransactions = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(recording)) {
+            String name = event.getEventType().getName();
+            if (name.equals(SLOW_TRANSACTION)) {
+                slowTransactions.add(event);
+            } else if (name.startsWith(PREFIX)) {
+                String operation = name.substring(PREFIX.length()).toLowerCase(Locale.ROOT);
+                operations.computeIfAbsent(operation + " " + event.getString("outcome"), key -> new ArrayList<>())
+                        .add(event);
+            }
+        }
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "%-30s %8s %10s %10s %10s %10s %8s %8s %8s %8s%n",
+                "operation outcome", "count", "p50 ms", "p99 ms", "p99.9 ms", "max ms",
+                "lock %", "db %", "other %", "retries"));
+        operations.forEach((key, events) -> report.append(operationLine(key, events)));
+
+        slowTransactions.sort(Comparator.comparing((RecordedEvent event) -> event.getDuration()).reversed());
+        report.append(String.format(Locale.ROOT, "%nslow transactions: %d%n", slowTransactions.size()));
+        for (RecordedEvent event : slowTransactions.subList(0, Math.min(SLOW_TRANSACTIONS_SHOWN, slowTransactions.size()))) {
+            report.append(String.format(Locale.ROOT, "%10.2f ms %-10s %-18s statement %8.2f ms: %s%n",
+                    millis(event.getDuration()), event.getString("operation"), event.getString("outcome"),
+                    millis(event.getDuration("statementTime")), event.getString("statement")));
+        }
+        return report.toString();
+    }
+
+    private static String operationLine(String key, List<RecordedEvent> events) {
+        long[] durations = events.stream().mapToLong(event -> event.getDuration().toNanos()).sorted().toArray();
+        long total = 0;
+        long lockWait = 0;
+        long database = 0;
+        long retries = 0;
+        for (RecordedEvent event : events) {
+            total += event.getDuration().toNanos();
+            lockWait += event.getDuration("lockWaitTime").toNanos();
+            database += event.getDuration("databaseTime").toNanos();
+            retries += event.getInt("retries");
+        }
+        return String.format(Locale.ROOT, "%-30s %8d %10.2f %10.2f %10.2f %10.2f %8.1f %8.1f %8.1f %8d%n",
+                key, durations.length,
+                millis(percentile(durations, 0.5)), millis(percentile(durations, 0.99)),
+                millis(percentile(durations, 0.999)), millis(durations[durations.length - 1]),
+                share(lockWait, total), share(database, total), share(Math.max(0, total - lockWait - database), total),
+                retries);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static double share(long part, long total) {
+        return total == 0 ? 0 : 100.0 * part / total;
+    }
+
+    private static double millis(Duration duration) {
+        return millis(duration.toNanos());
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.banking.benchmarks;
+
+import org.example.banking.domain.dto.AccountDto;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.mappers.impl.AccountMapperImpl;
+import org.openjdk.jmh.annotations.*;
+import org.modelmapper.ModelMapper;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the hand-written {@link AccountMapperImpl} with the reflection-based {@link ModelMapper}
+ * it replaced, for single conversions and for a whole page. Run with {@code -prof gc} to get the
+ * bytes allocated per operation ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AccountMapperBenchmark {
+
+    private static final int PAGE_SIZE = 1000;
+
+    private final AccountMapperImpl accountMapper = new AccountMapperImpl();
+    private final ModelMapper modelMapper = new ModelMapper();
+
+    private AccountEntity accountEntity;
+    private AccountDto accountDto;
+    private List<AccountEntity> page;
+
+    @Setup
+    public void setUp() {
+        accountEntity = AccountEntity.builder()
+                .id(1L)
+                .accountNumber("1234567890")
+                .balance(new BigDecimal("100.00"))
+                .build();
+        accountDto = new AccountDto(1L, "1234567890", new BigDecimal("100.00"));
+        page = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            page.add(AccountEntity.builder()
+                    .id((long) i)
+                    .accountNumber("ACC-" + i)
+                    .balance(BigDecimal.valueOf(i, 2))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public AccountDto handWrittenMapTo() {
+        return accountMapper.mapTo(accountEntity);
+    }
+
+    @Benchmark
+    public AccountDto modelMapperMapTo() {
+        return modelMapper.map(accountEntity, AccountDto.class);
+    }
+
+    @Benchmark
+    public AccountEntity handWrittenMapFrom() {
+        return accountMapper.mapFrom(accountDto);
+    }
+
+    @Benchmark
+    public AccountEntity modelMapperMapFrom() {
+        return modelMapper.map(accountDto, AccountEntity.class);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<AccountDto> handWrittenMapPage() {
+        return accountMapper.mapToList(page);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<AccountDto> modelMapperMapPage() {
+        List<AccountDto> dtos = new ArrayList<>(page.size());
+        for (AccountEntity entity : page) {
+            dtos.add(modelMapper.map(entity, AccountDto.class));
+        }
+        return dtos;
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.banking.benchmarks;
+
+import org.example.banking.BankingApplication;
+import org.example.banking.domain.dto.AccountDto;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.mappers.Mapper;
+import org.example.banking.services.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the two ways of reading a page of 1,000 accounts: loading managed entities and mapping
+ * them with the account mapper, as {@code getAllAccounts} used to, against selecting the DTOs
+ * directly with a constructor expression. Run with {@code -prof gc} to get the bytes allocated per
+ * page ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AccountReadPathBenchmark {
+
+    private static final int ACCOUNTS = 10_000;
+    private static final int PAGE_SIZE = 1000;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private Mapper<AccountEntity, AccountDto> accountMapper;
+    private Pageable pageable;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        context = new SpringApplicationBuilder(BankingApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:read-path"
+                                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .run();
+        accountService = context.getBean(AccountService.class);
+        accountMapper = (Mapper<AccountEntity, AccountDto>) context.getBeanProvider(ResolvableType
+                .forClassWithGenerics(Mapper.class, AccountEntity.class, AccountDto.class)).getObject();
+
+        List<AccountEntity> accounts = new ArrayList<>(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.add(AccountEntity.builder()
+                    .accountNumber("BENCH-" + i)
+                    .balance(new BigDecimal("1000.00"))
+                    .build());
+        }
+        accountService.createAccounts(accounts);
+        pageable = PageRequest.of(3, PAGE_SIZE, Sort.by("id"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<AccountDto> entityThenMap() {
+        Page<AccountEntity> accounts = accountService.findAll(pageable);
+        return new PageImpl<>(accountMapper.mapToList(accounts.getContent()), accounts.getPageable(),
+                accounts.getTotalElements());
+    }
+
+    @Benchmark
+    public Page<AccountDto> dtoProjection() {
+        return accountService.findAllAccountDtos(pageable);
+    }
+}
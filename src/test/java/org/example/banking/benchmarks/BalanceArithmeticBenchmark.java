@@ -0,0 +1,92 @@
+package org.example.banking.benchmarks;
+
+import org.example.banking.domain.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link BigDecimal} work that deposit, withdraw and transfer do on the balance in
+ * memory: the amount validation, the funds check and the addition or subtraction itself, and the
+ * same work on {@link Money} minor units as done by the in-memory transfer engine.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BalanceArithmeticBenchmark {
+
+    private BigDecimal balance;
+    private BigDecimal amount;
+    private long balanceMinorUnits;
+    private long amountMinorUnits;
+
+    @Setup
+    public void setUp() {
+        balance = new BigDecimal("1000000.00");
+        amount = new BigDecimal("12.34");
+        balanceMinorUnits = Money.toMinorUnits(balance);
+        amountMinorUnits = Money.toMinorUnits(amount);
+    }
+
+    @Benchmark
+    public BigDecimal deposit() {
+        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Deposit amount must be greater than zero");
+        }
+        return balance.add(amount);
+    }
+
+    @Benchmark
+    public BigDecimal withdraw() {
+        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Withdrawal amount must be greater than zero");
+        }
+        if (balance.compareTo(amount) < 0) {
+            throw new IllegalStateException("Insufficient funds");
+        }
+        return balance.subtract(amount);
+    }
+
+    @Benchmark
+    public BigDecimal transfer() {
+        if (balance.compareTo(amount) < 0) {
+            throw new IllegalStateException("Insufficient funds");
+        }
+        BigDecimal fromBalance = balance.subtract(amount);
+        BigDecimal toBalance = balance.add(amount);
+        return fromBalance.compareTo(toBalance) < 0 ? fromBalance : toBalance;
+    }
+
+    @Benchmark
+    public long depositMinorUnits() {
+        if (amountMinorUnits <= 0) {
+            throw new IllegalArgumentException("Deposit amount must be greater than zero");
+        }
+        return Money.add(balanceMinorUnits, amountMinorUnits);
+    }
+
+    @Benchmark
+    public long withdrawMinorUnits() {
+        if (amountMinorUnits <= 0) {
+            throw new IllegalArgumentException("Withdrawal amount must be greater than zero");
+        }
+        if (balanceMinorUnits < amountMinorUnits) {
+            throw new IllegalStateException("Insufficient funds");
+        }
+        return Money.subtract(balanceMinorUnits, amountMinorUnits);
+    }
+
+    @Benchmark
+    public long transferMinorUnits() {
+        if (balanceMinorUnits < amountMinorUnits) {
+            throw new IllegalStateException("Insufficient funds");
+        }
+        long fromBalance = Money.subtract(balanceMinorUnits, amountMinorUnits);
+        long toBalance = Money.add(balanceMinorUnits, amountMinorUnits);
+        return Math.min(fromBalance, toBalance);
+    }
+}
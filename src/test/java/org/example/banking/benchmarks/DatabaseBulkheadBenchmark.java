@@ -0,0 +1,82 @@
+package org.example.banking.benchmarks;
+
+import org.example.banking.BankingApplication;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.exceptions.BulkheadFullException;
+import org.example.banking.services.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of deposits with twice as many callers as database connections, with and
+ * without the bulkhead. Sample-time mode reports the percentiles, including p0.99; calls rejected by
+ * the bulkhead are counted as samples too, as their 503 is what the client sees.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(DatabaseBulkheadBenchmark.CALLERS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DatabaseBulkheadBenchmark {
+
+    static final int POOL_SIZE = 4;
+    static final int CALLERS = 2 * POOL_SIZE;
+
+    @Param({"false", "true"})
+    private boolean bulkhead;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private long[] accountIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BankingApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:bulkhead-" + bulkhead
+                                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                        "spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "banking.bulkhead.enabled=" + bulkhead)
+                .run();
+        accountService = context.getBean(AccountService.class);
+
+        List<AccountEntity> accounts = new ArrayList<>();
+        for (int i = 0; i < 1024; i++) {
+            accounts.add(AccountEntity.builder()
+                    .accountNumber("BENCH-" + i)
+                    .balance(new BigDecimal("1000000.00"))
+                    .build());
+        }
+        accountService.createAccounts(accounts);
+        accountIds = accountService.findAll().stream().mapToLong(AccountEntity::getId).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void deposit(Blackhole blackhole) {
+        long id = accountIds[ThreadLocalRandom.current().nextInt(accountIds.length)];
+        try {
+            blackhole.consume(accountService.deposit(id, BigDecimal.ONE));
+        } catch (BulkheadFullException e) {
+            blackhole.consume(e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.banking.benchmarks;
+
+import org.example.banking.BankingApplication;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.services.AccountService;
+import org.example.banking.services.impl.DepositCoalescer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deposit throughput and latency on a single hot account with and without coalescing. With
+ * coalescing every deposit waits up to the window, but all deposits arriving in it share one
+ * transaction and one balance update.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(32)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DepositCoalescingBenchmark {
+
+    @Param({"false", "true"})
+    private boolean coalescing;
+
+    private ConfigurableApplicationContext context;
+    private DepositCoalescer depositCoalescer;
+    private long accountId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BankingApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:coalescing-" + coalescing
+                                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "banking.deposit-coalescing.enabled=" + coalescing,
+                        "banking.deposit-coalescing.window=2ms")
+                .run();
+        depositCoalescer = context.getBean(DepositCoalescer.class);
+
+        accountId = context.getBean(AccountService.class).createAccount(AccountEntity.builder()
+                .accountNumber("HOT")
+                .balance(new BigDecimal("1000000.00"))
+                .build()).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void deposit(Blackhole blackhole) {
+        blackhole.consume(depositCoalescer.deposit(accountId, BigDecimal.ONE));
+    }
+}
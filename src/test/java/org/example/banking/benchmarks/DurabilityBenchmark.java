@@ -0,0 +1,91 @@
+package org.example.banking.benchmarks;
+
+import org.example.banking.BankingApplication;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.services.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of durable deposits: one database commit per deposit with the atomic
+ * strategy against the in-memory engine acknowledging once the write-ahead log is forced, either
+ * after every record or in groups. The database is an on-disk H2 file by default; pass
+ * {@code -Dbenchmark.datasource.url=jdbc:postgresql://...} (with {@code benchmark.datasource.username}
+ * and {@code benchmark.datasource.password}) to measure against Postgres instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(16)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DurabilityBenchmark {
+
+    private static final int ACCOUNTS = 1024;
+
+    @Param({"DATABASE_COMMIT", "WAL_PER_RECORD", "WAL_GROUP_COMMIT"})
+    private String durability;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private long[] accountIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path directory = Files.createTempDirectory("durability-benchmark");
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.datasource.url=" + System.getProperty("benchmark.datasource.url",
+                        "jdbc:h2:file:" + directory.resolve("db")
+                                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH"),
+                "spring.datasource.username=" + System.getProperty("benchmark.datasource.username", "sa"),
+                "spring.datasource.password=" + System.getProperty("benchmark.datasource.password", "password"),
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.main.banner-mode=off",
+                "logging.level.root=WARN"));
+        if (durability.equals("DATABASE_COMMIT")) {
+            properties.add("banking.locking-strategy=ATOMIC");
+        } else {
+            properties.add("banking.locking-strategy=IN_MEMORY");
+            properties.add("banking.wal.enabled=true");
+            properties.add("banking.wal.directory=" + directory.resolve("wal"));
+            properties.add("banking.wal.group-commit-records=" + (durability.equals("WAL_PER_RECORD") ? 1 : 256));
+        }
+
+        context = new SpringApplicationBuilder(BankingApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties.toArray(String[]::new))
+                .run();
+        accountService = context.getBean(AccountService.class);
+
+        accountIds = new long[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountIds[i] = accountService.createAccount(AccountEntity.builder()
+                    .accountNumber("BENCH-" + i)
+                    .balance(new BigDecimal("1000000.00"))
+                    .build()).getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object deposit() {
+        long id = accountIds[ThreadLocalRandom.current().nextInt(accountIds.length)];
+        return accountService.deposit(id, BigDecimal.ONE);
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.banking.benchmarks;
+
+import org.example.banking.BankingApplication;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.services.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deposit throughput on a single hot account that every thread hits. With one shard all deposits
+ * update the same row; with sixteen they mostly land on different shard rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(16)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class HotAccountDepositBenchmark {
+
+    @Param({"1", "16"})
+    private int shards;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private long accountId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BankingApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:hot-account-" + shards
+                                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                        "spring.datasource.hikari.maximum-pool-size=16",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .run();
+        accountService = context.getBean(AccountService.class);
+
+        accountId = accountService.createAccount(AccountEntity.builder()
+                .accountNumber("HOT")
+                .balance(new BigDecimal("1000000.00"))
+                .build()).getId();
+        accountService.shardAccount(accountId, shards);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void deposit(Blackhole blackhole) {
+        blackhole.consume(accountService.deposit(accountId, BigDecimal.ONE));
+    }
+}
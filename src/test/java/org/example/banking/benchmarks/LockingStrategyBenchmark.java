@@ -0,0 +1,78 @@
+package org.example.banking.benchmarks;
+
+import org.example.banking.BankingApplication;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.services.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares deposit throughput of the pessimistic and optimistic locking strategies. The number of
+ * accounts sets the contention level: with one account every thread hits the same row, with many
+ * accounts collisions are rare.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LockingStrategyBenchmark {
+
+    @Param({"PESSIMISTIC", "OPTIMISTIC"})
+    private String lockingStrategy;
+
+    @Param({"1", "8", "1024"})
+    private int accounts;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private long[] accountIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BankingApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:locking-" + lockingStrategy + "-" + accounts
+                                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "banking.locking-strategy=" + lockingStrategy,
+                        "banking.retry.max-attempts=50")
+                .run();
+        accountService = context.getBean(AccountService.class);
+
+        accountIds = new long[accounts];
+        for (int i = 0; i < accounts; i++) {
+            accountIds[i] = accountService.createAccount(AccountEntity.builder()
+                    .accountNumber("BENCH-" + i)
+                    .balance(new BigDecimal("1000000.00"))
+                    .build()).getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void deposit(Blackhole blackhole) {
+        long id = accountIds[ThreadLocalRandom.current().nextInt(accountIds.length)];
+        try {
+            blackhole.consume(accountService.deposit(id, BigDecimal.ONE));
+        } catch (OptimisticLockingFailureException e) {
+            blackhole.consume(e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.banking.benchmarks;
+
+import org.example.banking.BankingApplication;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.services.AccountService;
+import org.example.banking.services.impl.OperationRecorder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the operation metrics: pessimistic deposits and transfers with the timers, the statement
+ * timing, the flight recorder events and the Prometheus registry in place, against the same calls
+ * with the metrics and the events disabled.
+ * {@code recording} isolates the bookkeeping of one operation with three statements, which is what
+ * the metrics add to each call, from the noise of the database round trips. The calls through
+ * Hibernate take about two minutes of warmup on one CPU before their times stop falling.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(1)
+@Fork(3)
+@Warmup(iterations = 30, time = 4)
+@Measurement(iterations = 10, time = 2)
+public class MetricsOverheadBenchmark {
+
+    @Param({"false", "true"})
+    private boolean metrics;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private OperationRecorder operationRecorder;
+    private long[] accountIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BankingApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:metrics-" + metrics
+                                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "banking.locking-strategy=PESSIMISTIC",
+                        "banking.metrics.enabled=" + metrics,
+                        "banking.flight-recorder.enabled=" + metrics)
+                .run();
+        accountService = context.getBean(AccountService.class);
+        operationRecorder = context.getBeanProvider(OperationRecorder.class).getIfAvailable();
+
+        List<AccountEntity> accounts = new ArrayList<>();
+        for (int i = 0; i < 1024; i++) {
+            accounts.add(AccountEntity.builder()
+                    .accountNumber("BENCH-" + i)
+                    .balance(new BigDecimal("1000000.00"))
+                    .build());
+        }
+        accountService.createAccounts(accounts);
+        accountIds = accountService.findAll().stream().mapToLong(AccountEntity::getId).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Warmup(iterations = 5, time = 2)
+    public Object recording() throws Throwable {
+        if (operationRecorder == null) {
+            return statements();
+        }
+        return operationRecorder.record("deposit", new Object[]{1L, BigDecimal.ONE},
+                MetricsOverheadBenchmark::statements);
+    }
+
+    private static Object statements() {
+        for (int i = 0; i < 3; i++) {
+            OperationRecorder.recordStatement("select", 1_000, i == 0);
+        }
+        return Boolean.TRUE;
+    }
+
+    @Benchmark
+    public void deposit(Blackhole blackhole) {
+        long id = accountIds[ThreadLocalRandom.current().nextInt(accountIds.length)];
+        blackhole.consume(accountService.deposit(id, BigDecimal.ONE));
+    }
+
+    @Benchmark
+    public void transfer(Blackhole blackhole) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long from = accountIds[random.nextInt(accountIds.length)];
+        long to = accountIds[random.nextInt(accountIds.length)];
+        if (from != to) {
+            blackhole.consume(accountService.transfer(from, to, BigDecimal.ONE));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.banking.benchmarks;
+
+import org.example.banking.BankingApplication;
+import org.example.banking.domain.dto.TransferRequestDto;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.services.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to apply a payload of 10,000 transfers between 1,000 accounts through
+ * {@link AccountService#transferBatch}, against the same transfers sent one by one through
+ * {@link AccountService#transfer}. Every transfer moves one cent, so the balances never run out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 10)
+@Measurement(iterations = 5, time = 10)
+public class TransferBatchBenchmark {
+
+    private static final int TRANSFERS = 10_000;
+    private static final BigDecimal AMOUNT = new BigDecimal("0.01");
+
+    @Param({"ATOMIC", "PESSIMISTIC"})
+    private String lockingStrategy;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private List<TransferRequestDto> transfers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BankingApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:transfer-batch-" + lockingStrategy
+                                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "banking.locking-strategy=" + lockingStrategy)
+                .run();
+        accountService = context.getBean(AccountService.class);
+
+        List<AccountEntity> accounts = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            accounts.add(AccountEntity.builder()
+                    .accountNumber("BENCH-" + i)
+                    .balance(new BigDecimal("1000000.00"))
+                    .build());
+        }
+        accountService.createAccounts(accounts);
+        long[] accountIds = accountService.findAll().stream().mapToLong(AccountEntity::getId).toArray();
+
+        Random random = new Random(42);
+        transfers = new ArrayList<>(TRANSFERS);
+        while (transfers.size() < TRANSFERS) {
+            long from = accountIds[random.nextInt(accountIds.length)];
+            long to = accountIds[random.nextInt(accountIds.length)];
+            if (from != to) {
+                transfers.add(new TransferRequestDto(from, to, AMOUNT));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object batch() {
+        return accountService.transferBatch(transfers);
+    }
+
+    @Benchmark
+    public void oneByOne(Blackhole blackhole) {
+        for (TransferRequestDto transfer : transfers) {
+            blackhole.consume(accountService.transfer(
+                    transfer.getFromAccountId(), transfer.getToAccountId(), transfer.getAmount()));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.banking.benchmarks;
+
+import org.example.banking.BankingApplication;
+import org.example.banking.domain.dto.AccountDto;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.services.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded {@link AccountService#transfer} latency against an in-memory H2 database, for
+ * each locking strategy. Transfers alternate direction between two accounts so the balances stay
+ * constant over the run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TransferBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    @Param({"ATOMIC", "PESSIMISTIC", "OPTIMISTIC"})
+    private String lockingStrategy;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private long accountA;
+    private long accountB;
+    private boolean reverse;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BankingApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:transfer-" + lockingStrategy
+                                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "banking.locking-strategy=" + lockingStrategy)
+                .run();
+        accountService = context.getBean(AccountService.class);
+
+        accountA = accountService.createAccount(AccountEntity.builder()
+                .accountNumber("BENCH-A")
+                .balance(new BigDecimal("1000000.00"))
+                .build()).getId();
+        accountB = accountService.createAccount(AccountEntity.builder()
+                .accountNumber("BENCH-B")
+                .balance(new BigDecimal("1000000.00"))
+                .build()).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public AccountDto transfer() {
+        reverse = !reverse;
+        return reverse
+                ? accountService.transfer(accountB, accountA, AMOUNT)
+                : accountService.transfer(accountA, accountB, AMOUNT);
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.banking.benchmarks;
+
+import org.example.banking.domain.dto.AccountDto;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.services.impl.TransferEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Transfer throughput of the in-memory engine alone, without the database: each invocation submits
+ * a burst of transfers between random accounts and waits for the last one. Applied changes are
+ * drained and dropped, as the persister would do between flushes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class TransferEngineBenchmark {
+
+    private static final int ACCOUNTS = 10_000;
+    private static final int BURST = 1_000;
+    private static final BigDecimal AMOUNT = new BigDecimal("0.01");
+
+    @Param({"1", "4"})
+    private int partitions;
+
+    private TransferEngine transferEngine;
+    private Thread drainer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        transferEngine = new TransferEngine(partitions, 65_536, id -> Optional.of(AccountEntity.builder()
+                .id(id)
+                .accountNumber(String.valueOf(id))
+                .balance(new BigDecimal("1000000.00"))
+                .build()));
+        drainer = new Thread(() -> {
+            Map<Long, Long> deltas = new HashMap<>();
+            while (!Thread.currentThread().isInterrupted()) {
+                if (transferEngine.drainChanges(deltas, 100_000) == 0) {
+                    LockSupport.parkNanos(100_000);
+                }
+                deltas.clear();
+            }
+        }, "benchmark-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        drainer.interrupt();
+        transferEngine.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public AccountDto transferBurst() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        CompletableFuture<AccountDto> last = null;
+        for (int i = 0; i < BURST; i++) {
+            last = transferEngine.transfer((long) random.nextInt(ACCOUNTS), (long) random.nextInt(ACCOUNTS), AMOUNT);
+        }
+        return last.join();
+    }
+}
@@ -3,8 +3,10 @@ package org.example.banking.controllers;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.banking.TestDataUtil;
 import org.example.banking.domain.dto.AccountDto;
+import org.example.banking.domain.dto.TransferRequestDto;
 import org.example.banking.domain.entities.AccountEntity;
 import org.example.banking.services.AccountService;
+import org.assertj.core.api.Assertions;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,10 +17,13 @@ import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
 
 @SpringBootTest
 @ExtendWith(SpringExtension.class)
@@ -307,4 +312,284 @@ public class AccountControllerIntegrationTest {
                         .value(savedAccountA.getBalance().subtract(amount).doubleValue()));
 
     }
+
+    @Test
+    public void testThatTransferBatchReturnsResultForEachItem() throws Exception {
+        AccountEntity savedAccountA = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        AccountEntity savedAccountB = accountService.createAccount(TestDataUtil.createTestAccountEntityB());
+        List<TransferRequestDto> transfers = List.of(
+                new TransferRequestDto(savedAccountA.getId(), savedAccountB.getId(), new BigDecimal("50.00")),
+                new TransferRequestDto(savedAccountA.getId(), savedAccountB.getId(), new BigDecimal("1000.00")),
+                new TransferRequestDto(savedAccountA.getId(), 999L, new BigDecimal("10.00")),
+                new TransferRequestDto(savedAccountB.getId(), savedAccountA.getId(), BigDecimal.ZERO));
+        mockMvc.perform(
+                        MockMvcRequestBuilders.post("/api/accounts/transfers/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(transfers)))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(4)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].status").value("SUCCEEDED"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].status").value("FAILED"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].message")
+                        .value("Insufficient balance in the sender's account"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[2].status").value("FAILED"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[2].message").value("Account not found"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[3].status").value("FAILED"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[3].message")
+                        .value("Transfer amount must be greater than zero"));
+    }
+
+    @Test
+    public void testThatTransferBatchReportsMissingItemsAsFailed() throws Exception {
+        AccountEntity savedAccountA = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        AccountEntity savedAccountB = accountService.createAccount(TestDataUtil.createTestAccountEntityB());
+        List<TransferRequestDto> transfers = Arrays.asList(
+                null,
+                new TransferRequestDto(savedAccountA.getId(), savedAccountB.getId(), new BigDecimal("10.00")));
+        mockMvc.perform(
+                        MockMvcRequestBuilders.post("/api/accounts/transfers/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(transfers)))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].status").value("FAILED"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].message").value("Transfer must be specified"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].status").value("SUCCEEDED"));
+    }
+
+    @Test
+    public void testThatTransferBatchAppliesSucceededItems() throws Exception {
+        AccountEntity savedAccountA = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        AccountEntity savedAccountB = accountService.createAccount(TestDataUtil.createTestAccountEntityB());
+        List<TransferRequestDto> transfers = List.of(
+                new TransferRequestDto(savedAccountA.getId(), savedAccountB.getId(), new BigDecimal("60.00")),
+                new TransferRequestDto(savedAccountA.getId(), savedAccountB.getId(), new BigDecimal("60.00")),
+                new TransferRequestDto(savedAccountB.getId(), savedAccountA.getId(), new BigDecimal("10.00")));
+        mockMvc.perform(
+                        MockMvcRequestBuilders.post("/api/accounts/transfers/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(transfers)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].status").value("SUCCEEDED"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].status").value("FAILED"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[2].status").value("SUCCEEDED"));
+
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get("/api/accounts/" + savedAccountA.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.balance").value(50.00));
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get("/api/accounts/" + savedAccountB.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.balance").value(250.00));
+    }
+
+    @Test
+    public void testThatCursorListingWalksAllAccountsInIdOrder() throws Exception {
+        AccountEntity savedAccountA = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        AccountEntity savedAccountB = accountService.createAccount(TestDataUtil.createTestAccountEntityB());
+        AccountEntity savedAccountC = accountService.createAccount(TestDataUtil.createTestAccountEntityC());
+
+        String firstPage = mockMvc.perform(
+                        MockMvcRequestBuilders.get("/api/accounts").param("limit", "2"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content", Matchers.hasSize(2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].id").value(savedAccountA.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[1].id").value(savedAccountB.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").isString())
+                .andReturn().getResponse().getContentAsString();
+        String nextCursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get("/api/accounts")
+                                .param("after", nextCursor)
+                                .param("limit", "2"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content", Matchers.hasSize(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].id").value(savedAccountC.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    public void testThatCursorListingRejectsInvalidCursorAndLimit() throws Exception {
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get("/api/accounts")
+                                .param("after", "not a cursor")
+                                .param("limit", "2"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get("/api/accounts").param("limit", "0"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    public void testThatExportStreamsAccountsAsNdjson() throws Exception {
+        AccountEntity savedAccountA = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        AccountEntity savedAccountB = accountService.createAccount(TestDataUtil.createTestAccountEntityB());
+
+        MvcResult result = mockMvc.perform(
+                        MockMvcRequestBuilders.get("/api/accounts/export"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        Assertions.assertThat(lines).hasSize(2);
+        Assertions.assertThat(objectMapper.readValue(lines[0], AccountDto.class).getId()).isEqualTo(savedAccountA.getId());
+        Assertions.assertThat(objectMapper.readValue(lines[1], AccountDto.class).getAccountNumber())
+                .isEqualTo(savedAccountB.getAccountNumber());
+    }
+
+    @Test
+    public void testThatBulkCreateReturnsNumberOfCreatedAccounts() throws Exception {
+        List<AccountDto> accounts = List.of(
+                TestDataUtil.createTestAccountDtoA(),
+                TestDataUtil.createTestAccountDtoB(),
+                TestDataUtil.createTestAccountDtoC());
+        mockMvc.perform(
+                        MockMvcRequestBuilders.post("/api/accounts/bulk")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(accounts)))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.created").value(3));
+
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get("/api/accounts"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content", Matchers.hasSize(3)));
+    }
+
+    @Test
+    public void testThatTransactionHistoryIsPagedNewestFirst() throws Exception {
+        AccountEntity savedAccountA = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        accountService.deposit(savedAccountA.getId(), new BigDecimal("10.00"));
+        accountService.withdraw(savedAccountA.getId(), new BigDecimal("5.00"));
+        accountService.deposit(savedAccountA.getId(), new BigDecimal("1.00"));
+
+        String firstPage = mockMvc.perform(
+                        MockMvcRequestBuilders.get("/api/accounts/" + savedAccountA.getId() + "/transactions")
+                                .param("limit", "2"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content", Matchers.hasSize(2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].type").value("DEPOSIT"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].amount").value(1.00))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[1].type").value("WITHDRAWAL"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[1].amount").value(-5.00))
+                .andReturn().getResponse().getContentAsString();
+        String nextCursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get("/api/accounts/" + savedAccountA.getId() + "/transactions")
+                                .param("after", nextCursor)
+                                .param("limit", "2"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content", Matchers.hasSize(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].amount").value(10.00))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    public void testThatTransactionHistoryReturnsHttp404WhenAccountDoesNotExist() throws Exception {
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get("/api/accounts/99/transactions"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    public void testThatShardingKeepsReportingTheTotalBalance() throws Exception {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        mockMvc.perform(
+                        MockMvcRequestBuilders.put("/api/accounts/" + account.getId() + "/shards")
+                                .param("count", "4"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.balance").value(100.00));
+
+        mockMvc.perform(
+                        MockMvcRequestBuilders.post("/api/accounts/deposit/" + account.getId())
+                                .param("amount", "10.00"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.balance").value(110.00));
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get("/api/accounts/" + account.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.balance").value(110.00));
+    }
+
+    @Test
+    public void testThatShardingRejectsInvalidCountAndUnknownAccount() throws Exception {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        mockMvc.perform(
+                        MockMvcRequestBuilders.put("/api/accounts/" + account.getId() + "/shards")
+                                .param("count", "1000"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        mockMvc.perform(
+                        MockMvcRequestBuilders.put("/api/accounts/99/shards")
+                                .param("count", "4"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    public void testThatAccountIsFoundByAccountNumber() throws Exception {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get("/api/accounts/by-number/" + account.getAccountNumber()))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(account.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.balance").value(100.00));
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get("/api/accounts/by-number/0000000000"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    public void testThatCreateAccountWithExistingNumberReturnsHttp409Conflict() throws Exception {
+        accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        AccountEntity duplicate = TestDataUtil.createTestAccountEntityA();
+        duplicate.setId(null);
+        mockMvc.perform(
+                        MockMvcRequestBuilders.post("/api/accounts")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(duplicate)))
+                .andExpect(MockMvcResultMatchers.status().isConflict());
+    }
+
+    @Test
+    public void testThatRenamingToAnExistingNumberReturnsHttp409Conflict() throws Exception {
+        AccountEntity accountA = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        AccountEntity accountB = accountService.createAccount(TestDataUtil.createTestAccountEntityB());
+        String accountJson = objectMapper.writeValueAsString(
+                new AccountDto(null, accountA.getAccountNumber(), new BigDecimal("200.00")));
+        mockMvc.perform(
+                        MockMvcRequestBuilders.put("/api/accounts/" + accountB.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(accountJson))
+                .andExpect(MockMvcResultMatchers.status().isConflict());
+        mockMvc.perform(
+                        MockMvcRequestBuilders.patch("/api/accounts/" + accountB.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(accountJson))
+                .andExpect(MockMvcResultMatchers.status().isConflict());
+
+        Assertions.assertThat(accountService.findById(accountB.getId()).orElseThrow().getAccountNumber())
+                .isEqualTo(accountB.getAccountNumber());
+    }
+
+    @Test
+    public void testThatTransferByAccountNumberMovesMoney() throws Exception {
+        AccountEntity accountA = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        AccountEntity accountB = accountService.createAccount(TestDataUtil.createTestAccountEntityB());
+        mockMvc.perform(
+                        MockMvcRequestBuilders.post("/api/accounts/transfer/by-number")
+                                .param("fromAccountNumber", accountA.getAccountNumber())
+                                .param("toAccountNumber", accountB.getAccountNumber())
+                                .param("amount", "40.00"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.balance").value(60.00));
+        Assertions.assertThat(accountService.findById(accountB.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("240.00");
+
+        mockMvc.perform(
+                        MockMvcRequestBuilders.post("/api/accounts/transfer/by-number")
+                                .param("fromAccountNumber", accountA.getAccountNumber())
+                                .param("toAccountNumber", "0000000000")
+                                .param("amount", "1.00"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
 }
@@ -0,0 +1,89 @@
+package org.example.banking.controllers;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exports a million rows and samples the live heap along the way. If the rows were retained, by a
+ * list or by the persistence context, the heap would grow by hundreds of megabytes over the run.
+ * H2 runs queries lazily here, like a server-side cursor would, so its own result set does not
+ * count against the export.
+ */
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:exportdb;MODE=PostgreSQL;"
+        + "DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;LAZY_QUERY_EXECUTION=1")
+public class AccountExportMemoryIntegrationTest {
+
+    private static final int ACCOUNTS = 1_000_000;
+    private static final int SAMPLE_EVERY = 100_000;
+    private static final long MAX_HEAP_GROWTH = 64L * 1024 * 1024;
+
+    private final AccountController accountController;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public AccountExportMemoryIntegrationTest(AccountController accountController, JdbcTemplate jdbcTemplate) {
+        this.accountController = accountController;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @BeforeEach
+    void seedAccounts() {
+        jdbcTemplate.update("DELETE FROM accounts");
+        jdbcTemplate.update("INSERT INTO accounts (id, account_number, balance, version) "
+                + "SELECT r.\"X\", 'SEED-' || r.\"X\", 100.00, 0 FROM SYSTEM_RANGE(1, " + ACCOUNTS + ") r");
+    }
+
+    @Test
+    public void testThatExportKeepsHeapFlat() throws Exception {
+        StreamingResponseBody body = accountController.exportAccounts().getBody();
+        assertThat(body).isNotNull();
+
+        long baseline = usedHeapAfterGc();
+        LineSamplingOutputStream outputStream = new LineSamplingOutputStream();
+        body.writeTo(outputStream);
+
+        assertThat(outputStream.lines).isEqualTo(ACCOUNTS);
+        assertThat(outputStream.maxUsedHeap - baseline).isLessThan(MAX_HEAP_GROWTH);
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static final class LineSamplingOutputStream extends OutputStream {
+
+        private long lines;
+        private long maxUsedHeap;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n' && ++lines % SAMPLE_EVERY == 0) {
+                maxUsedHeap = Math.max(maxUsedHeap, usedHeapAfterGc());
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.example.banking.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.banking.TestDataUtil;
+import org.example.banking.domain.dto.AccountDto;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.repositories.AccountRepository;
+import org.example.banking.services.AccountService;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@AutoConfigureMockMvc
+public class ConditionalRequestIntegrationTest {
+
+    private final MockMvc mockMvc;
+    private final AccountService accountService;
+    private final AccountRepository accountRepository;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public ConditionalRequestIntegrationTest(MockMvc mockMvc,
+                                             AccountService accountService,
+                                             AccountRepository accountRepository) {
+        this.mockMvc = mockMvc;
+        this.accountService = accountService;
+        this.accountRepository = accountRepository;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    @Test
+    public void testThatUnchangedAccountReturnsHttp304UntilItChanges() throws Exception {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        String eTag = getAccount(account.getId());
+        assertThat(eTag).isEqualTo("\"" + accountRepository.findVersionById(account.getId()).orElseThrow() + "\"");
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/accounts/" + account.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+
+        accountService.deposit(account.getId(), new BigDecimal("10.00"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/accounts/" + account.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.balance").value(110.0));
+        assertThat(getAccount(account.getId())).isNotEqualTo(eTag);
+    }
+
+    @Test
+    public void testThatUnchangedPageReturnsHttp304UntilItChanges() throws Exception {
+        accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        String eTag = mockMvc.perform(MockMvcRequestBuilders.get("/api/accounts"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].accountNumber").value("1234567890"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/accounts").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(MockMvcResultMatchers.status().isNotModified());
+
+        accountService.createAccount(TestDataUtil.createTestAccountEntityB());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/accounts").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, Matchers.not(eTag)));
+    }
+
+    @Test
+    public void testThatUpdateWithStaleIfMatchReturnsHttp412() throws Exception {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        String eTag = getAccount(account.getId());
+        accountService.deposit(account.getId(), new BigDecimal("10.00"));
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/accounts/" + account.getId())
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(accountJson("1234567890", "0.00")))
+                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+        assertThat(accountRepository.findById(account.getId()).orElseThrow().getBalance()).isEqualByComparingTo("110.00");
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/accounts/" + account.getId())
+                        .header(HttpHeaders.IF_MATCH, "W/" + getAccount(account.getId()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(accountJson(null, "0.00")))
+                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+    }
+
+    @Test
+    public void testThatUpdateWithCurrentIfMatchSucceeds() throws Exception {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/accounts/" + account.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"other\", " + getAccount(account.getId()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(accountJson(null, "50.00")))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.balance").value(50.0));
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/accounts/" + account.getId())
+                        .header(HttpHeaders.IF_MATCH, "*")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(accountJson("1234567890", "60.00")))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        assertThat(accountRepository.findById(account.getId()).orElseThrow().getBalance()).isEqualByComparingTo("60.00");
+    }
+
+    private String getAccount(Long id) throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.get("/api/accounts/" + id))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private String accountJson(String accountNumber, String balance) throws Exception {
+        return objectMapper.writeValueAsString(new AccountDto(null, accountNumber, new BigDecimal(balance)));
+    }
+}
@@ -0,0 +1,137 @@
+package org.example.banking.controllers;
+
+import org.example.banking.TestDataUtil;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.domain.entities.IdempotencyKeyEntity;
+import org.example.banking.repositories.AccountRepository;
+import org.example.banking.repositories.IdempotencyKeyRepository;
+import org.example.banking.services.AccountService;
+import org.example.banking.services.impl.IdempotentRequests;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@AutoConfigureMockMvc
+public class IdempotencyKeyIntegrationTest {
+
+    private static final int RETRIES = 8;
+
+    private final MockMvc mockMvc;
+    private final AccountService accountService;
+    private final AccountRepository accountRepository;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final IdempotentRequests idempotentRequests;
+
+    @Autowired
+    public IdempotencyKeyIntegrationTest(MockMvc mockMvc,
+                                         AccountService accountService,
+                                         AccountRepository accountRepository,
+                                         IdempotencyKeyRepository idempotencyKeyRepository,
+                                         IdempotentRequests idempotentRequests) {
+        this.mockMvc = mockMvc;
+        this.accountService = accountService;
+        this.accountRepository = accountRepository;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.idempotentRequests = idempotentRequests;
+    }
+
+    @Test
+    public void testThatRetriedWithdrawalIsAppliedOnceAndGetsTheSameResponse() throws Exception {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+
+        byte[] first = withdraw(account.getId(), "25.00", "withdraw-1").getResponse().getContentAsByteArray();
+        byte[] retry = withdraw(account.getId(), "25.00", "withdraw-1").getResponse().getContentAsByteArray();
+
+        assertThat(retry).isEqualTo(first);
+        assertThat(accountRepository.findById(account.getId()).orElseThrow().getBalance()).isEqualByComparingTo("75.00");
+        assertThat(idempotencyKeyRepository.findById("withdraw-1")).hasValueSatisfying(key ->
+                assertThat(key.getBody()).isEqualTo(first));
+    }
+
+    @Test
+    public void testThatKeyReusedForDifferentRequestReturnsHttp422() throws Exception {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        withdraw(account.getId(), "25.00", "withdraw-1");
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/accounts/withdraw/" + account.getId())
+                        .param("amount", "30.00")
+                        .header(IdempotentRequests.HEADER, "withdraw-1"))
+                .andExpect(MockMvcResultMatchers.status().isUnprocessableEntity());
+        assertThat(accountRepository.findById(account.getId()).orElseThrow().getBalance()).isEqualByComparingTo("75.00");
+    }
+
+    @Test
+    public void testThatConcurrentRetriesOfDepositAreAppliedOnce() throws Exception {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+
+        ExecutorService executor = Executors.newFixedThreadPool(RETRIES);
+        List<byte[]> responses = new ArrayList<>();
+        try {
+            List<Future<MvcResult>> futures = new ArrayList<>();
+            for (int i = 0; i < RETRIES; i++) {
+                futures.add(executor.submit(() -> mockMvc.perform(
+                                MockMvcRequestBuilders.post("/api/accounts/deposit/" + account.getId())
+                                        .param("amount", "10.00")
+                                        .header(IdempotentRequests.HEADER, "deposit-1"))
+                        .andExpect(MockMvcResultMatchers.status().isOk())
+                        .andReturn()));
+            }
+            for (Future<MvcResult> future : futures) {
+                responses.add(future.get().getResponse().getContentAsByteArray());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(responses).allSatisfy(response -> assertThat(response).isEqualTo(responses.get(0)));
+        assertThat(accountRepository.findById(account.getId()).orElseThrow().getBalance()).isEqualByComparingTo("110.00");
+    }
+
+    @Test
+    public void testThatExpiredKeysAreDeletedAndCanBeUsedAgain() throws Exception {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        idempotencyKeyRepository.save(IdempotencyKeyEntity.builder()
+                .key("expired")
+                .requestHash("0")
+                .status(200)
+                .body(new byte[0])
+                .expiresAt(Instant.now().minusSeconds(1))
+                .build());
+        withdraw(account.getId(), "25.00", "withdraw-1");
+
+        assertThat(idempotentRequests.deleteExpired()).isEqualTo(1);
+        assertThat(idempotencyKeyRepository.findAll()).extracting(IdempotencyKeyEntity::getKey)
+                .containsExactly("withdraw-1");
+
+        withdraw(account.getId(), "25.00", "expired");
+        assertThat(accountRepository.findById(account.getId()).orElseThrow().getBalance()).isEqualByComparingTo("50.00");
+    }
+
+    private MvcResult withdraw(Long id, String amount, String idempotencyKey) throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.post("/api/accounts/withdraw/" + id)
+                        .param("amount", amount)
+                        .header(IdempotentRequests.HEADER, idempotencyKey))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn();
+    }
+}
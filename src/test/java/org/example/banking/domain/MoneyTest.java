@@ -0,0 +1,39 @@
+package org.example.banking.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MoneyTest {
+
+    @Test
+    public void testThatAmountsRoundTripThroughMinorUnits() {
+        assertThat(Money.toMinorUnits(new BigDecimal("1234.56"))).isEqualTo(123456L);
+        assertThat(Money.toMinorUnits(new BigDecimal("-7"))).isEqualTo(-700L);
+        assertThat(Money.toBigDecimal(123456L)).isEqualTo(new BigDecimal("1234.56"));
+    }
+
+    @Test
+    public void testThatFractionsOfMinorUnitsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Money.toMinorUnits(new BigDecimal("0.001")));
+        assertThrows(IllegalArgumentException.class, () -> Money.toMinorUnits(new BigDecimal("0.005")));
+        assertThrows(IllegalArgumentException.class, () -> Money.toMinorUnits(new BigDecimal("10.0049")));
+    }
+
+    @Test
+    public void testThatTrailingZerosBeyondTheScaleAreAccepted() {
+        assertThat(Money.toMinorUnits(new BigDecimal("1.000"))).isEqualTo(100L);
+        assertThat(Money.toMinorUnits(new BigDecimal("1E+2"))).isEqualTo(10000L);
+    }
+
+    @Test
+    public void testThatOverflowIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> Money.toMinorUnits(new BigDecimal("100000000000000000000.00")));
+        assertThrows(ArithmeticException.class, () -> Money.add(Long.MAX_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> Money.subtract(Long.MIN_VALUE, 1));
+    }
+}
@@ -0,0 +1,367 @@
+package org.example.banking.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.example.banking.BankingApplication;
+import org.example.banking.domain.dto.AccountDto;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.loadtest.LoadTestScenario.Operation;
+import org.example.banking.services.AccountService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Drives the HTTP API of a locally started application with a closed-loop load: each caller sends its
+ * next request as soon as the previous one is answered, picking the operation by the weights of the
+ * scenario. The application runs against a file-based H2 database in PostgreSQL mode, recreated and
+ * seeded for every run.
+ * <p>
+ * Latencies are recorded after the warmup into HdrHistograms. Being closed-loop, the load adapts to
+ * the server, so a stall delays the requests that would have been sent meanwhile rather than showing
+ * up in their latency. At the end the sum of all balances must equal the seeded money plus the
+ * acknowledged deposits minus the acknowledged withdrawals. A deposit or withdrawal that got no
+ * response, for example because it timed out, may or may not have been applied, so each one widens
+ * the accepted range by its amount instead of being assumed either way.
+ * <p>
+ * Callers run on virtual threads when the JDK provides them, and on a platform thread each otherwise.
+ * <pre>
+ * ./mvnw -Ploadtest verify -Dloadtest.scenario=mixed
+ * </pre>
+ */
+public final class LoadTest {
+
+    private static final Path OUTPUT_DIRECTORY = Path.of("target", "loadtest");
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final LoadTestScenario scenario;
+
+    private LoadTest(LoadTestScenario scenario) {
+        this.scenario = scenario;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestScenario scenario = LoadTestScenario.load(args.length > 0 ? args[0] : "mixed");
+        boolean conserved = new LoadTest(scenario).run();
+        System.exit(conserved ? 0 : 1);
+    }
+
+    private boolean run() throws Exception {
+        Path databaseDirectory = OUTPUT_DIRECTORY.resolve(scenario.getName());
+        FileSystemUtils.deleteRecursively(databaseDirectory);
+        Files.createDirectories(databaseDirectory);
+
+        try (ConfigurableApplicationContext context = start(databaseDirectory)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            AccountService accountService = context.getBean(AccountService.class);
+            long[] accountIds = seed(accountService);
+
+            List<Caller> callers = drive(URI.create("http://localhost:" + port + "/api/accounts"), accountIds);
+
+            BigDecimal expected = scenario.getInitialBalance().multiply(BigDecimal.valueOf(scenario.getAccounts()));
+            Unknown unknown = new Unknown();
+            for (Caller caller : callers) {
+                expected = expected.add(BigDecimal.valueOf(caller.depositedCents - caller.withdrawnCents, 2));
+                unknown.add(caller);
+            }
+            BigDecimal actual = totalBalance(accountService);
+            boolean conserved = unknown.accepts(expected, actual);
+
+            String report = report(callers, expected, actual, unknown, conserved);
+            System.out.print(report);
+            Path reportFile = OUTPUT_DIRECTORY.resolve(scenario.getName() + "-"
+                    + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".txt");
+            Files.writeString(reportFile, report);
+            System.out.println("Report written to " + reportFile);
+            return conserved;
+        }
+    }
+
+    private ConfigurableApplicationContext start(Path databaseDirectory) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:file:" + databaseDirectory.toAbsolutePath().resolve("banking")
+                        + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=password",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                // Failed requests are counted in the report; their stack traces would drown it
+                "--logging.level.org.apache.catalina.core=OFF"));
+        scenario.getApplicationProperties().forEach(property -> args.add("--" + property));
+        return new SpringApplicationBuilder(BankingApplication.class).run(args.toArray(String[]::new));
+    }
+
+    private long[] seed(AccountService accountService) {
+        List<AccountEntity> accounts = new ArrayList<>(scenario.getAccounts());
+        for (int i = 0; i < scenario.getAccounts(); i++) {
+            accounts.add(AccountEntity.builder()
+                    .accountNumber(String.format("LOAD-%09d", i))
+                    .balance(scenario.getInitialBalance())
+                    .build());
+        }
+        accountService.createAccounts(accounts);
+        return accountService.findAll().stream().mapToLong(AccountEntity::getId).toArray();
+    }
+
+    private List<Caller> drive(URI baseUri, long[] accountIds) throws Exception {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(REQUEST_TIMEOUT)
+                .build();
+        long measureFrom = System.nanoTime() + scenario.getWarmup().toNanos();
+        long until = measureFrom + scenario.getDuration().toNanos();
+
+        List<Future<Caller>> futures = new ArrayList<>();
+        ExecutorService executor = newCallerExecutor(scenario.getCallers());
+        try {
+            for (int i = 0; i < scenario.getCallers(); i++) {
+                futures.add(executor.submit(new Caller(httpClient, baseUri, accountIds,
+                        new SplittableRandom(scenario.getSeed() + i), measureFrom, until)));
+            }
+            List<Caller> callers = new ArrayList<>();
+            for (Future<Caller> future : futures) {
+                callers.add(future.get());
+            }
+            return callers;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ExecutorService newCallerExecutor(int callers) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(callers);
+        }
+    }
+
+    private static BigDecimal totalBalance(AccountService accountService) {
+        BigDecimal total = BigDecimal.ZERO;
+        Page<AccountDto> page = accountService.findAllAccountDtos(PageRequest.of(0, 1000, Sort.by("id")));
+        while (true) {
+            for (AccountDto account : page.getContent()) {
+                total = total.add(account.getBalance());
+            }
+            if (!page.hasNext()) {
+                return total;
+            }
+            page = accountService.findAllAccountDtos(page.nextPageable());
+        }
+    }
+
+    private String report(List<Caller> callers, BigDecimal expected, BigDecimal actual, Unknown unknown,
+                          boolean conserved) {
+        double seconds = scenario.getDuration().toNanos() / 1e9;
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "Scenario %s: %d accounts, %d callers, %d s warmup, %d s measured%n",
+                scenario.getName(), scenario.getAccounts(), scenario.getCallers(),
+                scenario.getWarmup().toSeconds(), scenario.getDuration().toSeconds()));
+        scenario.getApplicationProperties().forEach(property -> report.append("  ").append(property).append('\n'));
+        report.append(String.format(Locale.ROOT, "%-10s %10s %10s %10s %10s %10s %10s %10s %10s%n",
+                "operation", "ok", "failed", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+
+        Histogram all = new Histogram(3);
+        long allOk = 0;
+        long allFailed = 0;
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = new Histogram(3);
+            long ok = 0;
+            long failed = 0;
+            for (Caller caller : callers) {
+                histogram.add(caller.histograms[operation.ordinal()]);
+                ok += caller.ok[operation.ordinal()];
+                failed += caller.failed[operation.ordinal()];
+            }
+            if (ok + failed == 0) {
+                continue;
+            }
+            all.add(histogram);
+            allOk += ok;
+            allFailed += failed;
+            report.append(line(operation.key(), ok, failed, seconds, histogram));
+        }
+        report.append(line("total", allOk, allFailed, seconds, all));
+
+        report.append(String.format(Locale.ROOT, "Money %s: expected %s, actual %s%n",
+                conserved ? "conserved" : "NOT CONSERVED", expected.toPlainString(), actual.toPlainString()));
+        if (unknown.count > 0) {
+            report.append(String.format(Locale.ROOT,
+                    "%d deposits or withdrawals failed without a response; accepted %s to %s%n", unknown.count,
+                    expected.subtract(BigDecimal.valueOf(unknown.withdrawnCents, 2)).toPlainString(),
+                    expected.add(BigDecimal.valueOf(unknown.depositedCents, 2)).toPlainString()));
+        }
+        return report.toString();
+    }
+
+    private static String line(String label, long ok, long failed, double seconds, Histogram histogram) {
+        StringBuilder line = new StringBuilder(String.format(Locale.ROOT, "%-10s %10d %10d %10.1f",
+                label, ok, failed, (ok + failed) / seconds));
+        for (double percentile : PERCENTILES) {
+            line.append(String.format(Locale.ROOT, " %10.2f", histogram.getValueAtPercentile(percentile) / 1000.0));
+        }
+        return line.append(String.format(Locale.ROOT, " %10.2f%n", histogram.getMaxValue() / 1000.0)).toString();
+    }
+
+    /**
+     * Deposits and withdrawals whose outcome is unknown. The money is conserved if the total lies
+     * between the expected total with all of the withdrawals and with all of the deposits applied.
+     */
+    private static final class Unknown {
+
+        private long count;
+        private long depositedCents;
+        private long withdrawnCents;
+
+        private void add(Caller caller) {
+            count += caller.unknownOutcomes;
+            depositedCents += caller.unknownDepositedCents;
+            withdrawnCents += caller.unknownWithdrawnCents;
+        }
+
+        private boolean accepts(BigDecimal expected, BigDecimal actual) {
+            return actual.compareTo(expected.subtract(BigDecimal.valueOf(withdrawnCents, 2))) >= 0
+                    && actual.compareTo(expected.add(BigDecimal.valueOf(depositedCents, 2))) <= 0;
+        }
+    }
+
+    /**
+     * One closed-loop caller. Its counters are only read once it has finished.
+     */
+    private final class Caller implements Callable<Caller> {
+
+        private final HttpClient httpClient;
+        private final URI baseUri;
+        private final long[] accountIds;
+        private final SplittableRandom random;
+        private final long measureFrom;
+        private final long until;
+        private final long maxAmountCents;
+
+        private final Histogram[] histograms = new Histogram[Operation.values().length];
+        private final long[] ok = new long[Operation.values().length];
+        private final long[] failed = new long[Operation.values().length];
+        private long depositedCents;
+        private long withdrawnCents;
+        private long unknownOutcomes;
+        private long unknownDepositedCents;
+        private long unknownWithdrawnCents;
+
+        private Caller(HttpClient httpClient, URI baseUri, long[] accountIds, SplittableRandom random,
+                       long measureFrom, long until) {
+            this.httpClient = httpClient;
+            this.baseUri = baseUri;
+            this.accountIds = accountIds;
+            this.random = random;
+            this.measureFrom = measureFrom;
+            this.until = until;
+            this.maxAmountCents = scenario.getMaxAmount().movePointRight(2).longValueExact();
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new Histogram(3);
+            }
+        }
+
+        @Override
+        public Caller call() throws InterruptedException {
+            long started;
+            while ((started = System.nanoTime()) < until) {
+                Operation operation = nextOperation();
+                long id = nextAccountId();
+                long cents = 1 + random.nextLong(maxAmountCents);
+                HttpRequest request = request(operation, id, cents);
+
+                int status;
+                try {
+                    status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                } catch (IOException e) {
+                    status = -1;
+                }
+                long latency = System.nanoTime() - started;
+
+                boolean success = status >= 200 && status < 300;
+                if (success && operation == Operation.DEPOSIT) {
+                    depositedCents += cents;
+                } else if (success && operation == Operation.WITHDRAW) {
+                    withdrawnCents += cents;
+                } else if (status == -1 && operation == Operation.DEPOSIT) {
+                    unknownOutcomes++;
+                    unknownDepositedCents += cents;
+                } else if (status == -1 && operation == Operation.WITHDRAW) {
+                    unknownOutcomes++;
+                    unknownWithdrawnCents += cents;
+                }
+                if (started >= measureFrom) {
+                    histograms[operation.ordinal()].recordValue(Math.max(1, latency / 1000));
+                    if (success) {
+                        ok[operation.ordinal()]++;
+                    } else {
+                        failed[operation.ordinal()]++;
+                    }
+                }
+            }
+            return this;
+        }
+
+        private Operation nextOperation() {
+            int pick = random.nextInt(scenario.weightSum());
+            for (Operation operation : Operation.values()) {
+                pick -= scenario.weight(operation);
+                if (pick < 0) {
+                    return operation;
+                }
+            }
+            throw new IllegalStateException("Operation weights changed");
+        }
+
+        private long nextAccountId() {
+            return accountIds[random.nextInt(accountIds.length)];
+        }
+
+        private HttpRequest request(Operation operation, long id, long cents) {
+            String amount = BigDecimal.valueOf(cents, 2).toPlainString();
+            String path = switch (operation) {
+                case GET -> "/" + id;
+                case DEPOSIT -> "/deposit/" + id + "?amount=" + amount;
+                case WITHDRAW -> "/withdraw/" + id + "?amount=" + amount;
+                case TRANSFER -> {
+                    long toId = nextAccountId();
+                    while (toId == id) {
+                        toId = nextAccountId();
+                    }
+                    yield "/transfer/?fromAccountId=" + id + "&toAccountId=" + toId + "&amount=" + amount;
+                }
+            };
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUri + path)).timeout(REQUEST_TIMEOUT);
+            return operation == Operation.GET
+                    ? builder.GET().build()
+                    : builder.POST(HttpRequest.BodyPublishers.noBody()).build();
+        }
+    }
+}
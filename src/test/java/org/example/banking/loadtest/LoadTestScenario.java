@@ -0,0 +1,127 @@
+package org.example.banking.loadtest;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * A load test run read from a properties file. Keys starting with {@code app.} are passed on to the
+ * application without the prefix, for example {@code app.banking.locking-strategy=PESSIMISTIC}.
+ * <pre>
+ * accounts=1000
+ * initial-balance=1000.00
+ * callers=16
+ * warmup=10s
+ * duration=30s
+ * max-amount=100.00
+ * seed=42
+ * mix.get=50
+ * mix.deposit=20
+ * mix.withdraw=15
+ * mix.transfer=15
+ * </pre>
+ */
+@Getter
+public class LoadTestScenario {
+
+    private static final String APPLICATION_PREFIX = "app.";
+
+    private final String name;
+    private final int accounts;
+    private final BigDecimal initialBalance;
+    private final int callers;
+    private final Duration warmup;
+    private final Duration duration;
+    private final BigDecimal maxAmount;
+    private final long seed;
+    @Getter(AccessLevel.NONE)
+    private final int[] mix;
+    private final List<String> applicationProperties;
+
+    private LoadTestScenario(String name, Properties properties) {
+        this.name = name;
+        this.accounts = Integer.parseInt(properties.getProperty("accounts", "1000"));
+        this.initialBalance = new BigDecimal(properties.getProperty("initial-balance", "1000.00"));
+        this.callers = Integer.parseInt(properties.getProperty("callers", "16"));
+        this.warmup = DurationStyle.detectAndParse(properties.getProperty("warmup", "10s"));
+        this.duration = DurationStyle.detectAndParse(properties.getProperty("duration", "30s"));
+        this.maxAmount = new BigDecimal(properties.getProperty("max-amount", "100.00"));
+        this.seed = Long.parseLong(properties.getProperty("seed", "42"));
+
+        Operation[] operations = Operation.values();
+        this.mix = new int[operations.length];
+        for (Operation operation : operations) {
+            mix[operation.ordinal()] = Integer.parseInt(properties.getProperty("mix." + operation.key(), "0"));
+        }
+        if (accounts < 2 || callers < 1 || weightSum() == 0) {
+            throw new IllegalArgumentException("Scenario " + name + " needs at least 2 accounts, 1 caller and a mix");
+        }
+
+        List<String> application = new ArrayList<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(APPLICATION_PREFIX)) {
+                application.add(key.substring(APPLICATION_PREFIX.length()) + "=" + properties.getProperty(key));
+            }
+        }
+        this.applicationProperties = List.copyOf(application);
+    }
+
+    /**
+     * Loads {@code location}, which is either a file or the name of a scenario under
+     * {@code loadtest/} on the classpath, such as {@code mixed}.
+     */
+    public static LoadTestScenario load(String location) {
+        Properties properties = new Properties();
+        Path file = Path.of(location);
+        try {
+            if (Files.isRegularFile(file)) {
+                try (InputStream input = Files.newInputStream(file)) {
+                    properties.load(input);
+                }
+                String fileName = file.getFileName().toString();
+                return new LoadTestScenario(fileName.replaceFirst("\\.properties$", ""), properties);
+            }
+            try (InputStream input = LoadTestScenario.class.getResourceAsStream("/loadtest/" + location + ".properties")) {
+                if (input == null) {
+                    throw new IllegalArgumentException("No scenario file or classpath scenario named " + location);
+                }
+                properties.load(input);
+            }
+            return new LoadTestScenario(location, properties);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public int weightSum() {
+        int sum = 0;
+        for (int weight : mix) {
+            sum += weight;
+        }
+        return sum;
+    }
+
+    public int weight(Operation operation) {
+        return mix[operation.ordinal()];
+    }
+
+    public enum Operation {
+        GET, DEPOSIT, WITHDRAW, TRANSFER;
+
+        String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+}
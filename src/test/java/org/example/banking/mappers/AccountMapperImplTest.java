@@ -0,0 +1,49 @@
+package org.example.banking.mappers;
+
+import org.example.banking.TestDataUtil;
+import org.example.banking.domain.dto.AccountDto;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.mappers.impl.AccountMapperImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AccountMapperImplTest {
+
+    private final AccountMapperImpl accountMapper = new AccountMapperImpl();
+
+    @Test
+    public void testThatEntityIsMappedToDto() {
+        AccountEntity accountEntity = TestDataUtil.createTestAccountEntityA();
+
+        AccountDto result = accountMapper.mapTo(accountEntity);
+
+        assertThat(result).isEqualTo(TestDataUtil.createTestAccountDtoA());
+    }
+
+    @Test
+    public void testThatDtoIsMappedToEntity() {
+        AccountDto accountDto = TestDataUtil.createTestAccountDtoA();
+
+        AccountEntity result = accountMapper.mapFrom(accountDto);
+
+        assertThat(result).isEqualTo(TestDataUtil.createTestAccountEntityA());
+    }
+
+    @Test
+    public void testThatListIsMappedInOrder() {
+        List<AccountEntity> accountEntities = List.of(
+                TestDataUtil.createTestAccountEntityA(),
+                TestDataUtil.createTestAccountEntityB(),
+                TestDataUtil.createTestAccountEntityC());
+
+        List<AccountDto> result = accountMapper.mapToList(accountEntities);
+
+        assertThat(result).containsExactly(
+                TestDataUtil.createTestAccountDtoA(),
+                TestDataUtil.createTestAccountDtoB(),
+                TestDataUtil.createTestAccountDtoC());
+    }
+}
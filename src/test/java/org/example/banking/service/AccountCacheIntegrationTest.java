@@ -0,0 +1,149 @@
+package org.example.banking.service;
+
+import org.example.banking.TestDataUtil;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.repositories.AccountRepository;
+import org.example.banking.services.AccountService;
+import org.example.banking.services.impl.AccountCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestPropertySource(properties = "banking.cache.maximum-size=2")
+public class AccountCacheIntegrationTest {
+
+    private final AccountService accountService;
+    private final AccountCache accountCache;
+    private final AccountRepository accountRepository;
+
+    @Autowired
+    public AccountCacheIntegrationTest(AccountService accountService,
+                                       AccountCache accountCache,
+                                       AccountRepository accountRepository) {
+        this.accountService = accountService;
+        this.accountCache = accountCache;
+        this.accountRepository = accountRepository;
+    }
+
+    @Test
+    public void testThatRepeatedLookupsAreServedFromCache() {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+
+        accountService.findById(account.getId());
+        accountService.findById(account.getId());
+        accountService.isExist(account.getId());
+
+        assertThat(accountCache.getMissCount()).isEqualTo(1);
+        assertThat(accountCache.getHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testThatMoneyOperationsInvalidateCachedBalance() {
+        AccountEntity accountA = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        AccountEntity accountB = accountService.createAccount(TestDataUtil.createTestAccountEntityB());
+        accountService.findById(accountA.getId());
+        accountService.findById(accountB.getId());
+
+        accountService.deposit(accountA.getId(), new BigDecimal("50.00"));
+        assertThat(accountService.findById(accountA.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("150.00");
+
+        accountService.withdraw(accountA.getId(), new BigDecimal("20.00"));
+        assertThat(accountService.findById(accountA.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("130.00");
+
+        accountService.transfer(accountA.getId(), accountB.getId(), new BigDecimal("30.00"));
+        assertThat(accountService.findById(accountA.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("100.00");
+        assertThat(accountService.findById(accountB.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("230.00");
+    }
+
+    @Test
+    public void testThatUpdatesAndDeletesInvalidateCachedAccount() {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        accountService.findById(account.getId());
+
+        accountService.partialUpdate(account.getId(), AccountEntity.builder().accountNumber("UPDATED").build());
+        assertThat(accountService.findById(account.getId()).orElseThrow().getAccountNumber()).isEqualTo("UPDATED");
+
+        accountService.deleteAccount(account.getId());
+        assertThat(accountService.findById(account.getId())).isEmpty();
+        assertThat(accountService.isExist(account.getId())).isFalse();
+    }
+
+    @Test
+    public void testThatRevisionIsServedFromCacheUntilTheAccountChanges() {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        String revision = accountService.findAccountRevision(account.getId()).orElseThrow();
+
+        // Bypasses the service, so only a read that goes to the database would notice.
+        AccountEntity stored = accountRepository.findById(account.getId()).orElseThrow();
+        stored.setBalance(stored.getBalance().add(BigDecimal.ONE));
+        accountRepository.save(stored);
+        assertThat(accountService.findAccountRevision(account.getId())).contains(revision);
+
+        accountService.deposit(account.getId(), BigDecimal.ONE);
+        String changed = accountService.findAccountRevision(account.getId()).orElseThrow();
+        assertThat(changed).isNotEqualTo(revision)
+                .isEqualTo(Long.toString(accountRepository.findVersionById(account.getId()).orElseThrow()));
+    }
+
+    @Test
+    public void testThatCacheIsBoundedBySize() {
+        for (int i = 0; i < 5; i++) {
+            AccountEntity account = accountService.createAccount(AccountEntity.builder()
+                    .accountNumber("CACHE-" + i)
+                    .balance(BigDecimal.TEN)
+                    .build());
+            accountService.findById(account.getId());
+        }
+
+        assertThat(accountCache.getSize()).isLessThanOrEqualTo(2);
+        assertThat(accountCache.getEvictionCount()).isGreaterThanOrEqualTo(3);
+    }
+
+    @Test
+    public void testThatConcurrentReadsNeverSeeBalanceOlderThanLastDeposit() throws Exception {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        Long id = account.getId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                readers.add(executor.submit(() -> {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        accountService.findById(id);
+                    }
+                }));
+            }
+
+            BigDecimal expected = new BigDecimal("100.00");
+            for (int i = 0; i < 200; i++) {
+                accountService.deposit(id, BigDecimal.ONE);
+                expected = expected.add(BigDecimal.ONE);
+                assertThat(accountService.findById(id).orElseThrow().getBalance()).isEqualByComparingTo(expected);
+            }
+            readers.forEach(reader -> reader.cancel(true));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
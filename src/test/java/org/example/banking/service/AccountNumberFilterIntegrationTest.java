@@ -0,0 +1,98 @@
+package org.example.banking.service;
+
+import org.example.banking.TestDataUtil;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.exceptions.DuplicateAccountNumberException;
+import org.example.banking.repositories.AccountRepository;
+import org.example.banking.services.AccountService;
+import org.example.banking.services.impl.AccountNumberFilter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class AccountNumberFilterIntegrationTest {
+
+    private final AccountService accountService;
+    private final AccountNumberFilter accountNumberFilter;
+    private final AccountRepository accountRepository;
+
+    @Autowired
+    public AccountNumberFilterIntegrationTest(AccountService accountService,
+                                              AccountNumberFilter accountNumberFilter,
+                                              AccountRepository accountRepository) {
+        this.accountService = accountService;
+        this.accountNumberFilter = accountNumberFilter;
+        this.accountRepository = accountRepository;
+    }
+
+    @Test
+    public void testThatFilterFollowsCreatesRenamesAndDeletes() {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        assertThat(accountNumberFilter.mightContain("1234567890")).isTrue();
+        assertThrows(DuplicateAccountNumberException.class,
+                () -> accountService.createAccount(TestDataUtil.createTestAccountEntityA()));
+
+        accountService.partialUpdate(account.getId(), AccountEntity.builder().accountNumber("1111111111").build());
+        assertThat(accountNumberFilter.mightContain("1111111111")).isTrue();
+        assertThat(accountService.findByAccountNumber("1234567890")).isEmpty();
+        assertThat(accountService.findByAccountNumber("1111111111")).isPresent();
+
+        accountService.deleteAccount(account.getId());
+        assertThat(accountNumberFilter.mightContain("1111111111")).isFalse();
+        assertThat(accountService.findByAccountNumber("1111111111")).isEmpty();
+    }
+
+    @Test
+    public void testThatRebuildPicksUpRowsWrittenBehindTheFilter() {
+        accountRepository.save(TestDataUtil.createTestAccountEntityB());
+        assertThat(accountNumberFilter.mightContain("0987654321")).isFalse();
+
+        accountNumberFilter.rebuild();
+
+        assertThat(accountNumberFilter.mightContain("0987654321")).isTrue();
+        assertThat(accountService.findByAccountNumber("0987654321")).isPresent();
+    }
+
+    @Test
+    public void testThatLookupFindsAccountsCreatedBehindTheFilter() {
+        accountRepository.save(TestDataUtil.createTestAccountEntityB());
+        assertThat(accountNumberFilter.mightContain("0987654321")).isFalse();
+
+        assertThat(accountService.findByAccountNumber("0987654321")).isPresent();
+    }
+
+    @Test
+    public void testThatFalsePositiveRateStaysNearTheConfiguredProbability() {
+        List<AccountEntity> accounts = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            accounts.add(AccountEntity.builder()
+                    .accountNumber("ACC-" + i)
+                    .balance(BigDecimal.ZERO)
+                    .build());
+        }
+        accountService.createAccounts(accounts);
+
+        int found = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (accountService.findByAccountNumber("MISSING-" + i).isPresent()) {
+                found++;
+            }
+        }
+
+        assertThat(found).isZero();
+        assertThat(accountNumberFilter.getFalsePositiveRate()).isBetween(0.0, 0.02);
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.banking.service;
+
+import org.example.banking.TestDataUtil;
+import org.example.banking.repositories.AccountRepository;
+import org.example.banking.services.AccountService;
+import org.example.banking.services.impl.AccountNumberFilter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestPropertySource(properties = "banking.account-number-filter.single-node=true")
+public class AccountNumberFilterSingleNodeIntegrationTest {
+
+    private final AccountService accountService;
+    private final AccountNumberFilter accountNumberFilter;
+    private final AccountRepository accountRepository;
+
+    @Autowired
+    public AccountNumberFilterSingleNodeIntegrationTest(AccountService accountService,
+                                                        AccountNumberFilter accountNumberFilter,
+                                                        AccountRepository accountRepository) {
+        this.accountService = accountService;
+        this.accountNumberFilter = accountNumberFilter;
+        this.accountRepository = accountRepository;
+    }
+
+    @Test
+    public void testThatLookupTrustsTheFilterOnASingleNode() {
+        accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        accountRepository.save(TestDataUtil.createTestAccountEntityB());
+
+        assertThat(accountService.findByAccountNumber("1234567890")).isPresent();
+        assertThat(accountService.findByAccountNumber("0987654321")).isEmpty();
+
+        accountNumberFilter.rebuild();
+        assertThat(accountService.findByAccountNumber("0987654321")).isPresent();
+    }
+}
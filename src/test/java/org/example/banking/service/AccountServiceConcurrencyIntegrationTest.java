@@ -0,0 +1,120 @@
+package org.example.banking.service;
+
+import org.example.banking.TestDataUtil;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.exceptions.InsufficientFundsException;
+import org.example.banking.repositories.AccountRepository;
+import org.example.banking.services.AccountService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class AccountServiceConcurrencyIntegrationTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 250;
+
+    private final AccountService accountService;
+    private final AccountRepository accountRepository;
+
+    @Autowired
+    public AccountServiceConcurrencyIntegrationTest(AccountService accountService,
+                                                    AccountRepository accountRepository) {
+        this.accountService = accountService;
+        this.accountRepository = accountRepository;
+    }
+
+    @Test
+    public void testThatParallelDepositsAreNotLost() throws Exception {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        BigDecimal amount = new BigDecimal("1.00");
+
+        runInParallel(() -> {
+            accountService.deposit(account.getId(), amount);
+            return null;
+        });
+
+        BigDecimal expected = new BigDecimal("100.00")
+                .add(amount.multiply(BigDecimal.valueOf((long) THREADS * OPERATIONS_PER_THREAD)));
+        assertThat(balanceOf(account.getId())).isEqualByComparingTo(expected);
+    }
+
+    @Test
+    public void testThatParallelWithdrawalsNeverOverdraw() throws Exception {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        AtomicInteger succeeded = new AtomicInteger();
+
+        runInParallel(() -> {
+            try {
+                accountService.withdraw(account.getId(), new BigDecimal("0.10"));
+                succeeded.incrementAndGet();
+            } catch (InsufficientFundsException ignored) {
+                // expected once the balance is drained
+            }
+            return null;
+        });
+
+        assertThat(succeeded.get()).isEqualTo(1000);
+        assertThat(balanceOf(account.getId())).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    public void testThatParallelOppositeTransfersConserveMoney() throws Exception {
+        AccountEntity accountA = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        AccountEntity accountB = accountService.createAccount(TestDataUtil.createTestAccountEntityB());
+        AtomicInteger counter = new AtomicInteger();
+
+        runInParallel(() -> {
+            boolean forward = counter.incrementAndGet() % 2 == 0;
+            try {
+                if (forward) {
+                    accountService.transfer(accountA.getId(), accountB.getId(), BigDecimal.ONE);
+                } else {
+                    accountService.transfer(accountB.getId(), accountA.getId(), BigDecimal.ONE);
+                }
+            } catch (InsufficientFundsException ignored) {
+                // a drained sender is a valid outcome, the money must still add up
+            }
+            return null;
+        });
+
+        BigDecimal total = balanceOf(accountA.getId()).add(balanceOf(accountB.getId()));
+        assertThat(total).isEqualByComparingTo(new BigDecimal("300.00"));
+    }
+
+    private BigDecimal balanceOf(Long id) {
+        return accountRepository.findById(id).orElseThrow().getBalance();
+    }
+
+    private void runInParallel(Callable<Void> operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS * OPERATIONS_PER_THREAD; i++) {
+                futures.add(executor.submit(operation));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
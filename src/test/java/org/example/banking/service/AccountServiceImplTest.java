@@ -1,14 +1,24 @@
 package org.example.banking.service;
 
+import org.example.banking.config.BankingProperties;
 import org.example.banking.domain.dto.AccountDto;
 import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.exceptions.AccountNotFoundException;
+import org.example.banking.exceptions.InsufficientFundsException;
 import org.example.banking.repositories.AccountRepository;
+import org.example.banking.repositories.AccountShardRepository;
+import org.example.banking.repositories.TransactionRepository;
+import org.example.banking.services.impl.AccountCache;
+import org.example.banking.services.impl.AccountNumberFilter;
 import org.example.banking.services.impl.AccountServiceImpl;
+import org.example.banking.services.impl.AccountShardRouter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
@@ -22,6 +32,24 @@ public class AccountServiceImplTest {
     @Mock
     private AccountRepository accountRepository;
 
+    @Mock
+    private AccountShardRepository accountShardRepository;
+
+    @Mock
+    private AccountCache accountCache;
+
+    @Mock
+    private AccountShardRouter accountShardRouter;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private AccountNumberFilter accountNumberFilter;
+
+    @Spy
+    private BankingProperties bankingProperties = new BankingProperties();
+
     @InjectMocks
     private AccountServiceImpl accountService;
 
@@ -45,39 +73,79 @@ public class AccountServiceImplTest {
     @Test
     void shouldTransferFundsCorrectly() {
         BigDecimal transferAmount = new BigDecimal("200");
-        mockAccountFindById(account1, account2);
+        when(accountRepository.decrementBalanceIfSufficient(account1.getId(), transferAmount)).thenReturn(1);
+        when(accountRepository.incrementBalance(account2.getId(), transferAmount)).thenReturn(1);
+        when(accountRepository.findById(account1.getId()))
+                .thenReturn(Optional.of(createAccount(1L, "123456789", new BigDecimal("800"))));
 
-        accountService.transfer(account1.getId(), account2.getId(), transferAmount);
+        AccountDto result = accountService.transfer(account1.getId(), account2.getId(), transferAmount);
 
         assertAll(
-                "Validating both account balances after transfer",
-                () -> assertEquals(0, account1.getBalance().compareTo(new BigDecimal("800")),
-                        "Should decrease from account"),
-                () -> assertEquals(0, account2.getBalance().compareTo(new BigDecimal("700")),
-                        "Should increase to account")
+                "Validating sender account after transfer",
+                () -> assertEquals(account1.getId(), result.getId()),
+                () -> assertEquals(0, result.getBalance().compareTo(new BigDecimal("800")),
+                        "Should decrease from account")
         );
 
-        verify(accountRepository, times(1)).save(account1);
-        verify(accountRepository, times(1)).save(account2);
+        verify(accountRepository, times(1)).decrementBalanceIfSufficient(account1.getId(), transferAmount);
+        verify(accountRepository, times(1)).incrementBalance(account2.getId(), transferAmount);
+        verify(accountRepository, never()).save(any(AccountEntity.class));
     }
 
-    private void mockAccountFindById(AccountEntity... accounts) {
-        for (AccountEntity account : accounts) {
-            when(accountRepository.findById(account.getId())).thenReturn(Optional.of(account));
-        }
+    @Test
+    void shouldTouchAccountsInAscendingIdOrder() {
+        BigDecimal transferAmount = new BigDecimal("100");
+        when(accountRepository.incrementBalance(account1.getId(), transferAmount)).thenReturn(1);
+        when(accountRepository.decrementBalanceIfSufficient(account2.getId(), transferAmount)).thenReturn(1);
+        when(accountRepository.findById(account2.getId())).thenReturn(Optional.of(account2));
+
+        accountService.transfer(account2.getId(), account1.getId(), transferAmount);
+
+        InOrder inOrder = inOrder(accountRepository);
+        inOrder.verify(accountRepository).incrementBalance(account1.getId(), transferAmount);
+        inOrder.verify(accountRepository).decrementBalanceIfSufficient(account2.getId(), transferAmount);
+    }
+
+    @Test
+    void shouldLockAccountsInAscendingIdOrderWhenPessimistic() {
+        bankingProperties.setLockingStrategy(BankingProperties.LockingStrategy.PESSIMISTIC);
+        when(accountRepository.findByIdForUpdate(account1.getId())).thenReturn(Optional.of(account1));
+        when(accountRepository.findByIdForUpdate(account2.getId())).thenReturn(Optional.of(account2));
+
+        AccountDto result = accountService.transfer(account2.getId(), account1.getId(), new BigDecimal("200"));
+
+        InOrder inOrder = inOrder(accountRepository);
+        inOrder.verify(accountRepository).findByIdForUpdate(account1.getId());
+        inOrder.verify(accountRepository).findByIdForUpdate(account2.getId());
+        assertEquals(0, result.getBalance().compareTo(new BigDecimal("300")));
+        assertEquals(0, account1.getBalance().compareTo(new BigDecimal("1200")));
+    }
+
+    @Test
+    void shouldThrowExceptionForInsufficientFundsWhenPessimistic() {
+        bankingProperties.setLockingStrategy(BankingProperties.LockingStrategy.PESSIMISTIC);
+        when(accountRepository.findByIdForUpdate(account1.getId())).thenReturn(Optional.of(account1));
+        when(accountRepository.findByIdForUpdate(account2.getId())).thenReturn(Optional.of(account2));
+
+        InsufficientFundsException exception = assertThrows(InsufficientFundsException.class,
+                () -> accountService.transfer(account1.getId(), account2.getId(), new BigDecimal("1200")));
+
+        assertEquals("Insufficient balance in the sender's account", exception.getMessage());
+        assertEquals(0, account1.getBalance().compareTo(new BigDecimal("1000")));
     }
 
     @Test
     void shouldThrowExceptionForInsufficientFunds() {
         BigDecimal transferAmount = new BigDecimal("1200");
+        when(accountRepository.decrementBalanceIfSufficient(account1.getId(), transferAmount)).thenReturn(0);
+        when(accountRepository.existsById(account1.getId())).thenReturn(true);
 
-        mockAccountFindById(account1, account2);
-
-        RuntimeException exception = assertThrows(RuntimeException.class,
+        InsufficientFundsException exception = assertThrows(InsufficientFundsException.class,
                 () -> accountService.transfer(account1.getId(), account2.getId(), transferAmount),
                 "Expected transfer to throw due to insufficient funds");
 
         assertEquals("Insufficient balance in the sender's account", exception.getMessage());
+        verify(accountRepository, never()).incrementBalance(any(), any());
     }
 
     @Test
@@ -93,34 +161,52 @@ public class AccountServiceImplTest {
     @Test
     void shouldNotifyWhenSenderAccountNotFound() {
         BigDecimal transferAmount = new BigDecimal("100");
-        when(accountRepository.findById(account1.getId())).thenReturn(Optional.empty());
+        when(accountRepository.decrementBalanceIfSufficient(account1.getId(), transferAmount)).thenReturn(0);
+        when(accountRepository.existsById(account1.getId())).thenReturn(false);
 
-        RuntimeException exception = assertThrows(RuntimeException.class,
+        AccountNotFoundException exception = assertThrows(AccountNotFoundException.class,
                 () -> accountService.transfer(account1.getId(), account2.getId(), transferAmount),
                 "Expected transfer to throw due to missing account");
 
         assertEquals("Account not found", exception.getMessage());
     }
 
+    @Test
+    void shouldNotifyWhenRecipientAccountNotFound() {
+        BigDecimal transferAmount = new BigDecimal("100");
+        when(accountRepository.decrementBalanceIfSufficient(account1.getId(), transferAmount)).thenReturn(1);
+        when(accountRepository.incrementBalance(account2.getId(), transferAmount)).thenReturn(0);
+
+        AccountNotFoundException exception = assertThrows(AccountNotFoundException.class,
+                () -> accountService.transfer(account1.getId(), account2.getId(), transferAmount),
+                "Expected transfer to throw due to missing recipient account");
+
+        assertEquals("Account not found", exception.getMessage());
+    }
+
     @Test
     void shouldWithdrawFundsCorrectly() {
         BigDecimal withdrawalAmount = new BigDecimal("200");
-        when(accountRepository.findById(account1.getId())).thenReturn(Optional.of(account1));
+        when(accountRepository.decrementBalanceIfSufficient(account1.getId(), withdrawalAmount)).thenReturn(1);
+        when(accountRepository.findById(account1.getId()))
+                .thenReturn(Optional.of(createAccount(1L, "123456789", new BigDecimal("800"))));
 
-        accountService.withdraw(account1.getId(), withdrawalAmount);
+        AccountDto result = accountService.withdraw(account1.getId(), withdrawalAmount);
 
-        assertEquals(new BigDecimal("800"), account1.getBalance(),
+        assertEquals(new BigDecimal("800"), result.getBalance(),
                 "Should decrease the balance by withdrawal amount");
 
-        verify(accountRepository, times(1)).save(account1);
+        verify(accountRepository, times(1)).decrementBalanceIfSufficient(account1.getId(), withdrawalAmount);
+        verify(accountRepository, never()).existsById(any());
     }
 
     @Test
     void shouldThrowExceptionForInsufficientWithdrawalFunds() {
         BigDecimal withdrawalAmount = new BigDecimal("1200");
-        when(accountRepository.findById(account1.getId())).thenReturn(Optional.of(account1));
+        when(accountRepository.decrementBalanceIfSufficient(account1.getId(), withdrawalAmount)).thenReturn(0);
+        when(accountRepository.existsById(account1.getId())).thenReturn(true);
 
-        RuntimeException exception = assertThrows(RuntimeException.class,
+        InsufficientFundsException exception = assertThrows(InsufficientFundsException.class,
                 () -> accountService.withdraw(account1.getId(), withdrawalAmount),
                 "Expected withdrawal to throw due to insufficient funds");
 
@@ -141,9 +227,10 @@ public class AccountServiceImplTest {
     @Test
     void shouldNotifyWhenAccountNotFoundForWithdrawal() {
         BigDecimal withdrawalAmount = new BigDecimal("100");
-        when(accountRepository.findById(account1.getId())).thenReturn(Optional.empty());
+        when(accountRepository.decrementBalanceIfSufficient(account1.getId(), withdrawalAmount)).thenReturn(0);
+        when(accountRepository.existsById(account1.getId())).thenReturn(false);
 
-        RuntimeException exception = assertThrows(RuntimeException.class,
+        AccountNotFoundException exception = assertThrows(AccountNotFoundException.class,
                 () -> accountService.withdraw(account1.getId(), withdrawalAmount),
                 "Expected withdrawal to throw due to missing account");
 
@@ -153,26 +240,19 @@ public class AccountServiceImplTest {
     @Test
     void shouldDepositCorrectly() {
         BigDecimal depositAmount = new BigDecimal("500");
-        when(accountRepository.findById(account1.getId())).thenReturn(Optional.of(account1));
-
-        doAnswer(invocation -> {
-            AccountEntity account = invocation.getArgument(0);
-            if (account.getId().equals(account1.getId())) {
-                account.setBalance(account.getBalance().add(depositAmount));
-            }
-            return account;
-        }).when(accountRepository).save(any(AccountEntity.class));
+        when(accountRepository.incrementBalance(account1.getId(), depositAmount)).thenReturn(1);
+        when(accountRepository.findById(account1.getId()))
+                .thenReturn(Optional.of(createAccount(1L, "123456789", new BigDecimal("1500"))));
 
         AccountDto result = accountService.deposit(account1.getId(), depositAmount);
 
-        assertEquals(new BigDecimal("2000"), account1.getBalance(),
-                "Balance should be increased by deposit amount");
-
         assertEquals(account1.getId(), result.getId());
         assertEquals(account1.getAccountNumber(), result.getAccountNumber());
-        assertEquals(account1.getBalance(), result.getBalance());
+        assertEquals(new BigDecimal("1500"), result.getBalance(),
+                "Balance should be increased by deposit amount");
 
-        verify(accountRepository, times(1)).save(account1);
+        verify(accountRepository, times(1)).incrementBalance(account1.getId(), depositAmount);
+        verify(accountRepository, never()).save(any(AccountEntity.class));
     }
 
     @Test
@@ -198,9 +278,9 @@ public class AccountServiceImplTest {
     @Test
     void shouldNotifyWhenAccountNotFoundOnDeposit() {
         BigDecimal depositAmount = new BigDecimal("100");
-        when(accountRepository.findById(account1.getId())).thenReturn(Optional.empty());
+        when(accountRepository.incrementBalance(account1.getId(), depositAmount)).thenReturn(0);
 
-        RuntimeException exception = assertThrows(RuntimeException.class,
+        AccountNotFoundException exception = assertThrows(AccountNotFoundException.class,
                 () -> accountService.deposit(account1.getId(), depositAmount),
                 "Expected deposit to throw due to missing account");
 
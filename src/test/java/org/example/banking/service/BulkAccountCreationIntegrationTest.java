@@ -0,0 +1,72 @@
+package org.example.banking.service;
+
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.repositories.AccountRepository;
+import org.example.banking.services.AccountService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class BulkAccountCreationIntegrationTest {
+
+    private static final int ACCOUNTS = 100_000;
+
+    private final AccountService accountService;
+    private final AccountRepository accountRepository;
+
+    @Autowired
+    public BulkAccountCreationIntegrationTest(AccountService accountService, AccountRepository accountRepository) {
+        this.accountService = accountService;
+        this.accountRepository = accountRepository;
+    }
+
+    @Test
+    public void testThatHundredThousandAccountsAreCreatedInSeconds() {
+        List<AccountEntity> accounts = new ArrayList<>(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.add(AccountEntity.builder()
+                    .accountNumber("BULK-" + i)
+                    .balance(BigDecimal.TEN)
+                    .build());
+        }
+
+        long start = System.nanoTime();
+        int created = accountService.createAccounts(accounts);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertThat(created).isEqualTo(ACCOUNTS);
+        assertThat(accountRepository.count()).isEqualTo(ACCOUNTS);
+        assertThat(elapsed).isLessThan(Duration.ofSeconds(30));
+    }
+
+    @Test
+    public void testThatIdsFromInputAreIgnored() {
+        AccountEntity existing = accountService.createAccount(AccountEntity.builder()
+                .accountNumber("EXISTING")
+                .balance(BigDecimal.ONE)
+                .build());
+
+        accountService.createAccounts(List.of(AccountEntity.builder()
+                .id(existing.getId())
+                .accountNumber("NEW")
+                .balance(BigDecimal.TEN)
+                .build()));
+
+        assertThat(accountRepository.count()).isEqualTo(2);
+        assertThat(accountRepository.findById(existing.getId()).orElseThrow().getAccountNumber())
+                .isEqualTo("EXISTING");
+    }
+}
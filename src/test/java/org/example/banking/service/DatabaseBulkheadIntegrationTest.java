@@ -0,0 +1,92 @@
+package org.example.banking.service;
+
+import org.example.banking.TestDataUtil;
+import org.example.banking.exceptions.BulkheadFullException;
+import org.example.banking.services.AccountService;
+import org.example.banking.services.impl.DatabaseBulkhead;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "banking.bulkhead.enabled=true",
+        "banking.bulkhead.max-concurrent-calls=1",
+        "banking.bulkhead.max-waiting-calls=1",
+        "banking.bulkhead.queue-timeout=50ms"
+})
+public class DatabaseBulkheadIntegrationTest {
+
+    private final AccountService accountService;
+    private final DatabaseBulkhead databaseBulkhead;
+    private final MockMvc mockMvc;
+
+    @Autowired
+    public DatabaseBulkheadIntegrationTest(AccountService accountService,
+                                           DatabaseBulkhead databaseBulkhead,
+                                           MockMvc mockMvc) {
+        this.accountService = accountService;
+        this.databaseBulkhead = databaseBulkhead;
+        this.mockMvc = mockMvc;
+    }
+
+    @Test
+    public void testThatSaturatedBulkheadFailsFastWithHttp503() throws Exception {
+        ExecutorService holder = Executors.newSingleThreadExecutor();
+        try {
+            holder.submit(databaseBulkhead::acquire).get();
+
+            long started = System.nanoTime();
+            mockMvc.perform(
+                            MockMvcRequestBuilders.get("/api/accounts"))
+                    .andExpect(MockMvcResultMatchers.status().isServiceUnavailable());
+            assertThat(System.nanoTime() - started).isLessThan(5_000_000_000L);
+
+            holder.submit(databaseBulkhead::release).get();
+            mockMvc.perform(
+                            MockMvcRequestBuilders.get("/api/accounts"))
+                    .andExpect(MockMvcResultMatchers.status().isOk());
+        } finally {
+            holder.shutdown();
+        }
+    }
+
+    @Test
+    public void testThatNestedCallsReuseThePermitOfTheOuterCall() throws Exception {
+        assertThat(databaseBulkhead.getMaxConcurrentCalls()).isEqualTo(1);
+
+        databaseBulkhead.acquire();
+        try {
+            accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+            assertThat(accountService.findAll()).hasSize(1);
+        } finally {
+            databaseBulkhead.release();
+        }
+
+        ExecutorService holder = Executors.newSingleThreadExecutor();
+        try {
+            holder.submit(databaseBulkhead::acquire).get();
+            assertThrows(BulkheadFullException.class, accountService::findAll);
+            holder.submit(databaseBulkhead::release).get();
+        } finally {
+            holder.shutdown();
+        }
+    }
+}
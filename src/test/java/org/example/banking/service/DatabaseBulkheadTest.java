@@ -0,0 +1,50 @@
+package org.example.banking.service;
+
+import org.example.banking.config.BankingProperties;
+import org.example.banking.services.impl.DatabaseBulkhead;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DatabaseBulkheadTest {
+
+    @Test
+    public void testThatWaitingCallerIsServedBeforeALaterOne() throws Exception {
+        DatabaseBulkhead databaseBulkhead = bulkhead();
+        List<String> served = new CopyOnWriteArrayList<>();
+
+        databaseBulkhead.acquire();
+        Thread waiting = new Thread(() -> {
+            databaseBulkhead.acquire();
+            served.add("waiting");
+            databaseBulkhead.release();
+        });
+        waiting.start();
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (waiting.getState() != Thread.State.TIMED_WAITING && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(waiting.getState()).isEqualTo(Thread.State.TIMED_WAITING);
+
+        // Hand the permit back and ask for it again at once, before the waiting caller has woken up.
+        databaseBulkhead.release();
+        databaseBulkhead.acquire();
+        served.add("later");
+        databaseBulkhead.release();
+        waiting.join(5_000);
+
+        assertThat(served).containsExactly("waiting", "later");
+    }
+
+    private static DatabaseBulkhead bulkhead() {
+        BankingProperties bankingProperties = new BankingProperties();
+        bankingProperties.getBulkhead().setMaxConcurrentCalls(1);
+        bankingProperties.getBulkhead().setMaxWaitingCalls(2);
+        bankingProperties.getBulkhead().setQueueTimeout(Duration.ofSeconds(5));
+        return new DatabaseBulkhead(bankingProperties, null);
+    }
+}
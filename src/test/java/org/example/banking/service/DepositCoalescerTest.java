@@ -0,0 +1,74 @@
+package org.example.banking.service;
+
+import org.example.banking.config.BankingProperties;
+import org.example.banking.domain.dto.AccountDto;
+import org.example.banking.services.AccountService;
+import org.example.banking.services.impl.DepositCoalescer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class DepositCoalescerTest {
+
+    @Mock
+    private AccountService accountService;
+
+    private DepositCoalescer depositCoalescer;
+
+    @AfterEach
+    public void shutdown() {
+        if (depositCoalescer != null) {
+            depositCoalescer.shutdown();
+        }
+    }
+
+    @Test
+    public void testThatErrorWhileApplyingFailsTheWaitingCallers() {
+        when(accountService.depositAll(any(), anyList())).thenThrow(new OutOfMemoryError("test"));
+        depositCoalescer = coalescer(Duration.ofSeconds(30));
+
+        IllegalStateException e = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> assertThrows(IllegalStateException.class, () -> depositCoalescer.deposit(1L, BigDecimal.TEN)));
+        assertThat(e).hasCauseInstanceOf(OutOfMemoryError.class);
+    }
+
+    @Test
+    public void testThatCallerGivesUpAfterTheTimeout() {
+        CountDownLatch release = new CountDownLatch(1);
+        when(accountService.depositAll(any(), anyList())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(new AccountDto(1L, "1", BigDecimal.TEN));
+        });
+        depositCoalescer = coalescer(Duration.ofMillis(100));
+
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(3),
+                    () -> assertThrows(IllegalStateException.class, () -> depositCoalescer.deposit(1L, BigDecimal.TEN)));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private DepositCoalescer coalescer(Duration timeout) {
+        BankingProperties bankingProperties = new BankingProperties();
+        bankingProperties.getDepositCoalescing().setEnabled(true);
+        bankingProperties.getDepositCoalescing().setTimeout(timeout);
+        return new DepositCoalescer(accountService, bankingProperties);
+    }
+}
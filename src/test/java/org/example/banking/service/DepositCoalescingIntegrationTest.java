@@ -0,0 +1,107 @@
+package org.example.banking.service;
+
+import org.example.banking.TestDataUtil;
+import org.example.banking.domain.dto.AccountDto;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.domain.entities.TransactionEntity;
+import org.example.banking.exceptions.AccountNotFoundException;
+import org.example.banking.repositories.AccountRepository;
+import org.example.banking.services.AccountService;
+import org.example.banking.services.impl.DepositCoalescer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestPropertySource(properties = {
+        "banking.deposit-coalescing.enabled=true",
+        "banking.deposit-coalescing.window=200ms"
+})
+public class DepositCoalescingIntegrationTest {
+
+    private static final int DEPOSITS = 50;
+
+    private final DepositCoalescer depositCoalescer;
+    private final AccountService accountService;
+    private final AccountRepository accountRepository;
+
+    @Autowired
+    public DepositCoalescingIntegrationTest(DepositCoalescer depositCoalescer,
+                                            AccountService accountService,
+                                            AccountRepository accountRepository) {
+        this.depositCoalescer = depositCoalescer;
+        this.accountService = accountService;
+        this.accountRepository = accountRepository;
+    }
+
+    @Test
+    public void testThatConcurrentDepositsAreMergedAndEachCallerSeesItsOwnBalance() throws Exception {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        long versionBefore = accountRepository.findById(account.getId()).orElseThrow().getVersion();
+
+        List<AccountDto> results = depositConcurrently(account.getId());
+
+        assertThat(results).extracting(AccountDto::getBalance)
+                .allSatisfy(balance -> assertThat(balance)
+                        .isBetween(new BigDecimal("101.00"), new BigDecimal("150.00")))
+                .doesNotHaveDuplicates();
+        AccountEntity stored = accountRepository.findById(account.getId()).orElseThrow();
+        assertThat(stored.getBalance()).isEqualByComparingTo("150.00");
+        assertThat(stored.getVersion() - versionBefore).isLessThan(DEPOSITS);
+        assertThat(accountService.findTransactions(account.getId(), null, 100))
+                .extracting(TransactionEntity::getType)
+                .hasSize(DEPOSITS)
+                .containsOnly(TransactionEntity.Type.DEPOSIT);
+    }
+
+    @Test
+    public void testThatFailedBatchFailsAllOfItsCallers() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<AccountDto>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> depositCoalescer.deposit(99L, BigDecimal.ONE)));
+            }
+            for (Future<AccountDto> future : futures) {
+                ExecutionException e = assertThrows(ExecutionException.class, future::get);
+                assertThat(e.getCause()).isInstanceOf(AccountNotFoundException.class);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<AccountDto> depositConcurrently(Long accountId) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(DEPOSITS);
+        try {
+            List<Future<AccountDto>> futures = new ArrayList<>();
+            for (int i = 0; i < DEPOSITS; i++) {
+                futures.add(executor.submit(() -> depositCoalescer.deposit(accountId, BigDecimal.ONE)));
+            }
+            List<AccountDto> results = new ArrayList<>();
+            for (Future<AccountDto> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
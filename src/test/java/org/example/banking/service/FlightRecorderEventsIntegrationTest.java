@@ -0,0 +1,104 @@
+package org.example.banking.service;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.example.banking.JfrOperationReport;
+import org.example.banking.TestDataUtil;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.exceptions.InsufficientFundsException;
+import org.example.banking.services.AccountService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestPropertySource(properties = "banking.locking-strategy=PESSIMISTIC")
+public class FlightRecorderEventsIntegrationTest {
+
+    private final AccountService accountService;
+
+    @Autowired
+    public FlightRecorderEventsIntegrationTest(AccountService accountService) {
+        this.accountService = accountService;
+    }
+
+    @Test
+    public void testThatMoneyOperationsAreRecordedAsFlightRecorderEvents() throws Exception {
+        AccountEntity accountA = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        AccountEntity accountB = accountService.createAccount(TestDataUtil.createTestAccountEntityB());
+
+        Path file = Files.createTempFile("operations", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("org.example.banking.Deposit");
+            recording.enable("org.example.banking.Withdraw");
+            recording.enable("org.example.banking.Transfer");
+            recording.enable("org.example.banking.SlowTransaction").withThreshold(Duration.ZERO);
+            recording.start();
+
+            accountService.deposit(accountA.getId(), new BigDecimal("25.00"));
+            accountService.transfer(accountA.getId(), accountB.getId(), new BigDecimal("5.00"));
+            assertThrows(InsufficientFundsException.class,
+                    () -> accountService.withdraw(accountB.getId(), new BigDecimal("1000000.00")));
+
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            RecordedEvent transfer = single(events, "org.example.banking.Transfer");
+            assertThat(transfer.getLong("fromAccountId")).isEqualTo(accountA.getId());
+            assertThat(transfer.getLong("toAccountId")).isEqualTo(accountB.getId());
+            assertThat(transfer.getString("amountBucket")).isEqualTo("1-10");
+            assertThat(transfer.getString("outcome")).isEqualTo("success");
+            assertThat(transfer.getDuration("lockWaitTime")).isPositive();
+            assertThat(transfer.getDuration("databaseTime")).isPositive();
+            assertThat(transfer.getInt("retries")).isZero();
+
+            RecordedEvent deposit = single(events, "org.example.banking.Deposit");
+            assertThat(deposit.getLong("accountId")).isEqualTo(accountA.getId());
+            assertThat(deposit.getString("amountBucket")).isEqualTo("10-100");
+
+            RecordedEvent withdraw = single(events, "org.example.banking.Withdraw");
+            assertThat(withdraw.getString("outcome")).isEqualTo("insufficient_funds");
+            assertThat(withdraw.getString("amountBucket")).isEqualTo(">=1000000");
+
+            assertThat(events).filteredOn(event -> event.getEventType().getName()
+                            .equals("org.example.banking.SlowTransaction"))
+                    .hasSize(3)
+                    .allSatisfy(event -> assertThat(event.getString("statement")).isNotBlank());
+
+            String report = JfrOperationReport.report(file);
+            assertThat(report)
+                    .contains("deposit success")
+                    .contains("transfer success")
+                    .contains("withdraw insufficient_funds")
+                    .contains("slow transactions: 3");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .reduce((first, second) -> {
+                    throw new AssertionError("More than one " + name + " event");
+                })
+                .orElseThrow(() -> new AssertionError("No " + name + " event"));
+    }
+}
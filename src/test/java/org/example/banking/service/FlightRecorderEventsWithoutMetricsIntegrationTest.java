@@ -0,0 +1,74 @@
+package org.example.banking.service;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.example.banking.TestDataUtil;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.services.AccountService;
+import org.example.banking.services.impl.OperationMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestPropertySource(properties = {
+        "banking.locking-strategy=PESSIMISTIC",
+        "banking.metrics.enabled=false"
+})
+public class FlightRecorderEventsWithoutMetricsIntegrationTest {
+
+    private final AccountService accountService;
+    private final ObjectProvider<OperationMetrics> operationMetrics;
+
+    @Autowired
+    public FlightRecorderEventsWithoutMetricsIntegrationTest(AccountService accountService,
+                                                             ObjectProvider<OperationMetrics> operationMetrics) {
+        this.accountService = accountService;
+        this.operationMetrics = operationMetrics;
+    }
+
+    @Test
+    public void testThatEventsAreRecordedWithMetricsDisabled() throws Exception {
+        assertThat(operationMetrics.getIfAvailable()).isNull();
+        AccountEntity accountA = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        AccountEntity accountB = accountService.createAccount(TestDataUtil.createTestAccountEntityB());
+
+        Path file = Files.createTempFile("operations", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("org.example.banking.Transfer");
+            recording.start();
+
+            accountService.transfer(accountA.getId(), accountB.getId(), new BigDecimal("5.00"));
+
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertThat(events).filteredOn(event -> event.getEventType().getName()
+                            .equals("org.example.banking.Transfer"))
+                    .singleElement()
+                    .satisfies(transfer -> {
+                        assertThat(transfer.getLong("fromAccountId")).isEqualTo(accountA.getId());
+                        assertThat(transfer.getString("outcome")).isEqualTo("success");
+                        assertThat(transfer.getDuration("lockWaitTime")).isPositive();
+                    });
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package org.example.banking.service;
+
+import org.example.banking.TestDataUtil;
+import org.example.banking.domain.dto.TransferRequestDto;
+import org.example.banking.domain.dto.TransferResultDto;
+import org.example.banking.domain.dto.AccountDto;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.domain.entities.AccountShardEntity;
+import org.example.banking.exceptions.InsufficientFundsException;
+import org.example.banking.repositories.AccountRepository;
+import org.example.banking.repositories.AccountShardRepository;
+import org.example.banking.services.AccountService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class HotAccountShardingIntegrationTest {
+
+    private final AccountService accountService;
+    private final AccountRepository accountRepository;
+    private final AccountShardRepository accountShardRepository;
+
+    @Autowired
+    public HotAccountShardingIntegrationTest(AccountService accountService,
+                                             AccountRepository accountRepository,
+                                             AccountShardRepository accountShardRepository) {
+        this.accountService = accountService;
+        this.accountRepository = accountRepository;
+        this.accountShardRepository = accountShardRepository;
+    }
+
+    @Test
+    public void testThatShardingSpreadsTheBalanceAndReadsReportTheTotal() {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+
+        assertThat(accountService.shardAccount(account.getId(), 3).getBalance()).isEqualByComparingTo("100.00");
+        assertThat(accountService.deposit(account.getId(), new BigDecimal("5.00")).getBalance())
+                .isEqualByComparingTo("105.00");
+
+        assertThat(accountRepository.findById(account.getId()).orElseThrow().getBalance()).isZero();
+        assertThat(shardBalances(account.getId())).hasSize(3);
+        assertThat(accountService.findById(account.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("105.00");
+        assertThat(accountService.findAllAfter(null, 10)).singleElement()
+                .extracting(AccountEntity::getBalance)
+                .satisfies(balance -> assertThat(balance).isEqualByComparingTo("105.00"));
+        assertThat(accountRepository.findDtoById(account.getId(), false).orElseThrow().getBalance())
+                .isEqualByComparingTo("105.00");
+        assertThat(accountService.findAllAccountDtos(PageRequest.of(0, 10)).getContent()).singleElement()
+                .extracting(AccountDto::getBalance)
+                .satisfies(balance -> assertThat(balance).isEqualByComparingTo("105.00"));
+    }
+
+    @Test
+    public void testThatWithdrawalBorrowsAcrossShards() {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        accountService.shardAccount(account.getId(), 4);
+
+        assertThat(accountService.withdraw(account.getId(), new BigDecimal("90.00")).getBalance())
+                .isEqualByComparingTo("10.00");
+        assertThrows(InsufficientFundsException.class,
+                () -> accountService.withdraw(account.getId(), new BigDecimal("10.01")));
+        assertThat(accountService.findById(account.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("10.00");
+    }
+
+    @Test
+    public void testThatTransfersAndBatchesMoveMoneyThroughShards() {
+        AccountEntity hot = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        AccountEntity other = accountService.createAccount(TestDataUtil.createTestAccountEntityB());
+        accountService.shardAccount(hot.getId(), 4);
+
+        accountService.transfer(other.getId(), hot.getId(), new BigDecimal("50.00"));
+        assertThat(accountService.transfer(hot.getId(), other.getId(), new BigDecimal("120.00")).getBalance())
+                .isEqualByComparingTo("30.00");
+
+        List<TransferResultDto> results = accountService.transferBatch(List.of(
+                new TransferRequestDto(other.getId(), hot.getId(), new BigDecimal("70.00")),
+                new TransferRequestDto(hot.getId(), other.getId(), new BigDecimal("100.00")),
+                new TransferRequestDto(hot.getId(), other.getId(), new BigDecimal("0.01"))));
+
+        assertThat(results).extracting(TransferResultDto::getStatus).containsExactly(
+                TransferResultDto.Status.SUCCEEDED, TransferResultDto.Status.SUCCEEDED,
+                TransferResultDto.Status.FAILED);
+        assertThat(accountService.findById(hot.getId()).orElseThrow().getBalance()).isEqualByComparingTo("0.00");
+        assertThat(accountService.findById(other.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("300.00");
+    }
+
+    @Test
+    public void testThatUnshardingFoldsTheShardsBackIntoTheAccountRow() {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        accountService.shardAccount(account.getId(), 8);
+        accountService.deposit(account.getId(), new BigDecimal("7.00"));
+
+        accountService.shardAccount(account.getId(), 1);
+
+        AccountEntity stored = accountRepository.findById(account.getId()).orElseThrow();
+        assertThat(stored.getShardCount()).isZero();
+        assertThat(stored.getBalance()).isEqualByComparingTo("107.00");
+        assertThat(shardBalances(account.getId())).isEmpty();
+    }
+
+    @Test
+    public void testThatConcurrentDepositsAndWithdrawalsKeepTheTotal() throws Exception {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        accountService.shardAccount(account.getId(), 16);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                futures.add(executor.submit(() -> accountService.deposit(account.getId(), new BigDecimal("2.00"))));
+                futures.add(executor.submit(() -> accountService.withdraw(account.getId(), BigDecimal.ONE)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(accountService.findById(account.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("300.00");
+        assertThat(shardBalances(account.getId())).allSatisfy(balance -> assertThat(balance).isNotNegative());
+    }
+
+    @Test
+    public void testThatConcurrentBatchesAndSingleTransfersDoNotDeadlock() throws Exception {
+        AccountEntity hot = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        AccountEntity other = accountService.createAccount(TestDataUtil.createTestAccountEntityB());
+        accountService.shardAccount(hot.getId(), 4);
+        BigDecimal amount = new BigDecimal("0.50");
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<TransferResultDto> results = new ArrayList<>();
+        try {
+            List<Future<?>> transfers = new ArrayList<>();
+            List<Future<List<TransferResultDto>>> batches = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                transfers.add(executor.submit(() -> accountService.transfer(hot.getId(), other.getId(), amount)));
+                transfers.add(executor.submit(() -> accountService.transfer(other.getId(), hot.getId(), amount)));
+                batches.add(executor.submit(() -> accountService.transferBatch(List.of(
+                        new TransferRequestDto(hot.getId(), other.getId(), amount),
+                        new TransferRequestDto(other.getId(), hot.getId(), amount)))));
+            }
+            for (Future<?> transfer : transfers) {
+                transfer.get();
+            }
+            for (Future<List<TransferResultDto>> batch : batches) {
+                results.addAll(batch.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(results).extracting(TransferResultDto::getStatus)
+                .containsOnly(TransferResultDto.Status.SUCCEEDED);
+        assertThat(accountService.findById(hot.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("100.00");
+        assertThat(accountService.findById(other.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("200.00");
+    }
+
+    @Test
+    public void testThatExportAddsShardBalancesInEveryChunk() {
+        List<AccountEntity> accounts = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            accounts.add(AccountEntity.builder().accountNumber("EXPORT-" + i).balance(BigDecimal.TEN).build());
+        }
+        accountService.createAccounts(accounts);
+        List<Long> ids = new ArrayList<>();
+        accountService.exportAll(accountEntity -> ids.add(accountEntity.getId()));
+        accountService.shardAccount(ids.get(0), 2);
+        accountService.shardAccount(ids.get(1200), 3);
+        accountService.deposit(ids.get(1200), new BigDecimal("5.00"));
+
+        List<AccountEntity> exported = new ArrayList<>();
+        accountService.exportAll(exported::add);
+
+        assertThat(exported).hasSize(1500);
+        assertThat(exported.get(0).getBalance()).isEqualByComparingTo("10.00");
+        assertThat(exported.get(1200).getBalance()).isEqualByComparingTo("15.00");
+        assertThat(exported).extracting(AccountEntity::getBalance)
+                .allSatisfy(balance -> assertThat(balance).isGreaterThanOrEqualTo(BigDecimal.TEN));
+    }
+
+    private List<BigDecimal> shardBalances(Long accountId) {
+        List<BigDecimal> balances = new ArrayList<>();
+        accountShardRepository.findAll().forEach(shard -> {
+            if (shard.getAccountId().equals(accountId)) {
+                balances.add(shard.getBalance());
+            }
+        });
+        return balances;
+    }
+
+    @Test
+    public void testThatShardDepositsChangeTheRevision() {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        accountService.shardAccount(account.getId(), 4);
+        String revision = accountService.findAccountRevision(account.getId()).orElseThrow();
+
+        accountService.deposit(account.getId(), new BigDecimal("10.00"));
+
+        assertThat(accountService.findAccountRevision(account.getId())).isPresent().get().isNotEqualTo(revision);
+    }
+}
@@ -0,0 +1,194 @@
+package org.example.banking.service;
+
+import org.example.banking.TestDataUtil;
+import org.example.banking.domain.dto.AccountDto;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.exceptions.AccountModifiedException;
+import org.example.banking.exceptions.AccountNotFoundException;
+import org.example.banking.exceptions.InsufficientFundsException;
+import org.example.banking.repositories.AccountRepository;
+import org.example.banking.services.AccountService;
+import org.example.banking.services.impl.AccountServiceImpl;
+import org.example.banking.services.impl.TransferEngine;
+import org.example.banking.services.impl.TransferEnginePersister;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestPropertySource(properties = {
+        "banking.locking-strategy=IN_MEMORY",
+        "banking.engine.partitions=4",
+        "banking.engine.ring-size=64",
+        "banking.engine.flush-interval=1h"
+})
+public class InMemoryTransferEngineIntegrationTest {
+
+    private final AccountService accountService;
+    private final AccountServiceImpl accountServiceImpl;
+    private final TransferEnginePersister transferEnginePersister;
+    private final AccountRepository accountRepository;
+
+    @Autowired
+    public InMemoryTransferEngineIntegrationTest(AccountService accountService,
+                                                 AccountServiceImpl accountServiceImpl,
+                                                 TransferEnginePersister transferEnginePersister,
+                                                 AccountRepository accountRepository) {
+        this.accountService = accountService;
+        this.accountServiceImpl = accountServiceImpl;
+        this.transferEnginePersister = transferEnginePersister;
+        this.accountRepository = accountRepository;
+    }
+
+    @Test
+    public void testThatTransfersAreVisibleAtOnceAndWrittenBackOnFlush() {
+        AccountEntity accountA = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        AccountEntity accountB = accountService.createAccount(TestDataUtil.createTestAccountEntityB());
+
+        AccountDto sender = accountService.transfer(accountA.getId(), accountB.getId(), new BigDecimal("30.00"));
+        accountService.deposit(accountA.getId(), new BigDecimal("5.00"));
+        accountService.withdraw(accountB.getId(), new BigDecimal("10.00"));
+
+        assertThat(sender.getBalance()).isEqualByComparingTo("70.00");
+        assertThat(accountService.findById(accountA.getId()).orElseThrow().getBalance()).isEqualByComparingTo("75.00");
+        assertThat(accountService.findById(accountB.getId()).orElseThrow().getBalance()).isEqualByComparingTo("220.00");
+        assertThat(accountRepository.findById(accountA.getId()).orElseThrow().getBalance()).isEqualByComparingTo("100.00");
+
+        transferEnginePersister.flush();
+
+        assertThat(accountRepository.findById(accountA.getId()).orElseThrow().getBalance()).isEqualByComparingTo("75.00");
+        assertThat(accountRepository.findById(accountB.getId()).orElseThrow().getBalance()).isEqualByComparingTo("220.00");
+    }
+
+    @Test
+    public void testThatFailedTransfersLeaveBalancesUnchanged() {
+        AccountEntity accountA = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        Long missingId = accountA.getId() + 1;
+
+        assertThrows(InsufficientFundsException.class,
+                () -> accountService.transfer(accountA.getId(), missingId, new BigDecimal("500.00")));
+        assertThrows(AccountNotFoundException.class,
+                () -> accountService.transfer(accountA.getId(), missingId, new BigDecimal("10.00")));
+        assertThrows(AccountNotFoundException.class,
+                () -> accountService.transfer(missingId, accountA.getId(), new BigDecimal("10.00")));
+        transferEnginePersister.flush();
+
+        assertThat(accountService.findById(accountA.getId()).orElseThrow().getBalance()).isEqualByComparingTo("100.00");
+        assertThat(accountRepository.findById(accountA.getId()).orElseThrow().getBalance()).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    public void testThatUpdatedBalanceReplacesInMemoryBalance() {
+        AccountEntity accountA = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        accountService.deposit(accountA.getId(), new BigDecimal("50.00"));
+
+        AccountEntity updated = accountService.partialUpdate(accountA.getId(), AccountEntity.builder()
+                .accountNumber("1111111111")
+                .balance(new BigDecimal("20.00"))
+                .build());
+        transferEnginePersister.flush();
+
+        assertThat(updated.getBalance()).isEqualByComparingTo("20.00");
+        assertThat(accountService.withdraw(accountA.getId(), new BigDecimal("5.00")).getAccountNumber())
+                .isEqualTo("1111111111");
+        transferEnginePersister.flush();
+        AccountEntity stored = accountRepository.findById(accountA.getId()).orElseThrow();
+        assertThat(stored.getAccountNumber()).isEqualTo("1111111111");
+        assertThat(stored.getBalance()).isEqualByComparingTo("15.00");
+    }
+
+    @Test
+    public void testThatBalancesAreRebuiltFromTheDatabaseAfterFlush() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            AccountEntity accountEntity = TestDataUtil.createTestAccountEntityC();
+            accountEntity.setAccountNumber(accountEntity.getAccountNumber() + i);
+            ids.add(accountService.createAccount(accountEntity).getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 500; i++) {
+                        Long fromId = ids.get(random.nextInt(ids.size()));
+                        Long toId = ids.get(random.nextInt(ids.size()));
+                        try {
+                            accountService.transfer(fromId, toId, BigDecimal.valueOf(random.nextInt(1, 100)));
+                        } catch (InsufficientFundsException ignored) {
+                            // expected once an account runs dry
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        transferEnginePersister.flush();
+
+        BigDecimal total = BigDecimal.ZERO;
+        try (TransferEngine recovered = new TransferEngine(2, 16, accountServiceImpl::findById)) {
+            for (Long id : ids) {
+                BigDecimal inMemory = accountService.findById(id).orElseThrow().getBalance();
+                BigDecimal rebuilt = recovered.update(id, null, null).join().getBalance();
+                assertThat(rebuilt).isEqualByComparingTo(inMemory);
+                assertThat(rebuilt.signum()).isNotNegative();
+                total = total.add(rebuilt);
+            }
+        }
+        assertThat(total).isEqualByComparingTo(new BigDecimal("1800.00"));
+    }
+
+    @Test
+    public void testThatDeletedAccountsAreNotLoadedAgain() {
+        AccountEntity row = TestDataUtil.createTestAccountEntityA();
+        try (TransferEngine engine = new TransferEngine(1, 16, id -> Optional.of(row))) {
+            engine.deposit(row.getId(), new BigDecimal("10.00")).join();
+            engine.delete(row.getId()).join();
+
+            CompletionException e = assertThrows(CompletionException.class,
+                    () -> engine.deposit(row.getId(), new BigDecimal("10.00")).join());
+            assertThat(e).hasCauseInstanceOf(AccountNotFoundException.class);
+            assertThat(engine.balanceOf(row.getId())).isEmpty();
+        }
+    }
+
+    @Test
+    public void testThatEngineOperationsChangeTheRevisionAndFailStaleUpdates() {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        accountService.deposit(account.getId(), new BigDecimal("10.00"));
+        String revision = accountService.findAccountRevision(account.getId()).orElseThrow();
+
+        accountService.deposit(account.getId(), new BigDecimal("10.00"));
+
+        assertThat(accountService.findAccountRevision(account.getId())).isPresent().get().isNotEqualTo(revision);
+        assertThrows(AccountModifiedException.class, () -> accountService.partialUpdate(account.getId(),
+                AccountEntity.builder().balance(BigDecimal.ZERO).build(), List.of(revision)));
+        assertThat(accountService.findAccountDtoById(account.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("120.00");
+    }
+}
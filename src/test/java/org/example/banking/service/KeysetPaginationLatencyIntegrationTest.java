@@ -0,0 +1,79 @@
+package org.example.banking.service;
+
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.services.AccountService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Seeds a large table and checks that a keyset page deep into it costs about the same as the first.
+ */
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public class KeysetPaginationLatencyIntegrationTest {
+
+    private static final int PAGE_SIZE = 10;
+    private static final int DEEP_PAGE = 10_000;
+    private static final int ACCOUNTS = PAGE_SIZE * (DEEP_PAGE + 1);
+    private static final int SAMPLES = 200;
+
+    private final AccountService accountService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public KeysetPaginationLatencyIntegrationTest(AccountService accountService, JdbcTemplate jdbcTemplate) {
+        this.accountService = accountService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @BeforeEach
+    void seedAccounts() {
+        jdbcTemplate.update("DELETE FROM accounts");
+        jdbcTemplate.update("INSERT INTO accounts (id, account_number, balance, version) "
+                + "SELECT r.\"X\", 'SEED-' || r.\"X\", 100.00, 0 FROM SYSTEM_RANGE(1, " + ACCOUNTS + ") r");
+    }
+
+    @Test
+    public void testThatDeepKeysetPageCostsAboutTheSameAsTheFirst() {
+        long deepCursor = (long) PAGE_SIZE * (DEEP_PAGE - 1);
+
+        List<AccountEntity> firstPage = accountService.findAllAfter(null, PAGE_SIZE);
+        List<AccountEntity> deepPage = accountService.findAllAfter(deepCursor, PAGE_SIZE);
+        assertThat(firstPage).extracting(AccountEntity::getId).startsWith(1L).hasSize(PAGE_SIZE);
+        assertThat(deepPage).extracting(AccountEntity::getId).startsWith(deepCursor + 1).hasSize(PAGE_SIZE);
+
+        for (int i = 0; i < SAMPLES; i++) {
+            accountService.findAllAfter(null, PAGE_SIZE);
+            accountService.findAllAfter(deepCursor, PAGE_SIZE);
+        }
+
+        long firstPageNanos = medianNanos(() -> accountService.findAllAfter(null, PAGE_SIZE));
+        long deepPageNanos = medianNanos(() -> accountService.findAllAfter(deepCursor, PAGE_SIZE));
+
+        // An OFFSET scan would be thousands of times slower at this depth; allow generous noise.
+        assertThat(deepPageNanos).isLessThan(firstPageNanos * 5 + 1_000_000);
+    }
+
+    private static long medianNanos(Runnable query) {
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            query.run();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+}
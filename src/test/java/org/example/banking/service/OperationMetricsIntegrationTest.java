@@ -0,0 +1,109 @@
+package org.example.banking.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.banking.TestDataUtil;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.exceptions.AccountNotFoundException;
+import org.example.banking.exceptions.InsufficientFundsException;
+import org.example.banking.services.AccountService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@TestPropertySource(properties = {
+        "banking.locking-strategy=PESSIMISTIC",
+        "management.endpoints.web.exposure.include=health,metrics,prometheus",
+        "management.metrics.distribution.percentiles.http.server.requests=0.5,0.99,0.999",
+        "management.metrics.distribution.percentiles-histogram.http.server.requests=true"
+})
+public class OperationMetricsIntegrationTest {
+
+    private final AccountService accountService;
+    private final MeterRegistry meterRegistry;
+    private final MockMvc mockMvc;
+
+    @Autowired
+    public OperationMetricsIntegrationTest(AccountService accountService,
+                                           MeterRegistry meterRegistry,
+                                           MockMvc mockMvc) {
+        this.accountService = accountService;
+        this.meterRegistry = meterRegistry;
+        this.mockMvc = mockMvc;
+    }
+
+    @Test
+    public void testThatOperationsAreSplitIntoDatabaseAndLockWaitTime() {
+        AccountEntity accountA = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        AccountEntity accountB = accountService.createAccount(TestDataUtil.createTestAccountEntityB());
+
+        accountService.deposit(accountA.getId(), new BigDecimal("10.00"));
+        accountService.transfer(accountA.getId(), accountB.getId(), new BigDecimal("5.00"));
+
+        Timer transfers = meterRegistry.get("banking.operation")
+                .tags("operation", "transfer", "outcome", "success").timer();
+        assertThat(transfers.count()).isEqualTo(1);
+        assertThat(meterRegistry.get("banking.operation.lock.wait").tag("operation", "transfer").timer()
+                .totalTime(TimeUnit.NANOSECONDS)).isPositive();
+        assertThat(meterRegistry.get("banking.operation.database").tag("operation", "transfer").timer()
+                .totalTime(TimeUnit.NANOSECONDS)).isPositive();
+        assertThat(meterRegistry.get("banking.operation").tags("operation", "deposit", "outcome", "success")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void testThatFailedOperationsAreCountedByOutcome() {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+
+        assertThrows(InsufficientFundsException.class,
+                () -> accountService.withdraw(account.getId(), new BigDecimal("1000000.00")));
+        assertThrows(AccountNotFoundException.class,
+                () -> accountService.deposit(account.getId() + 1000, new BigDecimal("1.00")));
+
+        assertThat(meterRegistry.get("banking.operation.insufficient.funds").tag("operation", "withdraw")
+                .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("banking.operation.not.found").tag("operation", "deposit")
+                .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("banking.operation").tags("operation", "withdraw", "outcome", "insufficient_funds")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void testThatPrometheusEndpointExposesLatencyAndPoolMetrics() throws Exception {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/accounts/" + account.getId()))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        accountService.deposit(account.getId(), new BigDecimal("10.00"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(MockMvcResultMatchers.content().string(containsString("quantile=\"0.999\"")))
+                .andExpect(MockMvcResultMatchers.content().string(containsString("banking_operation_seconds_count")))
+                .andExpect(MockMvcResultMatchers.content().string(containsString("banking_operation_lock_wait_seconds")))
+                .andExpect(MockMvcResultMatchers.content().string(containsString("hikaricp_connections_active")))
+                .andExpect(MockMvcResultMatchers.content().string(containsString("hikaricp_connections_idle")))
+                .andExpect(MockMvcResultMatchers.content().string(containsString("hikaricp_connections_pending")));
+    }
+}
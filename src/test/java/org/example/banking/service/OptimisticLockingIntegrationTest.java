@@ -0,0 +1,100 @@
+package org.example.banking.service;
+
+import org.example.banking.TestDataUtil;
+import org.example.banking.config.OptimisticRetryListener;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.repositories.AccountRepository;
+import org.example.banking.services.AccountService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestPropertySource(properties = {
+        "banking.locking-strategy=OPTIMISTIC",
+        "banking.retry.max-attempts=100"
+})
+public class OptimisticLockingIntegrationTest {
+
+    private static final int THREADS = 8;
+    private static final int DEPOSITS = 800;
+
+    private final AccountService accountService;
+    private final AccountRepository accountRepository;
+    private final OptimisticRetryListener optimisticRetryListener;
+
+    @Autowired
+    public OptimisticLockingIntegrationTest(AccountService accountService,
+                                            AccountRepository accountRepository,
+                                            OptimisticRetryListener optimisticRetryListener) {
+        this.accountService = accountService;
+        this.accountRepository = accountRepository;
+        this.optimisticRetryListener = optimisticRetryListener;
+    }
+
+    @Test
+    public void testThatAccountVersionIsIncrementedOnEveryChange() {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        long initialVersion = account.getVersion();
+
+        accountService.deposit(account.getId(), BigDecimal.ONE);
+        accountService.withdraw(account.getId(), BigDecimal.ONE);
+
+        assertThat(accountRepository.findById(account.getId()).orElseThrow().getVersion())
+                .isEqualTo(initialVersion + 2);
+    }
+
+    @Test
+    public void testThatConflictingDepositsAreRetriedWithoutLostUpdates() throws Exception {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < DEPOSITS; i++) {
+                futures.add(executor.submit(() -> accountService.deposit(account.getId(), BigDecimal.ONE)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(accountRepository.findById(account.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo(new BigDecimal("100.00").add(BigDecimal.valueOf(DEPOSITS)));
+        assertThat(optimisticRetryListener.getConflicts()).isPositive();
+        assertThat(optimisticRetryListener.getRetries()).isEqualTo(optimisticRetryListener.getConflicts());
+        assertThat(optimisticRetryListener.getExhausted()).isZero();
+    }
+
+    @Test
+    public void testThatPartialUpdateDoesNotOverwriteConcurrentDeposit() {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        AccountEntity staleCopy = accountRepository.findById(account.getId()).orElseThrow();
+
+        accountService.deposit(account.getId(), new BigDecimal("50.00"));
+        staleCopy.setAccountNumber("555555555");
+
+        assertThrows(OptimisticLockingFailureException.class, () -> accountRepository.save(staleCopy));
+        assertThat(accountRepository.findById(account.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo(new BigDecimal("150.00"));
+    }
+}
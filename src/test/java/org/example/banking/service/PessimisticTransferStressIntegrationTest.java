@@ -0,0 +1,102 @@
+package org.example.banking.service;
+
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.exceptions.InsufficientFundsException;
+import org.example.banking.repositories.AccountRepository;
+import org.example.banking.services.AccountService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestPropertySource(properties = "banking.locking-strategy=PESSIMISTIC")
+public class PessimisticTransferStressIntegrationTest {
+
+    private static final int ACCOUNTS = 4;
+    private static final int THREADS = 16;
+    private static final int TRANSFERS = 4000;
+
+    private final AccountService accountService;
+    private final AccountRepository accountRepository;
+
+    @Autowired
+    public PessimisticTransferStressIntegrationTest(AccountService accountService,
+                                                    AccountRepository accountRepository) {
+        this.accountService = accountService;
+        this.accountRepository = accountRepository;
+    }
+
+    @Test
+    public void testThatCrossingTransfersNeverDeadlockAndConserveMoney() throws Exception {
+        List<Long> accountIds = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            AccountEntity account = accountService.createAccount(AccountEntity.builder()
+                    .accountNumber("STRESS-" + i)
+                    .balance(new BigDecimal("1000.00"))
+                    .build());
+            accountIds.add(account.getId());
+        }
+        BigDecimal totalBefore = totalBalance();
+
+        AtomicInteger deadlocks = new AtomicInteger();
+        AtomicInteger insufficientFunds = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < TRANSFERS; i++) {
+                // Alternate direction between the same pair so that every pair sees crossing transfers.
+                Long first = accountIds.get(i % ACCOUNTS);
+                Long second = accountIds.get((i + 1 + ThreadLocalRandom.current().nextInt(ACCOUNTS - 1)) % ACCOUNTS);
+                boolean forward = (i / ACCOUNTS) % 2 == 0;
+                futures.add(executor.submit(() -> {
+                    try {
+                        if (forward) {
+                            accountService.transfer(first, second, new BigDecimal("3.00"));
+                        } else {
+                            accountService.transfer(second, first, new BigDecimal("3.00"));
+                        }
+                    } catch (InsufficientFundsException e) {
+                        insufficientFunds.incrementAndGet();
+                    } catch (PessimisticLockingFailureException e) {
+                        deadlocks.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(deadlocks.get()).isZero();
+        assertThat(insufficientFunds.get()).isLessThan(TRANSFERS);
+        assertThat(totalBalance()).isEqualByComparingTo(totalBefore);
+    }
+
+    private BigDecimal totalBalance() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (AccountEntity account : accountRepository.findAll()) {
+            total = total.add(account.getBalance());
+        }
+        return total;
+    }
+}
@@ -0,0 +1,127 @@
+package org.example.banking.service;
+
+import org.example.banking.TestDataUtil;
+import org.example.banking.domain.dto.AccountDto;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.repositories.AccountRepository;
+import org.example.banking.services.AccountService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two in-memory H2 databases stand in for the primary and its replica. Replication is simulated by
+ * copying the primary into the replica, after which the primary moves on and the replica lags behind.
+ */
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.datasource.url=" + ReadReplicaRoutingIntegrationTest.PRIMARY_URL,
+        "banking.read-replicas.enabled=true",
+        "banking.read-replicas.replicas[0].url=" + ReadReplicaRoutingIntegrationTest.REPLICA_URL,
+        "banking.read-replicas.replicas[0].username=sa",
+        "banking.read-replicas.replicas[0].password=password",
+        "banking.read-replicas.staleness-window=1h"
+})
+public class ReadReplicaRoutingIntegrationTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+            + "DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+            + "DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+
+    private final AccountService accountService;
+    private final AccountRepository accountRepository;
+    private final MockMvc mockMvc;
+
+    @Autowired
+    public ReadReplicaRoutingIntegrationTest(AccountService accountService,
+                                             AccountRepository accountRepository,
+                                             MockMvc mockMvc) {
+        this.accountService = accountService;
+        this.accountRepository = accountRepository;
+        this.mockMvc = mockMvc;
+    }
+
+    @Test
+    public void testThatReadOnlyCallsReadTheReplicaAndEverythingElseThePrimary() throws Exception {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        replicate();
+        accountService.deposit(account.getId(), new BigDecimal("50.00"));
+
+        assertThat(accountService.findAllAccountDtos(PageRequest.of(0, 10)).getContent()).singleElement()
+                .extracting(AccountDto::getBalance)
+                .satisfies(balance -> assertThat(balance).isEqualByComparingTo("100.00"));
+        assertThat(accountService.findByAccountNumber(account.getAccountNumber()).orElseThrow().getBalance())
+                .isEqualByComparingTo("100.00");
+
+        assertThat(accountService.findById(account.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("150.00");
+        assertThat(accountService.findAccountDtoById(account.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("150.00");
+        assertThat(accountRepository.findById(account.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("150.00");
+        assertThat(accountService.withdraw(account.getId(), new BigDecimal("10.00")).getBalance())
+                .isEqualByComparingTo("140.00");
+    }
+
+    @Test
+    public void testThatClientReadsItsOwnWritesFromThePrimary() throws Exception {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        replicate();
+
+        mockMvc.perform(
+                        MockMvcRequestBuilders.post("/api/accounts/deposit/" + account.getId())
+                                .header("X-Client-Id", "writer")
+                                .param("amount", "50.00"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get("/api/accounts")
+                                .header("X-Client-Id", "writer"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].balance").value(150.00));
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get("/api/accounts")
+                                .header("X-Client-Id", "reader"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].balance").value(100.00));
+    }
+
+    /**
+     * Replaces the content of the replica with a copy of the primary.
+     */
+    private static void replicate() throws SQLException, IOException {
+        Path script = Files.createTempFile("primary", ".sql");
+        try (Connection primary = DriverManager.getConnection(PRIMARY_URL, "sa", "password");
+             Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "password");
+             Statement primaryStatement = primary.createStatement();
+             Statement replicaStatement = replica.createStatement()) {
+            primaryStatement.execute("SCRIPT TO '" + script + "'");
+            replicaStatement.execute("DROP ALL OBJECTS");
+            replicaStatement.execute("RUNSCRIPT FROM '" + script + "'");
+        } finally {
+            Files.deleteIfExists(script);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package org.example.banking.service;
+
+import org.example.banking.TestDataUtil;
+import org.example.banking.domain.dto.AccountDto;
+import org.example.banking.domain.dto.TransferRequestDto;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.domain.entities.TransactionEntity;
+import org.example.banking.exceptions.InsufficientFundsException;
+import org.example.banking.repositories.AccountRepository;
+import org.example.banking.services.AccountService;
+import org.example.banking.services.impl.JournalCompactor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestPropertySource(properties = {
+        "banking.locking-strategy=JOURNAL",
+        "banking.journal.compaction-interval=1h"
+})
+public class TransactionJournalIntegrationTest {
+
+    private final AccountService accountService;
+    private final AccountRepository accountRepository;
+    private final JournalCompactor journalCompactor;
+
+    @Autowired
+    public TransactionJournalIntegrationTest(AccountService accountService,
+                                             AccountRepository accountRepository,
+                                             JournalCompactor journalCompactor) {
+        this.accountService = accountService;
+        this.accountRepository = accountRepository;
+        this.journalCompactor = journalCompactor;
+    }
+
+    @Test
+    public void testThatMoneyOperationsOnlyAppendToTheJournal() {
+        AccountEntity accountA = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        AccountEntity accountB = accountService.createAccount(TestDataUtil.createTestAccountEntityB());
+
+        assertThat(accountService.deposit(accountA.getId(), new BigDecimal("50.00")).getBalance())
+                .isEqualByComparingTo("150.00");
+        assertThat(accountService.withdraw(accountA.getId(), new BigDecimal("20.00")).getBalance())
+                .isEqualByComparingTo("130.00");
+        assertThat(accountService.transfer(accountA.getId(), accountB.getId(), new BigDecimal("30.00")).getBalance())
+                .isEqualByComparingTo("100.00");
+
+        assertThat(accountRepository.findById(accountA.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("100.00");
+        assertThat(accountService.findById(accountA.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("100.00");
+        assertThat(accountService.findById(accountB.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("230.00");
+        assertThat(accountService.findAllAccountDtos(PageRequest.of(0, 10, Sort.by("id"))).getContent())
+                .extracting(AccountDto::getBalance)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("100.00"), new BigDecimal("230.00"));
+        assertThat(accountService.findTransactions(accountA.getId(), null, 10))
+                .extracting(TransactionEntity::getType)
+                .containsExactly(TransactionEntity.Type.TRANSFER_OUT, TransactionEntity.Type.WITHDRAWAL,
+                        TransactionEntity.Type.DEPOSIT);
+    }
+
+    @Test
+    public void testThatCompactionFoldsPendingEntriesIntoTheAccountRow() {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        accountService.deposit(account.getId(), new BigDecimal("25.00"));
+        accountService.withdraw(account.getId(), new BigDecimal("5.00"));
+
+        assertThat(journalCompactor.compact()).isEqualTo(1);
+        assertThat(journalCompactor.compact()).isZero();
+
+        AccountEntity compacted = accountRepository.findById(account.getId()).orElseThrow();
+        assertThat(compacted.getBalance()).isEqualByComparingTo("120.00");
+        assertThat(compacted.getJournalPosition()).isPositive();
+        assertThat(accountService.findById(account.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("120.00");
+    }
+
+    @Test
+    public void testThatWithdrawalBeyondJournalBalanceIsRejected() {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        accountService.withdraw(account.getId(), new BigDecimal("80.00"));
+
+        assertThrows(InsufficientFundsException.class,
+                () -> accountService.withdraw(account.getId(), new BigDecimal("30.00")));
+    }
+
+    @Test
+    public void testThatSettingBalanceSupersedesPendingEntries() {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        accountService.deposit(account.getId(), new BigDecimal("25.00"));
+
+        accountService.partialUpdate(account.getId(), AccountEntity.builder().balance(new BigDecimal("10.00")).build());
+        assertThat(accountService.findById(account.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("10.00");
+
+        accountService.deposit(account.getId(), new BigDecimal("1.00"));
+        journalCompactor.compact();
+        assertThat(accountService.findById(account.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("11.00");
+    }
+
+    @Test
+    public void testThatBatchTransfersUseJournalBalances() {
+        AccountEntity accountA = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        AccountEntity accountB = accountService.createAccount(TestDataUtil.createTestAccountEntityB());
+        accountService.deposit(accountA.getId(), new BigDecimal("20.00"));
+
+        accountService.transferBatch(List.of(
+                new TransferRequestDto(accountA.getId(), accountB.getId(), new BigDecimal("120.00")),
+                new TransferRequestDto(accountA.getId(), accountB.getId(), new BigDecimal("0.01"))));
+
+        assertThat(accountService.findById(accountA.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("0.00");
+        assertThat(accountService.findById(accountB.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("320.00");
+    }
+
+    @Test
+    public void testThatConcurrentOperationsAndCompactionKeepBalancesConsistent() throws Exception {
+        AccountEntity accountA = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        AccountEntity accountB = accountService.createAccount(TestDataUtil.createTestAccountEntityB());
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            Future<?> compactor = executor.submit(() -> {
+                while (running.get()) {
+                    journalCompactor.compact();
+                }
+            });
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                futures.add(executor.submit(() -> accountService.deposit(accountA.getId(), BigDecimal.ONE)));
+                futures.add(executor.submit(() ->
+                        accountService.transfer(accountA.getId(), accountB.getId(), BigDecimal.ONE)));
+                futures.add(executor.submit(() ->
+                        accountService.transfer(accountB.getId(), accountA.getId(), BigDecimal.ONE)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            running.set(false);
+            compactor.get();
+        } finally {
+            executor.shutdownNow();
+        }
+        journalCompactor.compact();
+
+        assertThat(accountRepository.findById(accountA.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("300.00");
+        assertThat(accountRepository.findById(accountB.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("200.00");
+    }
+
+    @Test
+    public void testThatExportKeepsPendingEntriesOfAccountsCompactedWhileItRuns() throws Exception {
+        List<AccountEntity> accounts = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            accounts.add(AccountEntity.builder().accountNumber("EXPORT-" + i).balance(BigDecimal.TEN).build());
+        }
+        accountService.createAccounts(accounts);
+        List<Long> ids = new ArrayList<>();
+        accountService.exportAll(accountEntity -> ids.add(accountEntity.getId()));
+        accountService.deposit(ids.get(1200), new BigDecimal("5.00"));
+
+        // The second chunk is read by the cursor opened before the compaction, its pending sum after it.
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        List<AccountEntity> exported = new ArrayList<>();
+        try {
+            accountService.exportAll(accountEntity -> {
+                if (exported.isEmpty()) {
+                    try {
+                        assertThat(executor.submit(journalCompactor::compact).get()).isEqualTo(1);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                exported.add(accountEntity);
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(exported).hasSize(1500);
+        assertThat(exported.get(1200).getBalance()).isEqualByComparingTo("15.00");
+    }
+
+    @Test
+    public void testThatPendingEntriesChangeTheRevisionWithoutChangingTheVersion() {
+        AccountEntity account = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        String revision = accountService.findAccountRevision(account.getId()).orElseThrow();
+        long version = accountRepository.findVersionById(account.getId()).orElseThrow();
+
+        accountService.deposit(account.getId(), new BigDecimal("10.00"));
+
+        assertThat(accountRepository.findVersionById(account.getId())).contains(version);
+        assertThat(accountService.findAccountRevision(account.getId())).isPresent().get().isNotEqualTo(revision);
+    }
+}
@@ -0,0 +1,143 @@
+package org.example.banking.service;
+
+import org.example.banking.TestDataUtil;
+import org.example.banking.config.BankingProperties;
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.domain.entities.WalCheckpointEntity;
+import org.example.banking.repositories.AccountRepository;
+import org.example.banking.repositories.WalCheckpointRepository;
+import org.example.banking.services.AccountService;
+import org.example.banking.services.impl.AccountCache;
+import org.example.banking.services.impl.TransferEngine;
+import org.example.banking.services.impl.TransferEnginePersister;
+import org.example.banking.services.impl.WriteAheadLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestPropertySource(properties = {
+        "banking.locking-strategy=IN_MEMORY",
+        "banking.engine.flush-interval=1h",
+        "banking.wal.enabled=true",
+        "banking.wal.segment-size=4KB",
+        "banking.wal.group-commit-records=4"
+})
+public class WriteAheadLogIntegrationTest {
+
+    private final AccountService accountService;
+    private final AccountRepository accountRepository;
+    private final WalCheckpointRepository walCheckpointRepository;
+    private final TransferEngine transferEngine;
+    private final TransferEnginePersister transferEnginePersister;
+    private final AccountCache accountCache;
+    private final TransactionTemplate transactionTemplate;
+    private final BankingProperties bankingProperties;
+
+    @Autowired
+    public WriteAheadLogIntegrationTest(AccountService accountService,
+                                        AccountRepository accountRepository,
+                                        WalCheckpointRepository walCheckpointRepository,
+                                        TransferEngine transferEngine,
+                                        TransferEnginePersister transferEnginePersister,
+                                        AccountCache accountCache,
+                                        TransactionTemplate transactionTemplate,
+                                        BankingProperties bankingProperties) {
+        this.accountService = accountService;
+        this.accountRepository = accountRepository;
+        this.walCheckpointRepository = walCheckpointRepository;
+        this.transferEngine = transferEngine;
+        this.transferEnginePersister = transferEnginePersister;
+        this.accountCache = accountCache;
+        this.transactionTemplate = transactionTemplate;
+        this.bankingProperties = bankingProperties;
+    }
+
+    @DynamicPropertySource
+    static void walDirectory(DynamicPropertyRegistry registry) {
+        registry.add("banking.wal.directory", () -> createTempDirectory().toString());
+    }
+
+    @Test
+    public void testThatFlushAppliesLoggedChangesAndMovesTheCheckpoint() throws IOException {
+        AccountEntity accountA = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        AccountEntity accountB = accountService.createAccount(TestDataUtil.createTestAccountEntityB());
+
+        for (int i = 0; i < 100; i++) {
+            accountService.transfer(accountA.getId(), accountB.getId(), BigDecimal.ONE);
+        }
+        transferEnginePersister.flush();
+
+        assertThat(accountRepository.findById(accountA.getId()).orElseThrow().getBalance()).isEqualByComparingTo("0.00");
+        assertThat(accountRepository.findById(accountB.getId()).orElseThrow().getBalance()).isEqualByComparingTo("300.00");
+        assertThat(walCheckpointRepository.findById(WalCheckpointEntity.ID).orElseThrow().getAppliedLsn())
+                .isEqualTo(100L);
+        assertThat(segmentFiles(bankingProperties.getWal().getDirectory())).hasSize(1);
+    }
+
+    @Test
+    public void testThatAcknowledgedChangesAreReplayedIntoTheRowsAfterCrash() throws IOException {
+        AccountEntity accountA = accountService.createAccount(TestDataUtil.createTestAccountEntityA());
+        AccountEntity accountB = accountService.createAccount(TestDataUtil.createTestAccountEntityB());
+        accountService.transfer(accountA.getId(), accountB.getId(), new BigDecimal("40.00"));
+        accountService.deposit(accountA.getId(), new BigDecimal("5.00"));
+        accountService.withdraw(accountB.getId(), new BigDecimal("15.00"));
+
+        Path crashImage = createTempDirectory();
+        for (Path segment : segmentFiles(bankingProperties.getWal().getDirectory())) {
+            Files.copy(segment, crashImage.resolve(segment.getFileName()));
+        }
+        assertThat(accountRepository.findById(accountA.getId()).orElseThrow().getBalance()).isEqualByComparingTo("100.00");
+
+        WriteAheadLog recoveredLog = new WriteAheadLog(crashImage, 4096, 4, 1_000_000);
+        try {
+            new TransferEnginePersister(transferEngine,
+                    new StaticListableBeanFactory(Map.of("writeAheadLog", recoveredLog))
+                            .getBeanProvider(WriteAheadLog.class),
+                    accountRepository, walCheckpointRepository, accountCache, transactionTemplate, bankingProperties)
+                    .recover();
+        } finally {
+            recoveredLog.close();
+        }
+
+        assertThat(accountRepository.findById(accountA.getId()).orElseThrow().getBalance()).isEqualByComparingTo("65.00");
+        assertThat(accountRepository.findById(accountB.getId()).orElseThrow().getBalance()).isEqualByComparingTo("225.00");
+        assertThat(walCheckpointRepository.findById(WalCheckpointEntity.ID).orElseThrow().getAppliedLsn())
+                .isEqualTo(3L);
+    }
+
+    private static Path createTempDirectory() {
+        try {
+            return Files.createTempDirectory("wal-test");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<Path> segmentFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package org.example.banking.service;
+
+import org.example.banking.domain.entities.AccountEntity;
+import org.example.banking.services.impl.TransferEngine;
+import org.example.banking.services.impl.WriteAheadLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class WriteAheadLogTest {
+
+    private static final long RECORD_SIZE = 36;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void testThatDurableRecordsAreReplayedAfterReopening() throws Exception {
+        try (WriteAheadLog log = open(1024, 8)) {
+            assertThat(log.recover(0, entry -> {
+            })).isZero();
+            List<CompletableFuture<Long>> durable = new ArrayList<>();
+            durable.add(append(log, 1L, null, 1050));
+            durable.add(append(log, 2L, 1L, -325));
+            durable.add(append(log, 3L, null, Long.MAX_VALUE));
+
+            assertThat(durable.get(2).get(5, TimeUnit.SECONDS)).isEqualTo(3L);
+            assertThat(durable.get(0)).isCompletedWithValue(1L);
+        }
+
+        List<WriteAheadLog.Entry> replayed = new ArrayList<>();
+        try (WriteAheadLog log = open(1024, 8)) {
+            assertThat(log.recover(1, replayed::add)).isEqualTo(3L);
+            assertThat(append(log, 4L, null, 100).get(5, TimeUnit.SECONDS)).isEqualTo(4L);
+        }
+
+        assertThat(replayed).containsExactly(
+                new WriteAheadLog.Entry(2, 2L, 1L, -325),
+                new WriteAheadLog.Entry(3, 3L, null, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testThatFullSegmentsRollOverAndAreTruncatedOnceApplied() throws Exception {
+        try (WriteAheadLog log = open(4 * RECORD_SIZE, 1)) {
+            log.recover(0, entry -> {
+            });
+            CompletableFuture<Long> last = null;
+            for (long i = 1; i <= 10; i++) {
+                last = append(log, i, null, 1000);
+            }
+            last.get(5, TimeUnit.SECONDS);
+            assertThat(segmentFiles()).hasSize(3);
+
+            log.truncate(7);
+            assertThat(segmentFiles()).hasSize(2);
+            log.truncate(8);
+            assertThat(segmentFiles()).hasSize(1);
+        }
+
+        List<WriteAheadLog.Entry> replayed = new ArrayList<>();
+        try (WriteAheadLog log = open(4 * RECORD_SIZE, 1)) {
+            log.recover(8, replayed::add);
+        }
+        assertThat(replayed).extracting(WriteAheadLog.Entry::lsn).containsExactly(9L, 10L);
+    }
+
+    @Test
+    public void testThatReplayStopsAtTornRecord() throws Exception {
+        try (WriteAheadLog log = open(1024, 1)) {
+            log.recover(0, entry -> {
+            });
+            CompletableFuture<Long> last = null;
+            for (long i = 1; i <= 3; i++) {
+                last = append(log, i, null, 100);
+            }
+            last.get(5, TimeUnit.SECONDS);
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segmentFiles().get(0).toFile(), "rw")) {
+            file.seek(RECORD_SIZE + 20);
+            file.write(0x7f);
+        }
+
+        List<WriteAheadLog.Entry> replayed = new ArrayList<>();
+        try (WriteAheadLog log = open(1024, 1)) {
+            assertThat(log.recover(0, replayed::add)).isEqualTo(1L);
+        }
+        assertThat(replayed).extracting(WriteAheadLog.Entry::lsn).containsExactly(1L);
+    }
+
+    @Test
+    public void testThatLogReopensWhenLastSegmentHasNoRecords() throws Exception {
+        for (int restart = 0; restart < 2; restart++) {
+            try (WriteAheadLog log = open(1024, 1)) {
+                assertThat(log.recover(0, entry -> {
+                })).isZero();
+            }
+        }
+        assertThat(segmentFiles()).hasSize(1);
+
+        try (WriteAheadLog log = open(1024, 1)) {
+            log.recover(0, entry -> {
+            });
+            assertThat(append(log, 1L, null, 100).get(5, TimeUnit.SECONDS)).isEqualTo(1L);
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segmentFiles().get(0).toFile(), "rw")) {
+            file.seek(20);
+            file.write(0x7f);
+        }
+
+        List<WriteAheadLog.Entry> replayed = new ArrayList<>();
+        try (WriteAheadLog log = open(1024, 1)) {
+            assertThat(log.recover(0, replayed::add)).isZero();
+            assertThat(append(log, 2L, null, 200).get(5, TimeUnit.SECONDS)).isEqualTo(1L);
+        }
+        assertThat(replayed).isEmpty();
+    }
+
+    @Test
+    public void testThatEngineLeavesBalancesUnchangedWhenAppendFails() throws Exception {
+        WriteAheadLog log = open(1024, 1);
+        log.recover(0, entry -> {
+        });
+        Map<Long, AccountEntity> accounts = Map.of(
+                1L, AccountEntity.builder().id(1L).accountNumber("1").balance(new BigDecimal("100.00")).build(),
+                2L, AccountEntity.builder().id(2L).accountNumber("2").balance(new BigDecimal("100.00")).build());
+        try (TransferEngine engine = new TransferEngine(1, 16, id -> Optional.ofNullable(accounts.get(id)), log)) {
+            engine.transfer(1L, 2L, new BigDecimal("10.00")).get(5, TimeUnit.SECONDS);
+            log.close();
+
+            assertThatThrownBy(() -> engine.transfer(1L, 2L, new BigDecimal("10.00")).get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class);
+            assertThatThrownBy(() -> engine.deposit(1L, new BigDecimal("10.00")).get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class);
+            assertThat(engine.balanceOf(1L))
+                    .hasValueSatisfying(balance -> assertThat(balance).isEqualByComparingTo("90.00"));
+            assertThat(engine.balanceOf(2L))
+                    .hasValueSatisfying(balance -> assertThat(balance).isEqualByComparingTo("110.00"));
+        }
+    }
+
+    private WriteAheadLog open(long segmentSize, int groupCommitRecords) {
+        return new WriteAheadLog(directory, segmentSize, groupCommitRecords, TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    private static CompletableFuture<Long> append(WriteAheadLog log, Long accountId, Long counterpartyAccountId,
+                                                  long amount) {
+        CompletableFuture<Long> durable = new CompletableFuture<>();
+        log.append(accountId, counterpartyAccountId, amount, durable::complete, durable::completeExceptionally);
+        return durable;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+}